@@ -0,0 +1,107 @@
+package org.keyko.retirement.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.keyko.retirement.RetirementApp;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.User;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The application shared by the benchmarks of a forked JVM, started once with the configuration of the tests: an
+ * embedded H2 database created by the Liquibase changelogs, and the web server on a random port.
+ */
+final class BenchmarkContext {
+
+    static final int SECURITIES = 20;
+
+    static final int PURCHASES_PER_SECURITY = 500;
+
+    /**
+     * The login of the user owning the benchmark purchases, one of the users created by the Liquibase changelogs.
+     */
+    static final String OWNER_LOGIN = "user";
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkContext() {}
+
+    /**
+     * Get the application, starting it and loading the benchmark data on first use.
+     *
+     * @return the application context.
+     */
+    static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(RetirementApp.class).properties("server.port=0").run();
+            loadData();
+            Runtime.getRuntime().addShutdownHook(new Thread(context::close));
+        }
+        return context;
+    }
+
+    static <T> T getBean(Class<T> type) {
+        return get().getBean(type);
+    }
+
+    static int getPort() {
+        return ((WebServerApplicationContext) get()).getWebServer().getPort();
+    }
+
+    static User getOwner() {
+        return getBean(UserRepository.class).findOneByLogin(OWNER_LOGIN).orElseThrow();
+    }
+
+    static TransactionTemplate newTransactionTemplate(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate;
+    }
+
+    static Security newSecurity(int index) {
+        return new Security()
+            .name("Security " + index)
+            .ticker("SEC" + index)
+            .type(index % 2 == 0 ? SecurityType.SHARE : SecurityType.BOND)
+            .region(index % 3 == 0 ? Region.RUS : Region.USA);
+    }
+
+    static Purchase newPurchase(Security security, int index) {
+        return new Purchase()
+            .price(10f + index % 100)
+            .currency(index % 2 == 0 ? Currency.USD : Currency.RUB)
+            .number(1 + index % 10)
+            .comission(0.5f)
+            .security(security);
+    }
+
+    private static void loadData() {
+        SecurityRepository securityRepository = context.getBean(SecurityRepository.class);
+        PurchaseRepository purchaseRepository = context.getBean(PurchaseRepository.class);
+        User owner = context.getBean(UserRepository.class).findOneByLogin(OWNER_LOGIN).orElseThrow();
+        newTransactionTemplate(false)
+            .executeWithoutResult(
+                status -> {
+                    for (int i = 0; i < SECURITIES; i++) {
+                        Security security = securityRepository.save(newSecurity(i));
+                        List<Purchase> purchases = new ArrayList<>(PURCHASES_PER_SECURITY);
+                        for (int j = 0; j < PURCHASES_PER_SECURITY; j++) {
+                            purchases.add(newPurchase(security, j).owner(owner));
+                        }
+                        purchaseRepository.saveAll(purchases);
+                    }
+                }
+            );
+    }
+}
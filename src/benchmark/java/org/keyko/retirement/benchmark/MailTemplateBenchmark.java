@@ -0,0 +1,65 @@
+package org.keyko.retirement.benchmark;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.keyko.retirement.config.Constants;
+import org.keyko.retirement.domain.User;
+import org.keyko.retirement.service.MailTemplateRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Rendering of the creation e-mail and its subject, done for every account created by {@code UserResource.createUser},
+ * from several threads as in a mass account creation: with {@link MailTemplateRenderer}, and straight from the
+ * template engine and the message source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MailTemplateBenchmark {
+
+    private static final String TEMPLATE = "mail/creationEmail";
+
+    private static final String TITLE_KEY = "email.activation.title";
+
+    private static final Locale LOCALE = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    private SpringTemplateEngine templateEngine;
+
+    private MessageSource messageSource;
+
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        mailTemplateRenderer = BenchmarkContext.getBean(MailTemplateRenderer.class);
+        templateEngine = BenchmarkContext.getBean(SpringTemplateEngine.class);
+        messageSource = BenchmarkContext.getBean(MessageSource.class);
+        User user = new User();
+        user.setLogin("created");
+        user.setEmail("created@localhost");
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setResetKey(RandomUtil.generateResetKey());
+        variables = Map.of("user", user, "baseUrl", "http://127.0.0.1:8080");
+    }
+
+    @Benchmark
+    public String renderWithRenderer() {
+        return mailTemplateRenderer.getMessage(TITLE_KEY, LOCALE) + mailTemplateRenderer.render(TEMPLATE, LOCALE, variables);
+    }
+
+    @Benchmark
+    public String renderWithTemplateEngine() {
+        return messageSource.getMessage(TITLE_KEY, null, LOCALE) + templateEngine.process(TEMPLATE, new Context(LOCALE, variables));
+    }
+}
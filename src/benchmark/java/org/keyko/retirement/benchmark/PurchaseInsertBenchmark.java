@@ -0,0 +1,59 @@
+package org.keyko.retirement.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Inserts of purchases in batches, whose ids come from the pooled-lo sequence generator: the sequence is only read
+ * once per {@code application.sequence.allocation-size} ids. An allocation size of 1 reads it for every id, like the
+ * shared {@code sequence_generator} did before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseInsertBenchmark {
+
+    @Param({ "1000" })
+    public int batchSize;
+
+    @Param({ "1", "50" })
+    public int allocationSize;
+
+    private PurchaseRepository purchaseRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Security security;
+
+    @Setup
+    public void setUp() {
+        // The application of each fork is started with the allocation size of its parameters
+        System.setProperty("application.sequence.allocation-size", String.valueOf(allocationSize));
+        if (BenchmarkContext.getBean(ApplicationProperties.class).getSequence().getAllocationSize() != allocationSize) {
+            throw new IllegalStateException("The application was started with another allocation size, run the benchmark forked");
+        }
+        purchaseRepository = BenchmarkContext.getBean(PurchaseRepository.class);
+        transactionTemplate = BenchmarkContext.newTransactionTemplate(false);
+        security = BenchmarkContext.getBean(SecurityRepository.class).findAll().get(0);
+    }
+
+    @Benchmark
+    public List<Purchase> insertBatch() {
+        List<Purchase> purchases = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            purchases.add(BenchmarkContext.newPurchase(security, i));
+        }
+        return transactionTemplate.execute(status -> purchaseRepository.saveAll(purchases));
+    }
+}
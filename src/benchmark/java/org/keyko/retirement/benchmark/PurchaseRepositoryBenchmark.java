@@ -0,0 +1,69 @@
+package org.keyko.retirement.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.service.dto.PurchaseView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads of all the purchases of an owner with the keyset query of the list endpoint: as managed entities with their
+ * security, against its read-only projection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseRepositoryBenchmark {
+
+    /**
+     * The query of {@link PurchaseRepository#findAllViewsByOwnerIdAfterId}, selecting the entities.
+     */
+    private static final String ENTITIES_BY_OWNER_ID_AFTER_ID =
+        "select purchase from Purchase purchase left join fetch purchase.security " +
+        "where purchase.owner.id = :ownerId and purchase.id > :afterId order by purchase.id";
+
+    private static final int COUNT = BenchmarkContext.SECURITIES * BenchmarkContext.PURCHASES_PER_SECURITY;
+
+    private PurchaseRepository purchaseRepository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        purchaseRepository = BenchmarkContext.getBean(PurchaseRepository.class);
+        entityManager = BenchmarkContext.getBean(EntityManager.class);
+        transactionTemplate = BenchmarkContext.newTransactionTemplate(true);
+        ownerId = BenchmarkContext.getOwner().getId();
+    }
+
+    @Benchmark
+    public List<Purchase> findAllEntities() {
+        return transactionTemplate.execute(
+            status ->
+                entityManager
+                    .createQuery(ENTITIES_BY_OWNER_ID_AFTER_ID, Purchase.class)
+                    .setParameter("ownerId", ownerId)
+                    .setParameter("afterId", Long.MIN_VALUE)
+                    .setMaxResults(COUNT)
+                    .getResultList()
+        );
+    }
+
+    @Benchmark
+    public List<PurchaseView> findAllViews() {
+        return transactionTemplate.execute(
+            status -> purchaseRepository.findAllViewsByOwnerIdAfterId(ownerId, Long.MIN_VALUE, PageRequest.of(0, COUNT))
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package org.keyko.retirement.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.keyko.retirement.security.AuthoritiesConstants;
+import org.keyko.retirement.security.jwt.TokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Requests to {@code GET /api/purchases} over HTTP, through the security filters, the controller and the
+ * serialization of the response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseResourceBenchmark {
+
+    @Param({ "20", "1000" })
+    public int size;
+
+    private HttpClient httpClient;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        String token = BenchmarkContext
+            .getBean(TokenProvider.class)
+            .createToken(
+                new UsernamePasswordAuthenticationToken(
+                    BenchmarkContext.OWNER_LOGIN,
+                    "user",
+                    List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+                ),
+                false
+            );
+        httpClient = HttpClient.newHttpClient();
+        request =
+            HttpRequest
+                .newBuilder(URI.create("http://localhost:" + BenchmarkContext.getPort() + "/api/purchases?size=" + size))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @Benchmark
+    public byte[] getPurchases() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/purchases failed with status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,64 @@
+package org.keyko.retirement.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.keyko.retirement.service.RetirementSimulationService;
+import org.keyko.retirement.service.dto.PositionValuationDTO;
+import org.keyko.retirement.service.dto.SimulationRequestDTO;
+import org.keyko.retirement.service.dto.SimulationResultDTO;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Monte Carlo projection of a portfolio of four asset classes by {@link RetirementSimulationService}, over 40 years
+ * with 100 000 paths, on the fork-join pool of the service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetirementSimulationBenchmark {
+
+    private RetirementSimulationService retirementSimulationService;
+
+    private SimulationRequestDTO request;
+
+    private List<PositionValuationDTO> positions;
+
+    @Setup
+    public void setUp() {
+        retirementSimulationService = BenchmarkContext.getBean(RetirementSimulationService.class);
+        request = new SimulationRequestDTO();
+        request.setCurrency(Currency.USD);
+        request.setYears(40);
+        request.setPaths(100_000);
+        request.setAnnualContribution(5000);
+        request.setTargetValue(1_000_000d);
+        request.setSeed(42L);
+        positions =
+            List.of(
+                position(SecurityType.SHARE, Region.USA, 50_000),
+                position(SecurityType.SHARE, Region.RUS, 20_000),
+                position(SecurityType.BOND, Region.USA, 30_000),
+                position(SecurityType.FUND, Region.OTHERS, 10_000)
+            );
+    }
+
+    @Benchmark
+    public SimulationResultDTO simulate() {
+        return retirementSimulationService.simulate(request, positions);
+    }
+
+    private static PositionValuationDTO position(SecurityType type, Region region, double marketValue) {
+        PositionValuationDTO position = new PositionValuationDTO();
+        position.setType(type);
+        position.setRegion(region);
+        position.setCurrency(Currency.USD);
+        position.setMarketValue(marketValue);
+        return position;
+    }
+}
@@ -0,0 +1,54 @@
+package org.keyko.retirement.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Serialization of lists of detached {@link Purchase} and {@link Security} entities, with the {@link ObjectMapper} of
+ * the application and its Hibernate module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({ "100" })
+    public int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<Purchase> purchases;
+
+    private List<Security> securities;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkContext.getBean(ObjectMapper.class);
+        purchases = new ArrayList<>(size);
+        securities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Security security = BenchmarkContext.newSecurity(i).id((long) i);
+            securities.add(security);
+            purchases.add(BenchmarkContext.newPurchase(security, i).id((long) i));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializePurchases() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(purchases);
+    }
+
+    @Benchmark
+    public byte[] serializeSecurities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(securities);
+    }
+}
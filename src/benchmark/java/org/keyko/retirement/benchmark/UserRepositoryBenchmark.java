@@ -0,0 +1,50 @@
+package org.keyko.retirement.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.keyko.retirement.domain.User;
+import org.keyko.retirement.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lookups of a user with its authorities by login, done on every authentication: from the {@code usersByLogin} cache
+ * when it is warm, and from the database when it is cold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRepositoryBenchmark {
+
+    private static final String LOGIN = "user";
+
+    private UserRepository userRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Cache cache;
+
+    @Setup
+    public void setUp() {
+        userRepository = BenchmarkContext.getBean(UserRepository.class);
+        transactionTemplate = BenchmarkContext.newTransactionTemplate(true);
+        cache = BenchmarkContext.getBean(CacheManager.class).getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+    }
+
+    @Benchmark
+    public Optional<User> findWarm() {
+        return transactionTemplate.execute(status -> userRepository.findOneWithAuthoritiesByLogin(LOGIN));
+    }
+
+    @Benchmark
+    public Optional<User> findCold() {
+        // Evicting the one entry costs little against the query, so it is measured too
+        cache.evict(LOGIN);
+        return transactionTemplate.execute(status -> userRepository.findOneWithAuthoritiesByLogin(LOGIN));
+    }
+}
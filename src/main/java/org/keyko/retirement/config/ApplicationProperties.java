@@ -1,5 +1,11 @@
 package org.keyko.retirement.config;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +15,699 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final PositionSnapshot positionSnapshot = new PositionSnapshot();
+
+    private final Sequence sequence = new Sequence();
+
+    private final PriceHistory priceHistory = new PriceHistory();
+
+    private final Fx fx = new Fx();
+
+    private final PortfolioReturns portfolioReturns = new PortfolioReturns();
+
+    private final Cache cache = new Cache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final Map<String, ThreadPool> executors = new HashMap<>();
+
+    private final Simulation simulation = new Simulation();
+
+    private final Datasource datasource = new Datasource();
+
+    public PositionSnapshot getPositionSnapshot() {
+        return positionSnapshot;
+    }
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    public PriceHistory getPriceHistory() {
+        return priceHistory;
+    }
+
+    public Fx getFx() {
+        return fx;
+    }
+
+    public PortfolioReturns getPortfolioReturns() {
+        return portfolioReturns;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public Map<String, ThreadPool> getExecutors() {
+        return executors;
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    /**
+     * Get the settings of an executor, or the default settings when it has none.
+     *
+     * @param name the name of the executor.
+     * @return the settings.
+     */
+    public ThreadPool getExecutor(String name) {
+        return executors.getOrDefault(name, new ThreadPool());
+    }
+
+    public static class PositionSnapshot {
+
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Sequence {
+
+        private int allocationSize = PooledLoSequenceGenerator.DEFAULT_ALLOCATION_SIZE;
+
+        public int getAllocationSize() {
+            return allocationSize;
+        }
+
+        public void setAllocationSize(int allocationSize) {
+            this.allocationSize = allocationSize;
+        }
+    }
+
+    public static class PriceHistory {
+
+        private String directory = "price-history";
+
+        private String importDirectory;
+
+        private int segmentCapacity = 65536;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getImportDirectory() {
+            return importDirectory;
+        }
+
+        public void setImportDirectory(String importDirectory) {
+            this.importDirectory = importDirectory;
+        }
+
+        public int getSegmentCapacity() {
+            return segmentCapacity;
+        }
+
+        public void setSegmentCapacity(int segmentCapacity) {
+            this.segmentCapacity = segmentCapacity;
+        }
+    }
+
+    public static class Fx {
+
+        private String ratesLocation = "classpath:config/fx-rates.csv";
+
+        private Duration refreshInterval = Duration.ofHours(1);
+
+        public String getRatesLocation() {
+            return ratesLocation;
+        }
+
+        public void setRatesLocation(String ratesLocation) {
+            this.ratesLocation = ratesLocation;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class PortfolioReturns {
+
+        private Duration cacheTtl = Duration.ofMinutes(5);
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+    }
+
+    public static class Cache {
+
+        private String diskDirectory;
+
+        private boolean statistics = true;
+
+        private final Region defaults = new Region();
+
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public boolean isStatistics() {
+            return statistics;
+        }
+
+        public void setStatistics(boolean statistics) {
+            this.statistics = statistics;
+        }
+
+        public Region getDefaults() {
+            return defaults;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Get the settings of a cache: its own ones, falling back to the defaults for the ones it does not set.
+         *
+         * @param cacheName the name of the cache.
+         * @return the settings of the cache.
+         */
+        public Region getRegion(String cacheName) {
+            Region region = regions.get(cacheName);
+            if (region == null) {
+                return defaults;
+            }
+            Region merged = new Region();
+            merged.setTimeToLiveSeconds(
+                region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : defaults.getTimeToLiveSeconds()
+            );
+            merged.setTimeToIdleSeconds(
+                region.getTimeToIdleSeconds() != null ? region.getTimeToIdleSeconds() : defaults.getTimeToIdleSeconds()
+            );
+            merged.setHeapEntries(region.getHeapEntries() != null ? region.getHeapEntries() : defaults.getHeapEntries());
+            merged.setOffHeapMb(region.getOffHeapMb() != null ? region.getOffHeapMb() : defaults.getOffHeapMb());
+            merged.setDiskMb(region.getDiskMb() != null ? region.getDiskMb() : defaults.getDiskMb());
+            return merged;
+        }
+
+        public static class Region {
+
+            private Long timeToLiveSeconds;
+
+            private Long timeToIdleSeconds;
+
+            private Long heapEntries;
+
+            private Long offHeapMb;
+
+            private Long diskMb;
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getTimeToIdleSeconds() {
+                return timeToIdleSeconds;
+            }
+
+            public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+                this.timeToIdleSeconds = timeToIdleSeconds;
+            }
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public Long getOffHeapMb() {
+                return offHeapMb;
+            }
+
+            public void setOffHeapMb(Long offHeapMb) {
+                this.offHeapMb = offHeapMb;
+            }
+
+            public Long getDiskMb() {
+                return diskMb;
+            }
+
+            public void setDiskMb(Long diskMb) {
+                this.diskMb = diskMb;
+            }
+        }
+    }
+
+    public static class PasswordHashing {
+
+        private Integer threads;
+
+        private int queueCapacity = 100;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public Integer getThreads() {
+            return threads;
+        }
+
+        public void setThreads(Integer threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        private Duration evictionInterval = Duration.ofMinutes(1);
+
+        private final Limit perIp = new Limit(20, Duration.ofMinutes(1));
+
+        private final Limit perLogin = new Limit(5, Duration.ofMinutes(1));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public Limit getPerIp() {
+            return perIp;
+        }
+
+        public Limit getPerLogin() {
+            return perLogin;
+        }
+
+        public static class Limit {
+
+            private long capacity;
+
+            private Duration period;
+
+            public Limit(long capacity, Duration period) {
+                this.capacity = capacity;
+                this.period = period;
+            }
+
+            public long getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(long capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getPeriod() {
+                return period;
+            }
+
+            public void setPeriod(Duration period) {
+                this.period = period;
+            }
+        }
+    }
+
+    public static class MailOutbox {
+
+        private boolean enabled = true;
+
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 8;
+
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        private Duration lease = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    public static class ThreadPool {
+
+        private int coreSize = 1;
+
+        private int maxSize = 1;
+
+        private int queueCapacity = 100;
+
+        private Duration keepAlive = Duration.ofSeconds(60);
+
+        private boolean allowCoreThreadTimeOut = true;
+
+        private Duration awaitTermination = Duration.ofSeconds(30);
+
+        private InstrumentedTaskExecutor.RejectionPolicy rejectionPolicy = InstrumentedTaskExecutor.RejectionPolicy.ABORT;
+
+        public int getCoreSize() {
+            return coreSize;
+        }
+
+        public void setCoreSize(int coreSize) {
+            this.coreSize = coreSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public boolean isAllowCoreThreadTimeOut() {
+            return allowCoreThreadTimeOut;
+        }
+
+        public void setAllowCoreThreadTimeOut(boolean allowCoreThreadTimeOut) {
+            this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
+        }
+
+        public Duration getAwaitTermination() {
+            return awaitTermination;
+        }
+
+        public void setAwaitTermination(Duration awaitTermination) {
+            this.awaitTermination = awaitTermination;
+        }
+
+        public InstrumentedTaskExecutor.RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        public void setRejectionPolicy(InstrumentedTaskExecutor.RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+    }
+
+    public static class Simulation {
+
+        private Integer parallelism;
+
+        private int maxPaths = 200_000;
+
+        private int maxYears = 60;
+
+        private double correlation = 0.6;
+
+        private final Map<SecurityType, Assumption> types = new EnumMap<>(SecurityType.class);
+
+        private final Map<Region, RegionAdjustment> regions = new EnumMap<>(Region.class);
+
+        public Integer getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxPaths() {
+            return maxPaths;
+        }
+
+        public void setMaxPaths(int maxPaths) {
+            this.maxPaths = maxPaths;
+        }
+
+        public int getMaxYears() {
+            return maxYears;
+        }
+
+        public void setMaxYears(int maxYears) {
+            this.maxYears = maxYears;
+        }
+
+        public double getCorrelation() {
+            return correlation;
+        }
+
+        public void setCorrelation(double correlation) {
+            this.correlation = correlation;
+        }
+
+        public Map<SecurityType, Assumption> getTypes() {
+            return types;
+        }
+
+        public Map<Region, RegionAdjustment> getRegions() {
+            return regions;
+        }
+
+        public static class Assumption {
+
+            private double expectedReturn = 0.05;
+
+            private double volatility = 0.1;
+
+            public double getExpectedReturn() {
+                return expectedReturn;
+            }
+
+            public void setExpectedReturn(double expectedReturn) {
+                this.expectedReturn = expectedReturn;
+            }
+
+            public double getVolatility() {
+                return volatility;
+            }
+
+            public void setVolatility(double volatility) {
+                this.volatility = volatility;
+            }
+        }
+
+        public static class RegionAdjustment {
+
+            private double returnPremium = 0;
+
+            private double volatilityFactor = 1;
+
+            public double getReturnPremium() {
+                return returnPremium;
+            }
+
+            public void setReturnPremium(double returnPremium) {
+                this.returnPremium = returnPremium;
+            }
+
+            public double getVolatilityFactor() {
+                return volatilityFactor;
+            }
+
+            public void setVolatilityFactor(double volatilityFactor) {
+                this.volatilityFactor = volatilityFactor;
+            }
+        }
+    }
+
+    public static class Datasource {
+
+        private final Replica replica = new Replica();
+
+        public Replica getReplica() {
+            return replica;
+        }
+
+        public static class Replica {
+
+            private boolean enabled = false;
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private Duration stickToPrimary = Duration.ofSeconds(5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public Duration getStickToPrimary() {
+                return stickToPrimary;
+            }
+
+            public void setStickToPrimary(Duration stickToPrimary) {
+                this.stickToPrimary = stickToPrimary;
+            }
+        }
+    }
+}
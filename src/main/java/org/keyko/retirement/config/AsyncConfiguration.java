@@ -1,46 +1,79 @@
 package org.keyko.retirement.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
-import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import tech.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
 
+/**
+ * Executors of the background work, one per workload, so a burst of one kind of task cannot delay the others. They are
+ * configured under {@code application.executors}, keyed by their name, and report their metrics tagged with it (see
+ * {@link InstrumentedTaskExecutor}).
+ */
 @Configuration
 @EnableAsync
 @EnableScheduling
 public class AsyncConfiguration implements AsyncConfigurer {
 
+    /**
+     * The executor of the {@code @Async} methods which do not name one.
+     */
+    public static final String TASK_EXECUTOR = "taskExecutor";
+
+    /**
+     * The executor running the Liquibase changelogs at startup, outside of the {@code dev} profile.
+     */
+    public static final String LIQUIBASE_EXECUTOR = "liquibaseExecutor";
+
+    /**
+     * The executor loading the price history dumps at startup.
+     */
+    public static final String PRICE_HISTORY_EXECUTOR = "priceHistoryExecutor";
+
     private final Logger log = LoggerFactory.getLogger(AsyncConfiguration.class);
 
-    private final TaskExecutionProperties taskExecutionProperties;
+    private final ApplicationProperties applicationProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
-        this.taskExecutionProperties = taskExecutionProperties;
+    // Resolved lazily: this configurer is created with the bean post-processors, before the registry is customized
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public AsyncConfiguration(ApplicationProperties applicationProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
-    @Bean(name = "taskExecutor")
+    @Bean(name = TASK_EXECUTOR)
     public Executor getAsyncExecutor() {
         log.debug("Creating Async Task Executor");
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
-        executor.setMaxPoolSize(taskExecutionProperties.getPool().getMaxSize());
-        executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
-        executor.setThreadNamePrefix(taskExecutionProperties.getThreadNamePrefix());
-        return new ExceptionHandlingAsyncTaskExecutor(executor);
+        return new ExceptionHandlingAsyncTaskExecutor(newExecutor("task"));
+    }
+
+    @Bean(name = LIQUIBASE_EXECUTOR)
+    public InstrumentedTaskExecutor liquibaseExecutor() {
+        return newExecutor("liquibase");
+    }
+
+    @Bean(name = PRICE_HISTORY_EXECUTOR)
+    public InstrumentedTaskExecutor priceHistoryExecutor() {
+        return newExecutor("price-history");
     }
 
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
     }
+
+    private InstrumentedTaskExecutor newExecutor(String name) {
+        return new InstrumentedTaskExecutor(name, applicationProperties.getExecutor(name), meterRegistry.getObject());
+    }
 }
@@ -1,9 +1,18 @@
 package org.keyko.retirement.config;
 
+import java.io.File;
 import java.time.Duration;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -21,18 +30,32 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    /**
+     * Create the JCache manager, with a directory for the disk tiers when {@code application.cache.disk-directory} is
+     * set. Spring Boot only applies the {@link JCacheManagerCustomizer} beans to the manager
+     * it creates itself, so they are applied here.
+     *
+     * @param cacheManagerCustomizers the customizers creating the caches.
+     * @return the JCache manager.
+     */
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ClassLoader classLoader = getClass().getClassLoader();
+        DefaultConfiguration configuration = cacheProperties.getDiskDirectory() != null
+            ? new DefaultConfiguration(classLoader, new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskDirectory())))
+            : new DefaultConfiguration(classLoader);
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), configuration);
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
@@ -60,8 +83,57 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, cacheConfiguration(cacheName));
+            if (cacheProperties.isStatistics()) {
+                // Registers the JCache statistics MBean, read by the cache metrics and the caches endpoint
+                cm.enableStatistics(cacheName, true);
+            }
+        }
+    }
+
+    /**
+     * Build the configuration of a cache from its region in {@code application.cache}: an expiry, after a time to idle
+     * when one is set or else a time to live ({@code jhipster.cache.ehcache.time-to-live-seconds} by default), then a heap
+     * tier, sized in entries ({@code jhipster.cache.ehcache.max-entries} by default), and optional off-heap and disk
+     * tiers, sized in megabytes. The disk tier is not persistent: the cached entities would miss the changes made while
+     * the application was down, by another instance, a migration or by hand.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegion(cacheName);
+        long heapEntries = region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries();
+        long offHeapMb = region.getOffHeapMb() != null ? region.getOffHeapMb() : 0;
+        long diskMb = region.getDiskMb() != null ? region.getDiskMb() : 0;
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(heapEntries);
+        if (offHeapMb > 0) {
+            resourcePools = resourcePools.offheap(offHeapMb, MemoryUnit.MB);
+        }
+        if (diskMb > 0) {
+            if (cacheProperties.getDiskDirectory() == null) {
+                throw new IllegalStateException("Cache " + cacheName + " has a disk tier, but application.cache.disk-directory is not set");
+            }
+            resourcePools = resourcePools.disk(diskMb, MemoryUnit.MB, false);
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(expiry(region));
+        if (offHeapMb > 0 || diskMb > 0) {
+            // Entries below the heap tier are serialized, and Ehcache has no default serializer for Object
+            ClassLoader classLoader = getClass().getClassLoader();
+            builder =
+                builder
+                    .withKeySerializer(new PlainJavaSerializer<>(classLoader))
+                    .withValueSerializer(new PlainJavaSerializer<>(classLoader));
+        }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
+    }
+
+    private ExpiryPolicy<Object, Object> expiry(ApplicationProperties.Cache.Region region) {
+        // Ehcache has no expiry combining both, an entry read often enough would outlive any time to live
+        if (region.getTimeToIdleSeconds() != null) {
+            return ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(region.getTimeToIdleSeconds()));
         }
+        long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+        return ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds));
     }
 
     @Autowired(required = false)
@@ -0,0 +1,180 @@
+package org.keyko.retirement.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.EndpointWebExtension;
+import org.springframework.stereotype.Component;
+
+/**
+ * Web extension of the {@code caches} actuator endpoint, adding the statistics of each cache to its description.
+ * <p>
+ * The statistics are read from the {@code cache.gets} and {@code cache.evictions} meters, which Spring Boot binds for
+ * the caches of each cache manager, so they are only counted for the caches with statistics enabled (see
+ * {@code application.cache.statistics}).
+ */
+@Component
+@ConditionalOnAvailableEndpoint(endpoint = CachesEndpoint.class)
+@EndpointWebExtension(endpoint = CachesEndpoint.class)
+public class CachesEndpointWebExtension {
+
+    private final CachesEndpoint cachesEndpoint;
+
+    private final MeterRegistry meterRegistry;
+
+    public CachesEndpointWebExtension(CachesEndpoint cachesEndpoint, MeterRegistry meterRegistry) {
+        this.cachesEndpoint = cachesEndpoint;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Describe the caches of each cache manager, with their statistics.
+     *
+     * @return the caches, keyed by cache manager then cache name.
+     */
+    @ReadOperation
+    public CachesReport caches() {
+        Map<String, CacheManagerDescriptor> cacheManagers = new LinkedHashMap<>();
+        cachesEndpoint
+            .caches()
+            .getCacheManagers()
+            .forEach(
+                (cacheManagerName, cacheManager) -> {
+                    Map<String, CacheDescriptor> caches = new LinkedHashMap<>();
+                    cacheManager
+                        .getCaches()
+                        .forEach(
+                            (cacheName, cache) ->
+                                caches.put(
+                                    cacheName,
+                                    new CacheDescriptor(
+                                        cache.getTarget(),
+                                        count("cache.gets", cacheName, "hit"),
+                                        count("cache.gets", cacheName, "miss"),
+                                        count("cache.evictions", cacheName, null)
+                                    )
+                                )
+                        );
+                    cacheManagers.put(cacheManagerName, new CacheManagerDescriptor(caches));
+                }
+            );
+        return new CachesReport(cacheManagers);
+    }
+
+    private Long count(String meterName, String cacheName, String result) {
+        Search search = meterRegistry.find(meterName).tag("cache", cacheName);
+        if (result != null) {
+            search = search.tag("result", result);
+        }
+        Collection<FunctionCounter> counters = search.functionCounters();
+        if (counters.isEmpty()) {
+            return null;
+        }
+        double count = 0;
+        for (FunctionCounter counter : counters) {
+            double value = counter.count();
+            // JCache statistics which are not enabled are read as NaN
+            if (!Double.isNaN(value)) {
+                count += value;
+            }
+        }
+        return (long) count;
+    }
+
+    /**
+     * The caches of all the cache managers.
+     */
+    public static final class CachesReport {
+
+        private final Map<String, CacheManagerDescriptor> cacheManagers;
+
+        public CachesReport(Map<String, CacheManagerDescriptor> cacheManagers) {
+            this.cacheManagers = cacheManagers;
+        }
+
+        public Map<String, CacheManagerDescriptor> getCacheManagers() {
+            return cacheManagers;
+        }
+    }
+
+    /**
+     * The caches of a cache manager.
+     */
+    public static final class CacheManagerDescriptor {
+
+        private final Map<String, CacheDescriptor> caches;
+
+        public CacheManagerDescriptor(Map<String, CacheDescriptor> caches) {
+            this.caches = caches;
+        }
+
+        public Map<String, CacheDescriptor> getCaches() {
+            return caches;
+        }
+    }
+
+    /**
+     * A cache, with its statistics when they are available.
+     */
+    public static final class CacheDescriptor {
+
+        private final String target;
+
+        private final Long hits;
+
+        private final Long misses;
+
+        private final Long evictions;
+
+        public CacheDescriptor(String target, Long hits, Long misses, Long evictions) {
+            this.target = target;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public Long getHits() {
+            return hits;
+        }
+
+        public Long getMisses() {
+            return misses;
+        }
+
+        public Long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * Get the ratio of the reads which found their entry in the cache.
+         *
+         * @return the ratio, between 0 and 1, or {@code null} when the cache has not been read or has no statistics.
+         */
+        public Double getHitRatio() {
+            if (hits == null || misses == null || hits + misses == 0) {
+                return null;
+            }
+            return (double) hits / (hits + misses);
+        }
+
+        /**
+         * Get the ratio of the reads which did not find their entry in the cache.
+         *
+         * @return the ratio, between 0 and 1, or {@code null} when the cache has not been read or has no statistics.
+         */
+        public Double getMissRatio() {
+            Double hitRatio = getHitRatio();
+            return hitRatio != null ? 1 - hitRatio : null;
+        }
+    }
+}
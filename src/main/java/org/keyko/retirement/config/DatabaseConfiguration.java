@@ -3,6 +3,7 @@ package org.keyko.retirement.config;
 import java.sql.SQLException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -41,6 +42,21 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Pass the allocation size of the entity sequences to {@link PooledLoSequenceGenerator}.
+     *
+     * @param applicationProperties the application properties.
+     * @return the Hibernate properties customizer.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sequenceAllocationSizeCustomizer(ApplicationProperties applicationProperties) {
+        return hibernateProperties ->
+            hibernateProperties.put(
+                PooledLoSequenceGenerator.ALLOCATION_SIZE_SETTING,
+                String.valueOf(applicationProperties.getSequence().getAllocationSize())
+            );
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
@@ -0,0 +1,132 @@
+package org.keyko.retirement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * A {@link ThreadPoolTaskExecutor} for one workload, with a bounded queue and an explicit rejection policy, reporting
+ * its metrics tagged with its name:
+ * <ul>
+ * <li>the sizes of its pool and queue, and its completed tasks, from {@link ExecutorServiceMetrics};</li>
+ * <li>the time tasks wait in the queue, as the {@code executor.idle} timer, and the time they run, as the
+ * {@code executor} timer, both with histograms, as reported by {@link ExecutorServiceMetrics#monitor} for the
+ * executors it wraps;</li>
+ * <li>the rejected tasks, as the {@code executor.rejected} counter.</li>
+ * </ul>
+ */
+public class InstrumentedTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * What to do with a task submitted while the pool and the queue are full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Throw a {@link java.util.concurrent.RejectedExecutionException}.
+         */
+        ABORT,
+        /**
+         * Run the task on the submitting thread, slowing the submitter down.
+         */
+        CALLER_RUNS,
+        /**
+         * Drop the task.
+         */
+        DISCARD,
+        /**
+         * Drop the oldest queued task, and queue the task.
+         */
+        DISCARD_OLDEST;
+
+        RejectedExecutionHandler newHandler() {
+            switch (this) {
+                case CALLER_RUNS:
+                    return new ThreadPoolExecutor.CallerRunsPolicy();
+                case DISCARD:
+                    return new ThreadPoolExecutor.DiscardPolicy();
+                case DISCARD_OLDEST:
+                    return new ThreadPoolExecutor.DiscardOldestPolicy();
+                default:
+                    return new ThreadPoolExecutor.AbortPolicy();
+            }
+        }
+    }
+
+    private final String name;
+
+    private final transient MeterRegistry meterRegistry;
+
+    public InstrumentedTaskExecutor(String name, ApplicationProperties.ThreadPool properties, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+        setThreadNamePrefix(name + "-");
+        setCorePoolSize(properties.getCoreSize());
+        setMaxPoolSize(properties.getMaxSize());
+        setQueueCapacity(properties.getQueueCapacity());
+        setKeepAliveSeconds((int) properties.getKeepAlive().toSeconds());
+        setAllowCoreThreadTimeOut(properties.isAllowCoreThreadTimeOut());
+        setWaitForTasksToCompleteOnShutdown(true);
+        setAwaitTerminationSeconds((int) properties.getAwaitTermination().toSeconds());
+
+        Timer queueWait = Timer
+            .builder("executor.idle")
+            .description("Time tasks wait in the queue before they run")
+            .tag("name", name)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Timer duration = Timer
+            .builder("executor")
+            .description("Time tasks take to run")
+            .tag("name", name)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        setTaskDecorator(
+            task -> {
+                long submitted = System.nanoTime();
+                return () -> {
+                    long started = System.nanoTime();
+                    queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+                    try {
+                        task.run();
+                    } finally {
+                        duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                };
+            }
+        );
+
+        Counter rejected = Counter
+            .builder("executor.rejected")
+            .description("Tasks rejected as the pool and the queue were full")
+            .tag("name", name)
+            .register(meterRegistry);
+        RejectedExecutionHandler handler = properties.getRejectionPolicy().newHandler();
+        setRejectedExecutionHandler(
+            (task, executor) -> {
+                rejected.increment();
+                handler.rejectedExecution(task, executor);
+            }
+        );
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    protected ExecutorService initializeExecutor(ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+        ExecutorService executor = super.initializeExecutor(threadFactory, rejectedExecutionHandler);
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,40 @@
+package org.keyko.retirement.config;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence identifier generator using the pooled-lo optimizer.
+ * <p>
+ * Each call to the database sequence reserves a block of identifiers, whose size is read from the
+ * {@value #ALLOCATION_SIZE_SETTING} setting, and the identifiers are then handed out from memory, so inserting a batch of
+ * entities only hits the sequence once per block. The database value is the lowest identifier of the block, so the
+ * sequence must be incremented by the same allocation size.
+ * <p>
+ * The sequence name is given by the {@link SequenceStyleGenerator#SEQUENCE_PARAM} parameter of the generator.
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Hibernate setting holding the allocation size, copied from {@link ApplicationProperties.Sequence}.
+     */
+    public static final String ALLOCATION_SIZE_SETTING = "retirement.id.allocation_size";
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Integer allocationSize = serviceRegistry
+            .getService(ConfigurationService.class)
+            .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
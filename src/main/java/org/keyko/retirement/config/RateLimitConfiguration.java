@@ -0,0 +1,20 @@
+package org.keyko.retirement.config;
+
+import org.keyko.retirement.security.ratelimit.LocalRateLimitStore;
+import org.keyko.retirement.security.ratelimit.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfiguration {
+
+    /**
+     * Keep the rate limits of this node in memory, unless a {@link RateLimitStore} shared by the nodes is declared.
+     */
+    @Bean
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    public LocalRateLimitStore rateLimitStore() {
+        return new LocalRateLimitStore();
+    }
+}
@@ -0,0 +1,106 @@
+package org.keyko.retirement.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuration of a read replica of the database, when {@code application.datasource.replica.enabled} is set.
+ * <p>
+ * The primary pool is the one Spring Boot would create from {@code spring.datasource}, and Liquibase migrates it
+ * directly. The replica pool takes the same {@code spring.datasource.hikari} settings, with the replica URL and
+ * credentials, and read-only connections. The application data source routes between the two with a
+ * {@link ReplicaRoutingDataSource}, and the read-only transactions stop filling the second-level cache (see
+ * {@link ReplicaAwareJpaDialect}).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfiguration {
+
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaDataSourceConfiguration.class);
+
+    @Bean(PRIMARY_DATA_SOURCE)
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(dataSourceProperties.getName())) {
+            dataSource.setPoolName(dataSourceProperties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean(REPLICA_DATA_SOURCE)
+    public HikariDataSource replicaDataSource(Environment env, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Datasource.Replica replica = applicationProperties.getDatasource().getReplica();
+        if (!StringUtils.hasText(replica.getUrl())) {
+            throw new IllegalStateException("application.datasource.replica.url is required when the replica is enabled");
+        }
+        // Bound here rather than with @ConfigurationProperties, which would bind the pool name of the primary over ours
+        HikariConfig config = new HikariConfig();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(config));
+        config.setJdbcUrl(replica.getUrl());
+        config.setUsername(replica.getUsername());
+        config.setPassword(replica.getPassword());
+        config.setPoolName((config.getPoolName() != null ? config.getPoolName() : "Hikari") + "-replica");
+        config.setReadOnly(true);
+        HikariDataSource dataSource = new HikariDataSource();
+        config.copyStateTo(dataSource);
+        log.info("Routing the read-only transactions to the replica {}", replica.getUrl());
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+        @Qualifier(REPLICA_DATA_SOURCE) DataSource replica,
+        ApplicationProperties applicationProperties
+    ) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            primary,
+            replica,
+            applicationProperties.getDatasource().getReplica().getStickToPrimary()
+        );
+        routing.afterPropertiesSet();
+        // The proxy reads the default auto-commit and isolation from a first connection, taken from the primary
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Set the dialect of the entity manager factory before it is initialized, in place of the one of its vendor adapter.
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+                    ((LocalContainerEntityManagerFactoryBean) bean).setJpaDialect(new ReplicaAwareJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
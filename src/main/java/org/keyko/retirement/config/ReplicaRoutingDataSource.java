@@ -0,0 +1,132 @@
+package org.keyko.retirement.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.keyko.retirement.security.SecurityUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the read-only transactions to a replica of the database, and everything else to the primary.
+ * <p>
+ * The target is chosen when a connection is taken, so it must be wrapped in a {@link LazyConnectionDataSourceProxy}:
+ * the transaction managers take their connection before the transaction is marked read-only, and the proxy only takes
+ * it from here on the first statement. The work outside of a transaction goes to the primary.
+ * <p>
+ * The replica lags behind the primary, so a user who just wrote would not always read their own writes back. Once a
+ * user commits a read-write transaction, their read-only transactions stay on the primary for a while. The users are
+ * told apart by login and the anonymous ones are not followed. Only the writes committed through this instance are
+ * counted: an administrator's changes to the account of a user keep the administrator on the primary, not that user,
+ * whose account is read from the primary anyway to fill the cache of the users.
+ * <p>
+ * The reads filling a cache shared by all the users must not see the replica, since the stale rows would outlive the
+ * lag: they are made with {@link #readFromPrimary(Supplier)}. The second-level cache of Hibernate is kept away from
+ * the replica by the {@link ReplicaAwareJpaDialect}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA,
+    }
+
+    /**
+     * Number of users sticking to the primary above which the expired ones are removed.
+     */
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final long stickToPrimaryMillis;
+
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<String, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickToPrimary) {
+        this(primary, replica, stickToPrimary, System::currentTimeMillis);
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickToPrimary, LongSupplier clock) {
+        this.stickToPrimaryMillis = stickToPrimary.toMillis();
+        this.clock = clock;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Run some work with its read-only transactions on the primary, whether the replica is enabled or not.
+     * <p>
+     * The target of a transaction is chosen on its first statement, so the work must make the first statement of the
+     * transaction it reads in.
+     *
+     * @param work the work.
+     * @param <T> the type of the result of the work.
+     * @return the result of the work.
+     */
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // The anonymous users share a login, so one of them writing would send the reads of all of them to the primary
+        Optional<String> login = SecurityUtils.isAuthenticated() ? SecurityUtils.getCurrentUserLogin() : Optional.empty();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (login.isPresent() && TransactionSynchronizationManager.isSynchronizationActive()) {
+                stickToPrimaryAfterCommit(login.get());
+            }
+            return Target.PRIMARY;
+        }
+        if (PRIMARY_REQUIRED.get() != null) {
+            return Target.PRIMARY;
+        }
+        return login.isPresent() && sticksToPrimary(login.get()) ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    private void stickToPrimaryAfterCommit(String login) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    long now = clock.getAsLong();
+                    if (primaryUntil.size() >= SWEEP_THRESHOLD) {
+                        primaryUntil.values().removeIf(until -> until <= now);
+                    }
+                    primaryUntil.put(login, now + stickToPrimaryMillis);
+                }
+            }
+        );
+    }
+
+    private boolean sticksToPrimary(String login) {
+        Long until = primaryUntil.get(login);
+        if (until == null) {
+            return false;
+        }
+        if (until > clock.getAsLong()) {
+            return true;
+        }
+        primaryUntil.remove(login, until);
+        return false;
+    }
+}
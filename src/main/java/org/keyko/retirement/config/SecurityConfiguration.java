@@ -1,7 +1,10 @@
 package org.keyko.retirement.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.keyko.retirement.security.*;
 import org.keyko.retirement.security.jwt.*;
+import org.keyko.retirement.security.ratelimit.RateLimitStore;
+import org.keyko.retirement.web.filter.RateLimitFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -12,7 +15,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.web.filter.CorsFilter;
@@ -28,6 +30,12 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     private final TokenProvider tokenProvider;
 
+    private final ApplicationProperties applicationProperties;
+
+    private final RateLimitStore rateLimitStore;
+
+    private final ObjectMapper objectMapper;
+
     private final CorsFilter corsFilter;
     private final SecurityProblemSupport problemSupport;
 
@@ -35,17 +43,33 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         TokenProvider tokenProvider,
         CorsFilter corsFilter,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        RateLimitStore rateLimitStore,
+        ObjectMapper objectMapper,
         SecurityProblemSupport problemSupport
     ) {
         this.tokenProvider = tokenProvider;
         this.corsFilter = corsFilter;
         this.problemSupport = problemSupport;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.rateLimitStore = rateLimitStore;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * BCrypt, on its own pool of {@code application.password-hashing.threads} threads (one per processor by default).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        ApplicationProperties.PasswordHashing passwordHashing = applicationProperties.getPasswordHashing();
+        int threads = passwordHashing.getThreads() != null ? passwordHashing.getThreads() : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(),
+            threads,
+            passwordHashing.getQueueCapacity(),
+            passwordHashing.getRetryAfter()
+        );
     }
 
     @Override
@@ -63,6 +87,12 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Override
     public void configure(HttpSecurity http) throws Exception {
+        if (applicationProperties.getRateLimit().isEnabled()) {
+            http.addFilterBefore(
+                new RateLimitFilter(rateLimitStore, applicationProperties.getRateLimit(), objectMapper),
+                UsernamePasswordAuthenticationFilter.class
+            );
+        }
         // @formatter:off
         http
             .csrf()
@@ -0,0 +1,101 @@
+package org.keyko.retirement.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+
+/**
+ * A Position: the running totals of the {@link Purchase} entities of an owner in a security and a currency.
+ * <p>
+ * Positions are maintained by {@link org.keyko.retirement.service.PositionService} in the transaction writing the
+ * purchases, so reading the totals of a position is a primary key lookup.
+ */
+@Entity
+@Table(name = "portfolio_position")
+public class Position implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private PositionId id;
+
+    @Column(name = "purchase_count", nullable = false)
+    private long purchaseCount;
+
+    @Column(name = "quantity", nullable = false)
+    private long quantity;
+
+    @Column(name = "cost", nullable = false)
+    private double cost;
+
+    @Column(name = "comission", nullable = false)
+    private double comission;
+
+    public PositionId getId() {
+        return id;
+    }
+
+    public void setId(PositionId id) {
+        this.id = id;
+    }
+
+    public long getPurchaseCount() {
+        return purchaseCount;
+    }
+
+    public void setPurchaseCount(long purchaseCount) {
+        this.purchaseCount = purchaseCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    public double getComission() {
+        return comission;
+    }
+
+    public void setComission(double comission) {
+        this.comission = comission;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Position)) {
+            return false;
+        }
+        return id != null && id.equals(((Position) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Position{" +
+            "id=" + getId() +
+            ", purchaseCount=" + getPurchaseCount() +
+            ", quantity=" + getQuantity() +
+            ", cost=" + getCost() +
+            ", comission=" + getComission() +
+            "}";
+    }
+}
@@ -0,0 +1,74 @@
+package org.keyko.retirement.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.*;
+import org.keyko.retirement.domain.enumeration.Currency;
+
+/**
+ * The key of a {@link Position}: an owner, a security and a currency.
+ */
+@Embeddable
+public class PositionId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "security_id", nullable = false)
+    private Long securityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency", nullable = false)
+    private Currency currency;
+
+    public PositionId() {
+        // Empty constructor needed for Hibernate.
+    }
+
+    public PositionId(Long ownerId, Long securityId, Currency currency) {
+        this.ownerId = ownerId;
+        this.securityId = securityId;
+        this.currency = currency;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Long getSecurityId() {
+        return securityId;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PositionId)) {
+            return false;
+        }
+        PositionId other = (PositionId) o;
+        return Objects.equals(ownerId, other.ownerId) && Objects.equals(securityId, other.securityId) && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ownerId, securityId, currency);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PositionId{" +
+            "ownerId=" + getOwnerId() +
+            ", securityId=" + getSecurityId() +
+            ", currency='" + getCurrency() + "'" +
+            "}";
+    }
+}
@@ -1,11 +1,17 @@
 package org.keyko.retirement.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
+import java.time.LocalDate;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.service.PositionSnapshotListener;
+import org.keyko.retirement.service.PurchaseLedgerListener;
 
 /**
  * A Purchase.
@@ -13,13 +19,18 @@ import org.keyko.retirement.domain.enumeration.Currency;
 @Entity
 @Table(name = "purchase")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({ PositionSnapshotListener.class, PurchaseLedgerListener.class })
 public class Purchase implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchaseSequenceGenerator")
+    @GenericGenerator(
+        name = "purchaseSequenceGenerator",
+        strategy = "org.keyko.retirement.config.PooledLoSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "purchase_sequence")
+    )
     private Long id;
 
     @Column(name = "price")
@@ -35,10 +46,20 @@ public class Purchase implements Serializable {
     @Column(name = "comission")
     private Float comission;
 
+    @Column(name = "trade_date")
+    private LocalDate tradeDate;
+
     @ManyToOne
     @JsonIgnoreProperties(value = { "purchases" }, allowSetters = true)
     private Security security;
 
+    /**
+     * The user the purchase belongs to, set from the current user when it is created.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    private User owner;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -105,6 +126,19 @@ public class Purchase implements Serializable {
         this.comission = comission;
     }
 
+    public LocalDate getTradeDate() {
+        return this.tradeDate;
+    }
+
+    public Purchase tradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+        return this;
+    }
+
+    public void setTradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+    }
+
     public Security getSecurity() {
         return this.security;
     }
@@ -118,6 +152,19 @@ public class Purchase implements Serializable {
         this.security = security;
     }
 
+    public User getOwner() {
+        return this.owner;
+    }
+
+    public Purchase owner(User user) {
+        this.setOwner(user);
+        return this;
+    }
+
+    public void setOwner(User user) {
+        this.owner = user;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -146,6 +193,7 @@ public class Purchase implements Serializable {
             ", currency='" + getCurrency() + "'" +
             ", number=" + getNumber() +
             ", comission=" + getComission() +
+            ", tradeDate='" + getTradeDate() + "'" +
             "}";
     }
 }
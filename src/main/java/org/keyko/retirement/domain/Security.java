@@ -5,10 +5,15 @@ import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.keyko.retirement.domain.enumeration.Region;
 import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.keyko.retirement.service.PositionSnapshotListener;
+import org.keyko.retirement.service.PurchaseLedgerListener;
 
 /**
  * A Security.
@@ -16,13 +21,18 @@ import org.keyko.retirement.domain.enumeration.SecurityType;
 @Entity
 @Table(name = "security")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({ PositionSnapshotListener.class, PurchaseLedgerListener.class })
 public class Security implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "securitySequenceGenerator")
+    @GenericGenerator(
+        name = "securitySequenceGenerator",
+        strategy = "org.keyko.retirement.config.PooledLoSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "security_sequence")
+    )
     private Long id;
 
     @Column(name = "name")
@@ -40,6 +50,7 @@ public class Security implements Serializable {
     private Region region;
 
     @OneToMany(mappedBy = "security")
+    @BatchSize(size = 50)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "security" }, allowSetters = true)
     private Set<Purchase> purchases = new HashSet<>();
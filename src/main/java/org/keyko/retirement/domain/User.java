@@ -15,6 +15,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.keyko.retirement.config.Constants;
 
 /**
@@ -28,8 +30,12 @@ public class User extends AbstractAuditingEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userSequenceGenerator")
+    @GenericGenerator(
+        name = "userSequenceGenerator",
+        strategy = "org.keyko.retirement.config.PooledLoSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "jhi_user_sequence")
+    )
     private Long id;
 
     @NotNull
@@ -0,0 +1,9 @@
+package org.keyko.retirement.domain.enumeration;
+
+/**
+ * The MailStatus enumeration: whether an e-mail of the outbox is still to be sent, or was given up on.
+ */
+public enum MailStatus {
+    PENDING,
+    FAILED,
+}
@@ -0,0 +1,33 @@
+package org.keyko.retirement.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.keyko.retirement.domain.MailMessage;
+import org.keyko.retirement.domain.enumeration.MailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the MailMessage entity.
+ */
+@Repository
+public interface MailMessageRepository extends JpaRepository<MailMessage, Long> {
+    /**
+     * Get the pending e-mails due to be sent, oldest first, locking them. The rows already locked by another sender are
+     * skipped, on the databases which support it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select mail from MailMessage mail where mail.status = :status and mail.nextAttemptDate <= :now order by mail.id")
+    List<MailMessage> findAllDueForUpdate(MailStatus status, Instant now, Pageable pageable);
+
+    long countByStatus(MailStatus status);
+
+    @Modifying
+    @Query("delete from MailMessage mail where mail.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,63 @@
+package org.keyko.retirement.repository;
+
+import java.util.List;
+import org.keyko.retirement.domain.Position;
+import org.keyko.retirement.domain.PositionId;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.service.dto.PositionSummaryDTO;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the Position entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface PositionRepository extends JpaRepository<Position, PositionId> {
+    /**
+     * Add to the totals of a position in a single statement, so concurrent writers never lose an update.
+     *
+     * @return the number of updated rows: 0 when the position does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update Position position set " +
+        "position.purchaseCount = position.purchaseCount + :purchaseCount, position.quantity = position.quantity + :quantity, " +
+        "position.cost = position.cost + :cost, position.comission = position.comission + :comission " +
+        "where position.id.ownerId = :ownerId and position.id.securityId = :securityId and position.id.currency = :currency"
+    )
+    int addToTotals(
+        @Param("ownerId") Long ownerId,
+        @Param("securityId") Long securityId,
+        @Param("currency") Currency currency,
+        @Param("purchaseCount") long purchaseCount,
+        @Param("quantity") long quantity,
+        @Param("cost") double cost,
+        @Param("comission") double comission
+    );
+
+    @Modifying
+    @Query(
+        "delete from Position position " +
+        "where position.id.ownerId = :ownerId and position.id.securityId = :securityId and position.id.currency = :currency " +
+        "and position.purchaseCount = 0"
+    )
+    int deleteIfEmpty(@Param("ownerId") Long ownerId, @Param("securityId") Long securityId, @Param("currency") Currency currency);
+
+    @Modifying
+    @Query("delete from Position position where position.id.ownerId = :ownerId")
+    int deleteAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Read the positions of an owner with the fields of their security, in security id then currency order.
+     */
+    @Query(
+        "select new org.keyko.retirement.service.dto.PositionSummaryDTO(" +
+        "security.id, security.ticker, security.name, security.type, security.region, position.id.currency, " +
+        "position.purchaseCount, position.quantity, position.cost, position.comission) " +
+        "from Position position, Security security where position.id.ownerId = :ownerId and security.id = position.id.securityId " +
+        "order by security.id, position.id.currency"
+    )
+    List<PositionSummaryDTO> summarizeByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -1,7 +1,18 @@
 package org.keyko.retirement.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.service.dto.PositionSummaryDTO;
+import org.keyko.retirement.service.dto.PurchaseView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +20,115 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PurchaseRepository extends JpaRepository<Purchase, Long> {}
+public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+    String STREAM_FETCH_SIZE = "100";
+
+    /**
+     * Seek to the purchases of an owner following {@code afterId}, in id order, as read-only views with the columns of
+     * their security. Only the page size of the {@code pageable} is used.
+     */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query(
+        "select purchase.id as id, purchase.price as price, purchase.currency as currency, purchase.number as number, " +
+        "purchase.comission as comission, purchase.tradeDate as tradeDate, security.id as securityId, security.name as securityName, " +
+        "security.ticker as securityTicker, security.type as securityType, security.region as securityRegion " +
+        "from Purchase purchase left join purchase.security security " +
+        "where purchase.owner.id = :ownerId and purchase.id > :afterId order by purchase.id"
+    )
+    List<PurchaseView> findAllViewsByOwnerIdAfterId(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Seek to the purchases of an owner in a security following {@code afterId}, in id order, as read-only views with
+     * the columns of their security. Only the page size of the {@code pageable} is used.
+     */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query(
+        "select purchase.id as id, purchase.price as price, purchase.currency as currency, purchase.number as number, " +
+        "purchase.comission as comission, purchase.tradeDate as tradeDate, security.id as securityId, security.name as securityName, " +
+        "security.ticker as securityTicker, security.type as securityType, security.region as securityRegion " +
+        "from Purchase purchase join purchase.security security " +
+        "where purchase.owner.id = :ownerId and security.id = :securityId and purchase.id > :afterId order by purchase.id"
+    )
+    List<PurchaseView> findAllViewsByOwnerIdAndSecurityIdAfterId(
+        @Param("ownerId") Long ownerId,
+        @Param("securityId") Long securityId,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Stream all the purchases of an owner, in id order, with their security. Must be consumed inside a transaction and
+     * closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(
+        "select purchase from Purchase purchase left join fetch purchase.security " +
+        "where purchase.owner.id = :ownerId order by purchase.id"
+    )
+    Stream<Purchase> streamAllWithSecurityByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Purchase purchase where purchase.owner.id = :ownerId")
+    int deleteAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    Optional<Purchase> findByIdAndOwnerId(Long id, Long ownerId);
+
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    /**
+     * Sum the purchases per owner, security and currency in a single {@code GROUP BY} query.
+     */
+    @Query(
+        "select new org.keyko.retirement.service.dto.PositionSummaryDTO(" +
+        "purchase.owner.id, security.id, security.ticker, security.name, security.type, security.region, purchase.currency, " +
+        "count(purchase), sum(purchase.number), sum(purchase.price * purchase.number), sum(purchase.comission)) " +
+        "from Purchase purchase join purchase.security security where purchase.owner is not null " +
+        "group by purchase.owner.id, security.id, security.ticker, security.name, security.type, security.region, purchase.currency " +
+        "order by purchase.owner.id, security.id, purchase.currency"
+    )
+    List<PositionSummaryDTO> summarizeByOwnerSecurityAndCurrency();
+
+    /**
+     * Stream the columns of every purchase that count in a position, without hydrating entities: id, security id,
+     * currency, number, price, comission and owner id. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(
+        "select purchase.id, purchase.security.id, purchase.currency, purchase.number, purchase.price, purchase.comission, " +
+        "purchase.owner.id from Purchase purchase"
+    )
+    Stream<Object[]> streamPositionColumns();
+
+    /**
+     * Stream the cost columns of the purchases of an owner, without hydrating entities: currency, number, price and
+     * comission. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(
+        "select purchase.currency, purchase.number, purchase.price, purchase.comission " +
+        "from Purchase purchase where purchase.owner.id = :ownerId"
+    )
+    Stream<Object[]> streamCostColumnsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Stream the cash flow columns of the purchases of an owner in a security with a trade date, in security id then
+     * trade date order, without hydrating entities: security id, currency, number, price, comission and trade date.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(
+        "select purchase.security.id, purchase.currency, purchase.number, purchase.price, purchase.comission, purchase.tradeDate " +
+        "from Purchase purchase where purchase.owner.id = :ownerId and purchase.tradeDate is not null " +
+        "order by purchase.security.id, purchase.tradeDate"
+    )
+    Stream<Object[]> streamTradeFlowColumnsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Count the purchases of an owner in a security without a trade date, which have no cash flow.
+     */
+    @Query(
+        "select count(purchase) from Purchase purchase " +
+        "where purchase.owner.id = :ownerId and purchase.tradeDate is null and purchase.security is not null"
+    )
+    long countUndatedWithSecurityByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -1,6 +1,13 @@
 package org.keyko.retirement.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.QueryHint;
 import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.service.dto.SecurityView;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +16,33 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SecurityRepository extends JpaRepository<Security, Long> {}
+public interface SecurityRepository extends JpaRepository<Security, Long> {
+    /**
+     * Get the id, type and region of every security, without hydrating entities.
+     */
+    @Query("select security.id, security.type, security.region from Security security")
+    List<Object[]> findAllClassifications();
+
+    Optional<Security> findFirstByTickerOrderByIdAsc(String ticker);
+
+    /**
+     * Get all the securities as read-only views, in id order, selecting only their columns.
+     */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query(
+        "select security.id as id, security.name as name, security.ticker as ticker, security.type as type, security.region as region " +
+        "from Security security order by security.id"
+    )
+    List<SecurityView> findAllViews();
+
+    /**
+     * Get all the securities with their purchases, in a single query. The {@code distinct} only removes the duplicate
+     * securities of the join from the result, it is not sent to the database.
+     */
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct security from Security security left join fetch security.purchases")
+    List<Security> findAllWithPurchases();
+
+    @EntityGraph(attributePaths = "purchases")
+    Optional<Security> findOneWithPurchasesById(Long id);
+}
@@ -0,0 +1,18 @@
+package org.keyko.retirement.repository;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment deleting the authorities of the users.
+ */
+public interface UserAuthorityRepository {
+    /**
+     * Delete the authorities of some users, with a single statement.
+     * <p>
+     * Only the second-level cache region of the authorities of the users is invalidated.
+     *
+     * @param userIds the ids of the users.
+     * @return the number of deleted authorities.
+     */
+    int deleteAuthoritiesByUserIdIn(Collection<Long> userIds);
+}
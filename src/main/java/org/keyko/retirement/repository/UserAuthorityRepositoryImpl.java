@@ -0,0 +1,33 @@
+package org.keyko.retirement.repository;
+
+import java.util.Collection;
+import javax.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Implementation of the {@link UserAuthorityRepository} fragment.
+ * <p>
+ * A native statement without query space makes Hibernate invalidate every second-level cache region, so the table it
+ * writes is declared.
+ */
+public class UserAuthorityRepositoryImpl implements UserAuthorityRepository {
+
+    private static final String USER_AUTHORITY_TABLE = "jhi_user_authority";
+
+    private final EntityManager entityManager;
+
+    public UserAuthorityRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int deleteAuthoritiesByUserIdIn(Collection<Long> userIds) {
+        entityManager.flush();
+        return entityManager
+            .createNativeQuery("delete from " + USER_AUTHORITY_TABLE + " where user_id in (:userIds)")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(USER_AUTHORITY_TABLE)
+            .setParameterList("userIds", userIds)
+            .executeUpdate();
+    }
+}
@@ -1,21 +1,25 @@
 package org.keyko.retirement.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.keyko.retirement.domain.User;
+import org.keyko.retirement.service.dto.UserKeyView;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserAuthorityRepository {
     String USERS_BY_LOGIN_CACHE = "usersByLogin";
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
@@ -24,6 +28,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
 
+    /**
+     * Get a page of the users which were not activated and were created before a date, in id order, after an id.
+     */
+    @Query(
+        "select user.id as id, user.login as login, user.email as email from User user " +
+        "where user.activated = false and user.activationKey is not null and user.createdDate < :dateTime and user.id > :afterId " +
+        "order by user.id"
+    )
+    List<UserKeyView> findNotActivatedKeysCreatedBefore(Instant dateTime, Long afterId, Pageable pageable);
+
+    /**
+     * Delete some users, with a single statement. Their authorities must be deleted first.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from User user where user.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
     Optional<User> findOneByResetKey(String resetKey);
 
     Optional<User> findOneByEmailIgnoreCase(String email);
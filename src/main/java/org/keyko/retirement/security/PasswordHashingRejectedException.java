@@ -0,0 +1,22 @@
+package org.keyko.retirement.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a password cannot be hashed or checked because too many already wait for it.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public PasswordHashingRejectedException(Duration retryAfter) {
+        super("Too many passwords are being hashed, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
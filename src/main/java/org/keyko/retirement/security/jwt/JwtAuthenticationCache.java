@@ -0,0 +1,137 @@
+package org.keyko.retirement.security.jwt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * A bounded cache of the principals parsed from JWTs, keyed by the SHA-256 digest of the token, so that a token is only
+ * verified and parsed once. Each entry expires with its token. The principals, with their authorities, are immutable:
+ * the mutable authentications are built from them for each request.
+ * <p>
+ * When the cache is full, the expired entries are removed, then arbitrary ones if it is still full. The statistics are
+ * bound to the {@code cache.*} meters, like the other caches, with the {@code jwtAuthentications} cache name.
+ */
+final class JwtAuthenticationCache {
+
+    static final String CACHE_NAME = "jwtAuthentications";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(
+        () -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    );
+
+    private final Map<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+
+    private final int maxEntries;
+
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    JwtAuthenticationCache(int maxEntries, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the principal of a token.
+     *
+     * @param token the token.
+     * @return the principal, or {@code null} if the token is not cached or has expired.
+     */
+    User get(String token) {
+        ByteBuffer key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.principal;
+    }
+
+    /**
+     * Cache the principal of a valid token.
+     *
+     * @param token the token.
+     * @param principal the principal parsed from the token.
+     * @param expiresAt the expiration time of the token, in milliseconds since the epoch.
+     */
+    void put(String token, User principal, long expiresAt) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(digest(token), new Entry(principal, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tags("cache", CACHE_NAME, "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tags("cache", CACHE_NAME, "result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum).tag("cache", CACHE_NAME).register(registry);
+        Gauge.builder("cache.size", entries, Map::size).tag("cache", CACHE_NAME).register(registry);
+    }
+
+    private void evict() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext();) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        // Make room for a tenth of the cache at once, rather than evicting on every put
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext() && entries.size() > maxEntries * 9 / 10;) {
+            iterator.next();
+            iterator.remove();
+            removed++;
+        }
+        evictions.add(removed);
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class Entry {
+
+        private final User principal;
+
+        private final long expiresAt;
+
+        private Entry(User principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
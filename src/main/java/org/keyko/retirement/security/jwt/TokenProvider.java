@@ -3,6 +3,8 @@ package org.keyko.retirement.security.jwt;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
@@ -19,12 +21,14 @@ import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
 @Component
-public class TokenProvider {
+public class TokenProvider implements MeterBinder {
 
     private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final int MAX_CACHED_AUTHENTICATIONS = 10000;
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -33,6 +37,11 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
+    private final JwtAuthenticationCache authenticationCache = new JwtAuthenticationCache(
+        MAX_CACHED_AUTHENTICATIONS,
+        System::currentTimeMillis
+    );
+
     public TokenProvider(JHipsterProperties jHipsterProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
@@ -74,17 +83,52 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return toAuthentication(toPrincipal(jwtParser.parseClaimsJws(token).getBody()), token);
+    }
 
+    /**
+     * Validate a token and get its authentication, with a single parse. The principal of a valid token is cached until
+     * the token expires, so that the following requests with the same token skip its verification. Each call returns a
+     * new authentication, which the caller may change.
+     *
+     * @param token the token.
+     * @return the authentication, or nothing if the token is not valid.
+     */
+    public Optional<Authentication> resolveAuthentication(String token) {
+        User principal = authenticationCache.get(token);
+        if (principal == null) {
+            try {
+                Claims claims = jwtParser.parseClaimsJws(token).getBody();
+                principal = toPrincipal(claims);
+                if (claims.getExpiration() != null) {
+                    authenticationCache.put(token, principal, claims.getExpiration().getTime());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.info("Invalid JWT token.");
+                log.trace("Invalid JWT token trace.", e);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(toAuthentication(principal, token));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        authenticationCache.bindTo(registry);
+    }
+
+    private static User toPrincipal(Claims claims) {
         Collection<? extends GrantedAuthority> authorities = Arrays
             .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
             .filter(auth -> !auth.trim().isEmpty())
             .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+            .collect(Collectors.toUnmodifiableList());
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        return new User(claims.getSubject(), "", authorities);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    private static Authentication toAuthentication(User principal, String token) {
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
     }
 
     public boolean validateToken(String authToken) {
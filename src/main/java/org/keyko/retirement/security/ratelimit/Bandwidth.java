@@ -0,0 +1,44 @@
+package org.keyko.retirement.security.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A rate limit: a bucket of {@code capacity} tokens, refilled continuously, at {@code capacity} tokens per
+ * {@code period}. Each request takes a token.
+ */
+public final class Bandwidth {
+
+    private final long capacity;
+
+    private final Duration period;
+
+    public Bandwidth(long capacity, Duration period) {
+        if (capacity < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Invalid rate limit: " + capacity + " per " + period);
+        }
+        this.capacity = capacity;
+        this.period = period;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    /**
+     * Get the time for a single token to be refilled.
+     *
+     * @return the time, in nanoseconds.
+     */
+    double getNanosPerToken() {
+        return (double) period.toNanos() / capacity;
+    }
+
+    @Override
+    public String toString() {
+        return capacity + " per " + period;
+    }
+}
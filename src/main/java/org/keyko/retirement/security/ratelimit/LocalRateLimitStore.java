@@ -0,0 +1,64 @@
+package org.keyko.retirement.security.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * A {@link RateLimitStore} keeping the token buckets of this node in memory.
+ * <p>
+ * The buckets are held in a {@link ConcurrentHashMap}, whose reads take no lock and whose writes only lock one bin, and
+ * are updated by compare-and-set. The buckets which are full again are dropped regularly, as a new bucket would be
+ * the same, so the memory used follows the number of recent clients rather than of all clients.
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final Logger log = LoggerFactory.getLogger(LocalRateLimitStore.class);
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimitStore() {
+        this(System::nanoTime);
+    }
+
+    LocalRateLimitStore(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Duration tryConsume(String key, Bandwidth bandwidth) {
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(bandwidth, now));
+        }
+        long waitNanos = bucket.tryConsume(now);
+        return waitNanos == 0 ? Duration.ZERO : Duration.ofNanos(waitNanos);
+    }
+
+    /**
+     * Drop the buckets which are full again.
+     * <p>
+     * This is scheduled to run every {@code application.rate-limit.eviction-interval}.
+     */
+    @Scheduled(
+        initialDelayString = "${application.rate-limit.eviction-interval:PT1M}",
+        fixedDelayString = "${application.rate-limit.eviction-interval:PT1M}"
+    )
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,20 @@
+package org.keyko.retirement.security.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * The store of the token buckets of the rate limits, one per key.
+ * <p>
+ * {@link LocalRateLimitStore} keeps them in memory, so each node of a cluster limits its own requests. Declaring
+ * another bean of this type, backed by a store shared by the nodes, replaces it.
+ */
+public interface RateLimitStore {
+    /**
+     * Take a token from the bucket of a key, creating a full bucket if there is none.
+     *
+     * @param key the key of the bucket, e.g. the client IP address.
+     * @param bandwidth the rate limit of the bucket.
+     * @return {@link Duration#ZERO} if a token was taken, or else the time until the next token is available.
+     */
+    Duration tryConsume(String key, Bandwidth bandwidth);
+}
@@ -0,0 +1,65 @@
+package org.keyko.retirement.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A token bucket, updated without locks: its state is replaced as a whole by compare-and-set.
+ */
+final class TokenBucket {
+
+    private final Bandwidth bandwidth;
+
+    private final AtomicReference<State> state;
+
+    TokenBucket(Bandwidth bandwidth, long nowNanos) {
+        this.bandwidth = bandwidth;
+        this.state = new AtomicReference<>(new State(bandwidth.getCapacity(), nowNanos));
+    }
+
+    /**
+     * Take a token.
+     *
+     * @param nowNanos the current time, from {@link System#nanoTime()}.
+     * @return {@code 0} if a token was taken, or else the nanoseconds until the next token is available.
+     */
+    long tryConsume(long nowNanos) {
+        double nanosPerToken = bandwidth.getNanosPerToken();
+        while (true) {
+            State current = state.get();
+            double tokens = available(current, nowNanos, nanosPerToken);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) * nanosPerToken);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(current.updatedAt, nowNanos)))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Check whether the bucket has been idle long enough to be full again, so that dropping it changes nothing.
+     *
+     * @param nowNanos the current time, from {@link System#nanoTime()}.
+     * @return {@code true} if the bucket is full.
+     */
+    boolean isFull(long nowNanos) {
+        return available(state.get(), nowNanos, bandwidth.getNanosPerToken()) >= bandwidth.getCapacity();
+    }
+
+    private double available(State current, long nowNanos, double nanosPerToken) {
+        double refilled = Math.max(0, nowNanos - current.updatedAt) / nanosPerToken;
+        return Math.min(bandwidth.getCapacity(), current.tokens + refilled);
+    }
+
+    private static final class State {
+
+        private final double tokens;
+
+        private final long updatedAt;
+
+        private State(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
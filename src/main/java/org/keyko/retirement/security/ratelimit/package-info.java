@@ -0,0 +1,4 @@
+/**
+ * Rate limiting of the unauthenticated endpoints, with token buckets.
+ */
+package org.keyko.retirement.security.ratelimit;
@@ -0,0 +1,152 @@
+package org.keyko.retirement.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service converting amounts between the {@link Currency} values.
+ * <p>
+ * The rates are read from {@code application.fx.rates-location}, a Spring resource location, so they can come from a
+ * local file ({@code file:}), the classpath or a stand-in HTTP endpoint. The file has a header line, then one
+ * {@code currency;usd} line per currency, giving the value of one unit of the currency in US dollars.
+ * <p>
+ * The rates are held in an immutable {@link FxRates} snapshot which the refresh replaces as a whole, so conversions
+ * never wait for a refresh and always use a consistent set of rates. When a refresh fails, the previous rates are kept.
+ */
+@Service
+public class FxRateService {
+
+    private final Logger log = LoggerFactory.getLogger(FxRateService.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ResourceLoader resourceLoader;
+
+    private final AtomicReference<FxRates> rates = new AtomicReference<>();
+
+    public FxRateService(ApplicationProperties applicationProperties, ResourceLoader resourceLoader) {
+        this.applicationProperties = applicationProperties;
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * Get the current rates, loading them on first use.
+     *
+     * @return the rates.
+     * @throws IllegalStateException if the rates have never been loaded successfully.
+     */
+    public FxRates getRates() {
+        FxRates current = rates.get();
+        if (current == null) {
+            refresh();
+            current = rates.get();
+            if (current == null) {
+                throw new IllegalStateException("No FX rates could be loaded from " + applicationProperties.getFx().getRatesLocation());
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reload the rates from {@code application.fx.rates-location}.
+     * <p>
+     * This is scheduled to run every {@code application.fx.refresh-interval}.
+     */
+    @Scheduled(
+        initialDelayString = "${application.fx.refresh-interval:PT1H}",
+        fixedDelayString = "${application.fx.refresh-interval:PT1H}"
+    )
+    public synchronized void refresh() {
+        String location = applicationProperties.getFx().getRatesLocation();
+        Resource resource = resourceLoader.getResource(location);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            FxRates loaded = FxRates.parse(reader, Instant.now());
+            rates.set(loaded);
+            log.debug("Loaded FX rates {} from {}", loaded.getUsdRates(), location);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not load FX rates from {}, keeping the previous ones: {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * An immutable set of rates, all expressed against the US dollar.
+     */
+    public static final class FxRates {
+
+        private final Map<Currency, Double> usdRates;
+
+        private final Instant loadedAt;
+
+        public FxRates(Map<Currency, Double> usdRates, Instant loadedAt) {
+            for (Currency currency : Currency.values()) {
+                Double rate = usdRates.get(currency);
+                if (rate == null || !(rate > 0)) {
+                    throw new IllegalArgumentException("Missing or invalid FX rate for " + currency);
+                }
+            }
+            this.usdRates = Collections.unmodifiableMap(new EnumMap<>(usdRates));
+            this.loadedAt = loadedAt;
+        }
+
+        static FxRates parse(BufferedReader reader, Instant loadedAt) throws IOException {
+            Map<Currency, Double> usdRates = new EnumMap<>(Currency.class);
+            // Skip the header
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] values = line.split(";");
+                if (values.length < 2) {
+                    throw new IllegalArgumentException("Invalid FX rate line: " + line);
+                }
+                try {
+                    usdRates.put(Currency.valueOf(values[0].trim().toUpperCase(Locale.ROOT)), Double.valueOf(values[1].trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid FX rate line: " + line, e);
+                }
+            }
+            return new FxRates(usdRates, loadedAt);
+        }
+
+        /**
+         * Convert an amount between two currencies.
+         *
+         * @param amount the amount, in the {@code from} currency.
+         * @param from the currency of the amount.
+         * @param to the currency to convert to.
+         * @return the amount in the {@code to} currency.
+         */
+        public double convert(double amount, Currency from, Currency to) {
+            if (from == to) {
+                return amount;
+            }
+            return amount * usdRates.get(from) / usdRates.get(to);
+        }
+
+        public Map<Currency, Double> getUsdRates() {
+            return usdRates;
+        }
+
+        public Instant getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.keyko.retirement.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sender of the e-mails of the outbox, calling {@link MailOutboxService#sendPending()} every
+ * {@code application.mail-outbox.poll-interval} once the application is ready.
+ * <p>
+ * It runs on its own thread, so slow SMTP servers and bursts of e-mails hold up neither the scheduled jobs nor the
+ * asynchronous tasks.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.mail-outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MailOutboxSender {
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxSender.class);
+
+    private final MailOutboxService mailOutboxService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("mail-sender-")
+    );
+
+    public MailOutboxSender(MailOutboxService mailOutboxService, ApplicationProperties applicationProperties) {
+        this.mailOutboxService = mailOutboxService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long pollIntervalMillis = applicationProperties.getMailOutbox().getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::sendPending, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("The e-mail sender did not stop in time, the e-mails it was sending will be sent again");
+            executor.shutdownNow();
+        }
+    }
+
+    private void sendPending() {
+        try {
+            mailOutboxService.sendPending();
+        } catch (RuntimeException e) {
+            // An exception would cancel the next runs
+            log.warn("Could not send the pending e-mails: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.keyko.retirement.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.MailMessage;
+import org.keyko.retirement.domain.enumeration.MailStatus;
+import org.keyko.retirement.repository.MailMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service managing the outbox of the e-mails: the {@link MailMessage} entities.
+ * <p>
+ * E-mails are queued in the database, in the transaction of the caller, so they survive a restart and are not sent for
+ * a rolled back change. {@link #sendPending()} then sends the due e-mails in batches, each batch over a single SMTP
+ * connection. A sender first leases the e-mails of a batch, in a short transaction, so the SMTP exchange holds no
+ * database lock and the e-mails of a sender which stopped mid-batch are sent again once their lease expires. Failed
+ * e-mails are retried with an exponential backoff, up to {@code application.mail-outbox.max-attempts} attempts.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxService.class);
+
+    private final MailMessageRepository mailMessageRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer batchTimer;
+
+    public MailOutboxService(
+        MailMessageRepository mailMessageRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.mailMessageRepository = mailMessageRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.properties = applicationProperties.getMailOutbox();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get).description("E-mails waiting to be sent").register(meterRegistry);
+        this.sentCounter = messageCounter(meterRegistry, "sent");
+        this.retriedCounter = messageCounter(meterRegistry, "retried");
+        this.failedCounter = messageCounter(meterRegistry, "failed");
+        this.batchTimer = Timer.builder("mail.outbox.batch").description("Time taken to send a batch of e-mails").register(meterRegistry);
+    }
+
+    private static Counter messageCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder("mail.outbox.messages")
+            .description("E-mails sent, or failed to be sent")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queue an e-mail, to be sent by {@link #sendPending()}.
+     *
+     * @param to the recipient.
+     * @param subject the subject.
+     * @param content the content.
+     * @param isMultipart whether the message is multipart.
+     * @param isHtml whether the content is HTML.
+     * @return the queued e-mail.
+     */
+    @Transactional
+    public MailMessage enqueue(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        MailMessage mail = new MailMessage();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setContent(content);
+        mail.setMultipart(isMultipart);
+        mail.setHtml(isHtml);
+        return mailMessageRepository.save(mail);
+    }
+
+    /**
+     * Send the due e-mails, in batches of {@code application.mail-outbox.batch-size}, until none is left.
+     *
+     * @return the number of e-mails sent.
+     */
+    public int sendPending() {
+        int sent = 0;
+        List<MailMessage> batch;
+        do {
+            batch = lease(Instant.now());
+            if (!batch.isEmpty()) {
+                sent += send(batch);
+            }
+        } while (batch.size() == properties.getBatchSize());
+        pending.set(mailMessageRepository.countByStatus(MailStatus.PENDING));
+        return sent;
+    }
+
+    private List<MailMessage> lease(Instant now) {
+        return transactionTemplate.execute(
+            status -> {
+                List<MailMessage> batch = mailMessageRepository.findAllDueForUpdate(
+                    MailStatus.PENDING,
+                    now,
+                    PageRequest.of(0, properties.getBatchSize())
+                );
+                for (MailMessage mail : batch) {
+                    mail.setAttempts(mail.getAttempts() + 1);
+                    mail.setNextAttemptDate(now.plus(properties.getLease()));
+                }
+                return batch;
+            }
+        );
+    }
+
+    private int send(List<MailMessage> batch) {
+        Map<MimeMessage, MailMessage> mails = new IdentityHashMap<>();
+        Map<Long, String> failures = new HashMap<>();
+        for (MailMessage mail : batch) {
+            try {
+                mails.put(toMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                // An invalid message would fail again, so it is not retried
+                mail.setAttempts(properties.getMaxAttempts());
+                failures.put(mail.getId(), e.toString());
+            }
+        }
+        List<Long> sent = new ArrayList<>();
+        if (!mails.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                // A single connection is opened for all the messages
+                javaMailSender.send(mails.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                Map<Object, Exception> failedMessages = e.getFailedMessages();
+                if (failedMessages == null || failedMessages.isEmpty()) {
+                    mails.values().forEach(mail -> failures.put(mail.getId(), e.toString()));
+                } else {
+                    failedMessages.forEach((message, error) -> failures.put(mails.get(message).getId(), error.toString()));
+                }
+            } catch (MailException e) {
+                mails.values().forEach(mail -> failures.put(mail.getId(), e.toString()));
+            } finally {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            for (MailMessage mail : mails.values()) {
+                if (!failures.containsKey(mail.getId())) {
+                    sent.add(mail.getId());
+                }
+            }
+        }
+        report(batch, sent, failures);
+        log.debug("Sent {} e-mails, {} failed", sent.size(), failures.size());
+        return sent.size();
+    }
+
+    private MimeMessage toMimeMessage(MailMessage mail) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mail.isMultipart(), StandardCharsets.UTF_8.name());
+        message.setTo(mail.getRecipient());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getContent(), mail.isHtml());
+        return mimeMessage;
+    }
+
+    private void report(List<MailMessage> batch, List<Long> sent, Map<Long, String> failures) {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                if (!sent.isEmpty()) {
+                    mailMessageRepository.deleteAllByIdIn(sent);
+                }
+                Instant now = Instant.now();
+                for (MailMessage mail : batch) {
+                    String error = failures.get(mail.getId());
+                    if (error != null) {
+                        retryLater(mail, error, now);
+                        mailMessageRepository.save(mail);
+                    }
+                }
+            }
+        );
+        sentCounter.increment(sent.size());
+    }
+
+    private void retryLater(MailMessage mail, String error, Instant now) {
+        mail.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (mail.getAttempts() >= properties.getMaxAttempts()) {
+            log.warn("Giving up on e-mail {} to '{}' after {} attempts: {}", mail.getId(), mail.getRecipient(), mail.getAttempts(), error);
+            mail.setStatus(MailStatus.FAILED);
+            mail.setNextAttemptDate(null);
+            failedCounter.increment();
+        } else {
+            log.info("E-mail {} to '{}' could not be sent, retrying: {}", mail.getId(), mail.getRecipient(), error);
+            mail.setNextAttemptDate(now.plus(backoff(mail.getAttempts())));
+            retriedCounter.increment();
+        }
+    }
+
+    /**
+     * Get the time to wait before the next attempt: the initial backoff, doubled after each attempt, up to the maximum
+     * backoff.
+     *
+     * @param attempts the number of attempts made so far.
+     * @return the time to wait.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff();
+        for (int i = 1; i < attempts && backoff.compareTo(properties.getMaxBackoff()) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(properties.getMaxBackoff()) < 0 ? backoff : properties.getMaxBackoff();
+    }
+}
@@ -0,0 +1,110 @@
+package org.keyko.retirement.service;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.keyko.retirement.config.Constants;
+import org.keyko.retirement.domain.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+
+/**
+ * Renderer of the e-mail templates and of their localized messages.
+ * <p>
+ * The templates are parsed when the application starts, and are then kept in the template cache of Thymeleaf (unless
+ * {@code spring.thymeleaf.cache} is disabled, as in development). The messages without arguments, such as the subjects,
+ * are resolved once per locale. The templates are rendered into a buffer reused by each thread, rather than into a new
+ * writer grown from its default size for every e-mail.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    static final List<String> TEMPLATES = List.of("mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail");
+
+    private static final int INITIAL_BUFFER_CHARS = 4 * 1024;
+
+    private static final int MAX_RETAINED_BUFFER_CHARS = 64 * 1024;
+
+    /**
+     * Locales come from the language keys of the users, so only a bounded number of them is cached.
+     */
+    private static final int MAX_CACHED_LOCALES = 64;
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final ConcurrentMap<Locale, ConcurrentMap<String, String>> messages = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER_CHARS));
+
+    public MailTemplateRenderer(SpringTemplateEngine templateEngine, MessageSource messageSource) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Parse the e-mail templates ahead of the first e-mails, by rendering them once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Locale locale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+        for (String template : TEMPLATES) {
+            try {
+                render(template, locale, Map.of("user", new User(), "baseUrl", ""));
+            } catch (TemplateEngineException e) {
+                log.warn("Could not prepare the e-mail template {}: {}", template, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Render a template.
+     *
+     * @param template the name of the template.
+     * @param locale the locale of the e-mail.
+     * @param variables the variables of the template.
+     * @return the rendered template.
+     */
+    public String render(String template, Locale locale, Map<String, Object> variables) {
+        StringWriter buffer = buffers.get();
+        buffer.getBuffer().setLength(0);
+        templateEngine.process(template, new Context(locale, variables), buffer);
+        String content = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_CHARS) {
+            // Do not hold on to the buffer of an unusually large e-mail
+            buffers.remove();
+        }
+        return content;
+    }
+
+    /**
+     * Get a localized message without arguments, such as the subject of an e-mail.
+     *
+     * @param code the code of the message.
+     * @param locale the locale.
+     * @return the message.
+     */
+    public String getMessage(String code, Locale locale) {
+        ConcurrentMap<String, String> localeMessages = messages.get(locale);
+        if (localeMessages == null) {
+            if (messages.size() >= MAX_CACHED_LOCALES) {
+                return messageSource.getMessage(code, null, locale);
+            }
+            localeMessages = messages.computeIfAbsent(locale, key -> new ConcurrentHashMap<>());
+        }
+        return localeMessages.computeIfAbsent(code, key -> messageSource.getMessage(key, null, locale));
+    }
+}
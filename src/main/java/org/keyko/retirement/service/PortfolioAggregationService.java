@@ -0,0 +1,108 @@
+package org.keyko.retirement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.keyko.retirement.repository.PositionRepository;
+import org.keyko.retirement.service.dto.PortfolioSummaryDTO;
+import org.keyko.retirement.service.dto.PortfolioTotalDTO;
+import org.keyko.retirement.service.dto.PositionSummaryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service aggregating {@link org.keyko.retirement.domain.Purchase} rows into portfolio positions.
+ * <p>
+ * The purchases of each owner are already summed per security and currency in the
+ * {@link org.keyko.retirement.domain.Position} rows maintained by {@link PositionService}; the rollups by security
+ * type, region and currency are then computed from those rows, so the work done here depends on the number of
+ * securities, not of purchases.
+ * When the {@link PositionSnapshotService} is enabled, the rollups are read from it instead of the database.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PortfolioAggregationService {
+
+    private final Logger log = LoggerFactory.getLogger(PortfolioAggregationService.class);
+
+    private final PositionRepository positionRepository;
+
+    private final PositionSnapshotService positionSnapshotService;
+
+    public PortfolioAggregationService(PositionRepository positionRepository, PositionSnapshotService positionSnapshotService) {
+        this.positionRepository = positionRepository;
+        this.positionSnapshotService = positionSnapshotService;
+    }
+
+    /**
+     * Get the positions of the portfolio of an owner and their rollups.
+     *
+     * @param ownerId the id of the owner.
+     * @return the portfolio summary.
+     */
+    public PortfolioSummaryDTO getSummary(Long ownerId) {
+        log.debug("Request to get the portfolio summary of {}", ownerId);
+        List<PositionSummaryDTO> positions = positionRepository.summarizeByOwnerId(ownerId);
+        PortfolioSummaryDTO summary = new PortfolioSummaryDTO();
+        summary.setPositions(positions);
+        summary.setByType(rollup(positions, position -> String.valueOf(position.getType())));
+        summary.setByRegion(rollup(positions, position -> String.valueOf(position.getRegion())));
+        summary.setByCurrency(rollup(positions, position -> String.valueOf(position.getCurrency())));
+        return summary;
+    }
+
+    /**
+     * Get the totals of the portfolio of an owner per security type and currency.
+     *
+     * @param ownerId the id of the owner.
+     * @return the totals.
+     */
+    public List<PortfolioTotalDTO> getTotalsByType(Long ownerId) {
+        if (positionSnapshotService.isEnabled()) {
+            return positionSnapshotService.getTotalsByType(ownerId);
+        }
+        return rollup(positionRepository.summarizeByOwnerId(ownerId), position -> String.valueOf(position.getType()));
+    }
+
+    /**
+     * Get the totals of the portfolio of an owner per region and currency.
+     *
+     * @param ownerId the id of the owner.
+     * @return the totals.
+     */
+    public List<PortfolioTotalDTO> getTotalsByRegion(Long ownerId) {
+        if (positionSnapshotService.isEnabled()) {
+            return positionSnapshotService.getTotalsByRegion(ownerId);
+        }
+        return rollup(positionRepository.summarizeByOwnerId(ownerId), position -> String.valueOf(position.getRegion()));
+    }
+
+    /**
+     * Get the totals of the portfolio of an owner per currency.
+     *
+     * @param ownerId the id of the owner.
+     * @return the totals.
+     */
+    public List<PortfolioTotalDTO> getTotalsByCurrency(Long ownerId) {
+        if (positionSnapshotService.isEnabled()) {
+            return positionSnapshotService.getTotalsByCurrency(ownerId);
+        }
+        return rollup(positionRepository.summarizeByOwnerId(ownerId), position -> String.valueOf(position.getCurrency()));
+    }
+
+    private static List<PortfolioTotalDTO> rollup(List<PositionSummaryDTO> positions, Function<PositionSummaryDTO, String> groupBy) {
+        // Amounts in different currencies are never added together
+        Map<String, PortfolioTotalDTO> totals = new TreeMap<>();
+        for (PositionSummaryDTO position : positions) {
+            String group = groupBy.apply(position);
+            totals
+                .computeIfAbsent(group + "/" + position.getCurrency(), key -> new PortfolioTotalDTO(group, position.getCurrency()))
+                .add(position);
+        }
+        return new ArrayList<>(totals.values());
+    }
+}
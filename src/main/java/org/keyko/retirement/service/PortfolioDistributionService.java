@@ -0,0 +1,99 @@
+package org.keyko.retirement.service;
+
+import java.util.stream.Stream;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.service.analytics.LogHistogram;
+import org.keyko.retirement.service.dto.DistributionDTO;
+import org.keyko.retirement.service.dto.PositionValuationDTO;
+import org.keyko.retirement.service.dto.ValuationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service computing the distributions of values across the portfolio.
+ * <p>
+ * The values are streamed into a {@link LogHistogram} instead of being collected and sorted, so the memory used does
+ * not depend on the number of purchases. The histogram is returned with the percentiles, for the clients to merge or
+ * query.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PortfolioDistributionService {
+
+    private final Logger log = LoggerFactory.getLogger(PortfolioDistributionService.class);
+
+    /**
+     * Precision of the histograms, with 128 buckets per power of two: the percentiles are within 0.4% of the exact ones.
+     */
+    static final int PRECISION = 7;
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final ValuationService valuationService;
+
+    private final FxRateService fxRateService;
+
+    public PortfolioDistributionService(
+        PurchaseRepository purchaseRepository,
+        ValuationService valuationService,
+        FxRateService fxRateService
+    ) {
+        this.purchaseRepository = purchaseRepository;
+        this.valuationService = valuationService;
+        this.fxRateService = fxRateService;
+    }
+
+    /**
+     * Get the distribution of the costs of the purchases of an owner, comission included. The purchases with a
+     * negative cost are left out.
+     *
+     * @param ownerId the id of the owner.
+     * @param reportingCurrency the currency of the costs.
+     * @return the distribution.
+     */
+    public DistributionDTO getPurchaseCostDistribution(Long ownerId, Currency reportingCurrency) {
+        log.debug("Request to get the distribution of the purchase costs of {} in {}", ownerId, reportingCurrency);
+        FxRateService.FxRates rates = fxRateService.getRates();
+        LogHistogram histogram = new LogHistogram(PRECISION);
+        try (Stream<Object[]> purchases = purchaseRepository.streamCostColumnsByOwnerId(ownerId)) {
+            purchases.forEach(
+                purchase -> {
+                    Currency currency = (Currency) purchase[0];
+                    if (currency == null) {
+                        return;
+                    }
+                    Integer number = (Integer) purchase[1];
+                    Float price = (Float) purchase[2];
+                    Float comission = (Float) purchase[3];
+                    double cost = (price != null && number != null ? (double) price * number : 0) + (comission != null ? comission : 0);
+                    if (cost >= 0) {
+                        histogram.record(rates.convert(cost, currency, reportingCurrency));
+                    }
+                }
+            );
+        }
+        return new DistributionDTO().describe(histogram, true);
+    }
+
+    /**
+     * Get the distribution of the weights of the positions of an owner, per security and currency, in the market value
+     * of their portfolio.
+     *
+     * @param ownerId the id of the owner.
+     * @return the distribution, of weights between 0 and 1.
+     */
+    public DistributionDTO getPositionWeightDistribution(Long ownerId) {
+        log.debug("Request to get the distribution of the position weights of {}", ownerId);
+        ValuationDTO valuation = valuationService.getValuation(ownerId, Currency.USD);
+        LogHistogram histogram = new LogHistogram(PRECISION);
+        if (valuation.getMarketValue() > 0) {
+            for (PositionValuationDTO position : valuation.getPositions()) {
+                histogram.record(Math.max(0, position.getMarketValue()) / valuation.getMarketValue());
+            }
+        }
+        return new DistributionDTO().describe(histogram, true);
+    }
+}
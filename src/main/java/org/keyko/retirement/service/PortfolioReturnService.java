@@ -0,0 +1,340 @@
+package org.keyko.retirement.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.config.ReplicaRoutingDataSource;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.service.analytics.Xirr;
+import org.keyko.retirement.service.dto.PortfolioReturnsDTO;
+import org.keyko.retirement.service.dto.PositionValuationDTO;
+import org.keyko.retirement.service.dto.ReturnDTO;
+import org.keyko.retirement.service.dto.ValuationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service computing the money-weighted returns of the portfolio and of each of its securities.
+ * <p>
+ * Each purchase with a trade date is a cash flow of its cost, comission included, on that date; the units it bought
+ * are taken as sold today at their market value, as given by the {@link ValuationService}. The annual rate of return
+ * of these flows is solved with {@link Xirr}, per security and for the whole portfolio. All the flows are converted
+ * with the current {@link FxRateService} rates, so the returns are those of a holder of the reporting currency at
+ * today's rates. The purchases without a trade date are left out, and counted apart.
+ * <p>
+ * The purchases are streamed in security order into primitive arrays of flows, reused from one security to the next.
+ * The returns are cached per owner and reporting currency until the ledger of the owner (see
+ * {@link PurchaseLedgerListener}), the prices, the rates or the date change, so repeated reads do not solve them again.
+ * The ledger versions only count the writes made through this instance, so the returns are also cached for at most
+ * {@code application.portfolio-returns.cache-ttl}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PortfolioReturnService {
+
+    private final Logger log = LoggerFactory.getLogger(PortfolioReturnService.class);
+
+    /**
+     * Number of cached returns above which the cache is emptied, to bound its memory whatever the number of owners.
+     */
+    static final int MAX_CACHED_RETURNS = 1000;
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final ValuationService valuationService;
+
+    private final FxRateService fxRateService;
+
+    private final PriceHistoryStore priceHistoryStore;
+
+    private final PurchaseLedgerListener purchaseLedgerListener;
+
+    private final long cacheTtlMillis;
+
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<ReturnsKey, CachedReturns> cache = new ConcurrentHashMap<>();
+
+    public PortfolioReturnService(
+        PurchaseRepository purchaseRepository,
+        ValuationService valuationService,
+        FxRateService fxRateService,
+        PriceHistoryStore priceHistoryStore,
+        PurchaseLedgerListener purchaseLedgerListener,
+        ApplicationProperties applicationProperties
+    ) {
+        this(
+            purchaseRepository,
+            valuationService,
+            fxRateService,
+            priceHistoryStore,
+            purchaseLedgerListener,
+            applicationProperties,
+            System::currentTimeMillis
+        );
+    }
+
+    PortfolioReturnService(
+        PurchaseRepository purchaseRepository,
+        ValuationService valuationService,
+        FxRateService fxRateService,
+        PriceHistoryStore priceHistoryStore,
+        PurchaseLedgerListener purchaseLedgerListener,
+        ApplicationProperties applicationProperties,
+        LongSupplier clock
+    ) {
+        this.purchaseRepository = purchaseRepository;
+        this.valuationService = valuationService;
+        this.fxRateService = fxRateService;
+        this.priceHistoryStore = priceHistoryStore;
+        this.purchaseLedgerListener = purchaseLedgerListener;
+        this.cacheTtlMillis = applicationProperties.getPortfolioReturns().getCacheTtl().toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Get the money-weighted returns of the portfolio of an owner.
+     *
+     * @param ownerId the id of the owner.
+     * @param reportingCurrency the currency of the flows.
+     * @return the returns of the portfolio and of each security with dated purchases, in security id order.
+     */
+    public PortfolioReturnsDTO getReturns(Long ownerId, Currency reportingCurrency) {
+        log.debug("Request to get the portfolio returns of {} in {}", ownerId, reportingCurrency);
+        // The versions are read before the ledger: a write made meanwhile leaves a stale version, never stale returns
+        long ledgerVersion = purchaseLedgerListener.getVersion(ownerId);
+        long priceVersion = priceHistoryStore.getVersion();
+        FxRateService.FxRates rates = fxRateService.getRates();
+        LocalDate asOf = LocalDate.now(ZoneOffset.UTC);
+        if (purchaseLedgerListener.hasUncommittedWrites()) {
+            // The returns of a ledger which may still be rolled back are not cached
+            return computeReturns(ownerId, reportingCurrency, rates, asOf);
+        }
+        ReturnsKey key = new ReturnsKey(ownerId, reportingCurrency);
+        CachedReturns cached = cache.get(key);
+        long now = clock.getAsLong();
+        if (cached != null && cached.isFor(ledgerVersion, priceVersion, rates.getLoadedAt(), asOf) && now < cached.expiresAt) {
+            return cached.returns;
+        }
+        // Read from the primary, as returns computed from a lagging replica would be cached under the new ledger version
+        PortfolioReturnsDTO returns = ReplicaRoutingDataSource.readFromPrimary(
+            () -> computeReturns(ownerId, reportingCurrency, rates, asOf)
+        );
+        if (cache.size() >= MAX_CACHED_RETURNS) {
+            cache.clear();
+        }
+        cache.put(key, new CachedReturns(ledgerVersion, priceVersion, rates.getLoadedAt(), asOf, now + cacheTtlMillis, returns));
+        return returns;
+    }
+
+    private PortfolioReturnsDTO computeReturns(Long ownerId, Currency reportingCurrency, FxRateService.FxRates rates, LocalDate asOf) {
+        ValuationDTO valuation = valuationService.getValuation(ownerId, reportingCurrency);
+        // The value of one unit of each security, per currency ordinal
+        Map<Long, double[]> unitValues = new HashMap<>();
+        Map<Long, PositionValuationDTO> securities = new HashMap<>();
+        for (PositionValuationDTO position : valuation.getPositions()) {
+            if (position.getCurrency() != null) {
+                double[] values = unitValues.computeIfAbsent(position.getSecurityId(), id -> new double[Currency.values().length]);
+                values[position.getCurrency().ordinal()] = unitValue(position, rates, reportingCurrency);
+                securities.putIfAbsent(position.getSecurityId(), position);
+            }
+        }
+
+        PortfolioReturnsDTO returns = new PortfolioReturnsDTO();
+        returns.setCurrency(reportingCurrency);
+        returns.setAsOf(asOf);
+        returns.setUndatedPurchases(purchaseRepository.countUndatedWithSecurityByOwnerId(ownerId));
+        ReturnDTO portfolio = new ReturnDTO();
+        Flows portfolioFlows = new Flows();
+        ReturnDTO security = null;
+        Flows securityFlows = new Flows();
+        try (Stream<Object[]> purchases = purchaseRepository.streamTradeFlowColumnsByOwnerId(ownerId)) {
+            Iterator<Object[]> iterator = purchases.iterator();
+            while (iterator.hasNext()) {
+                Object[] purchase = iterator.next();
+                Long securityId = (Long) purchase[0];
+                Currency currency = (Currency) purchase[1];
+                if (currency == null) {
+                    continue;
+                }
+                if (security == null || !securityId.equals(security.getSecurityId())) {
+                    if (security != null) {
+                        returns.getSecurities().add(close(security, securityFlows, asOf));
+                    }
+                    security = new ReturnDTO();
+                    security.setSecurityId(securityId);
+                    PositionValuationDTO position = securities.get(securityId);
+                    if (position != null) {
+                        security.setTicker(position.getTicker());
+                        security.setName(position.getName());
+                    }
+                }
+                Integer number = (Integer) purchase[2];
+                Float price = (Float) purchase[3];
+                Float comission = (Float) purchase[4];
+                LocalDate tradeDate = (LocalDate) purchase[5];
+                double units = number != null ? number : 0;
+                double cost = (price != null ? price * units : 0) + (comission != null ? comission : 0);
+                cost = rates.convert(cost, currency, reportingCurrency);
+                double[] values = unitValues.get(securityId);
+                double value = values != null ? units * values[currency.ordinal()] : 0;
+                add(security, securityFlows, cost, value, tradeDate);
+                add(portfolio, portfolioFlows, cost, value, tradeDate);
+            }
+        }
+        if (security != null) {
+            returns.getSecurities().add(close(security, securityFlows, asOf));
+        }
+        returns.setPortfolio(close(portfolio, portfolioFlows, asOf));
+        return returns;
+    }
+
+    private static double unitValue(PositionValuationDTO position, FxRateService.FxRates rates, Currency reportingCurrency) {
+        if (position.getQuantity() != 0) {
+            return position.getMarketValue() / position.getQuantity();
+        }
+        // A position sold out is still priced, for the flows of its past purchases
+        return position.getLastPrice() != null ? rates.convert(position.getLastPrice(), position.getCurrency(), reportingCurrency) : 0;
+    }
+
+    private static void add(ReturnDTO account, Flows flows, double cost, double value, LocalDate tradeDate) {
+        flows.add(-cost, tradeDate.toEpochDay());
+        account.setFlowCount(account.getFlowCount() + 1);
+        account.setInvested(account.getInvested() + cost);
+        account.setValue(account.getValue() + value);
+        if (account.getFirstTradeDate() == null || tradeDate.isBefore(account.getFirstTradeDate())) {
+            account.setFirstTradeDate(tradeDate);
+        }
+    }
+
+    private static ReturnDTO close(ReturnDTO account, Flows flows, LocalDate asOf) {
+        // The units bought are taken as sold today, at their market value
+        flows.add(account.getValue(), asOf.toEpochDay());
+        double rate = flows.solve();
+        account.setAnnualizedReturn(Double.isNaN(rate) ? null : rate);
+        flows.clear();
+        return account;
+    }
+
+    /**
+     * Growable arrays of cash flows, merging the consecutive flows of a same day.
+     */
+    private static final class Flows {
+
+        private double[] amounts = new double[16];
+
+        private long[] days = new long[16];
+
+        private int count;
+
+        void add(double amount, long day) {
+            if (count > 0 && days[count - 1] == day) {
+                amounts[count - 1] += amount;
+                return;
+            }
+            if (count == amounts.length) {
+                amounts = Arrays.copyOf(amounts, count * 2);
+                days = Arrays.copyOf(days, count * 2);
+            }
+            amounts[count] = amount;
+            days[count] = day;
+            count++;
+        }
+
+        double solve() {
+            return Xirr.solve(amounts, days, count);
+        }
+
+        void clear() {
+            count = 0;
+        }
+    }
+
+    /**
+     * The owner and reporting currency of some cached returns.
+     */
+    private static final class ReturnsKey {
+
+        private final Long ownerId;
+
+        private final Currency currency;
+
+        ReturnsKey(Long ownerId, Currency currency) {
+            this.ownerId = ownerId;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ReturnsKey)) {
+                return false;
+            }
+            ReturnsKey other = (ReturnsKey) o;
+            return Objects.equals(ownerId, other.ownerId) && currency == other.currency;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ownerId, currency);
+        }
+    }
+
+    /**
+     * The returns computed for some versions of the ledger and the prices, rates and date, until they expire.
+     */
+    private static final class CachedReturns {
+
+        private final long ledgerVersion;
+
+        private final long priceVersion;
+
+        private final Instant ratesLoadedAt;
+
+        private final LocalDate asOf;
+
+        private final long expiresAt;
+
+        private final PortfolioReturnsDTO returns;
+
+        CachedReturns(
+            long ledgerVersion,
+            long priceVersion,
+            Instant ratesLoadedAt,
+            LocalDate asOf,
+            long expiresAt,
+            PortfolioReturnsDTO returns
+        ) {
+            this.ledgerVersion = ledgerVersion;
+            this.priceVersion = priceVersion;
+            this.ratesLoadedAt = ratesLoadedAt;
+            this.asOf = asOf;
+            this.expiresAt = expiresAt;
+            this.returns = returns;
+        }
+
+        boolean isFor(long ledgerVersion, long priceVersion, Instant ratesLoadedAt, LocalDate asOf) {
+            return (
+                this.ledgerVersion == ledgerVersion &&
+                this.priceVersion == priceVersion &&
+                this.ratesLoadedAt.equals(ratesLoadedAt) &&
+                this.asOf.equals(asOf)
+            );
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.keyko.retirement.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import org.keyko.retirement.domain.Position;
+import org.keyko.retirement.domain.PositionId;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.PositionRepository;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.service.dto.PositionSummaryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the {@link Position} entities from the writes to {@link Purchase} entities.
+ * <p>
+ * Callers report each purchase they create, change or delete, in the same transaction, and the totals of the matching
+ * position are moved by the difference with a single {@code UPDATE}. Each owner has their own positions; purchases
+ * without an owner, a security or a currency do not belong to any position. A nightly job checks the positions against
+ * the purchases and repairs any difference.
+ */
+@Service
+@Transactional
+public class PositionService {
+
+    private final Logger log = LoggerFactory.getLogger(PositionService.class);
+
+    private final PositionRepository positionRepository;
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final EntityManager entityManager;
+
+    public PositionService(PositionRepository positionRepository, PurchaseRepository purchaseRepository, EntityManager entityManager) {
+        this.positionRepository = positionRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Add a new purchase to its position. For a changed purchase, call {@link #remove(Purchase)} with its previous state
+     * first.
+     *
+     * @param purchase the purchase.
+     */
+    public void add(Purchase purchase) {
+        apply(new Changes().add(purchase));
+    }
+
+    /**
+     * Remove a purchase from its position, with the values it had when it was added.
+     *
+     * @param purchase the purchase.
+     */
+    public void remove(Purchase purchase) {
+        apply(new Changes().remove(purchase));
+    }
+
+    /**
+     * Apply the changes of several purchases, with one statement per position.
+     *
+     * @param changes the changes.
+     */
+    public void apply(Changes changes) {
+        changes.deltas.forEach(this::apply);
+    }
+
+    /**
+     * Get the position of an owner in a security and a currency.
+     *
+     * @param ownerId the id of the owner.
+     * @param securityId the id of the security.
+     * @param currency the currency.
+     * @return the position, if the owner has purchases of the security in this currency.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Position> getPosition(Long ownerId, Long securityId, Currency currency) {
+        return positionRepository.findById(new PositionId(ownerId, securityId, currency));
+    }
+
+    /**
+     * Check the positions against the sums of the purchases, and repair the ones which differ.
+     * <p>
+     * This is scheduled to run every night, at 01:30 am. A purchase written while it runs may be counted twice or not
+     * at all in its position, until the next run.
+     *
+     * @return the number of repaired positions.
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public int reconcile() {
+        Map<PositionId, PositionSummaryDTO> expected = new HashMap<>();
+        for (PositionSummaryDTO summary : purchaseRepository.summarizeByOwnerSecurityAndCurrency()) {
+            if (summary.getCurrency() != null) {
+                expected.put(new PositionId(summary.getOwnerId(), summary.getSecurityId(), summary.getCurrency()), summary);
+            }
+        }
+        List<PositionId> repaired = new ArrayList<>();
+        for (Position position : positionRepository.findAll()) {
+            PositionSummaryDTO summary = expected.remove(position.getId());
+            if (summary == null) {
+                positionRepository.delete(position);
+                repaired.add(position.getId());
+            } else if (!matches(position, summary)) {
+                copy(summary, position);
+                repaired.add(position.getId());
+            }
+        }
+        for (Map.Entry<PositionId, PositionSummaryDTO> missing : expected.entrySet()) {
+            Position position = new Position();
+            position.setId(missing.getKey());
+            copy(missing.getValue(), position);
+            entityManager.persist(position);
+            repaired.add(missing.getKey());
+        }
+        if (repaired.isEmpty()) {
+            log.debug("All positions match their purchases");
+        } else {
+            log.warn("Repaired {} positions which did not match their purchases: {}", repaired.size(), repaired);
+        }
+        return repaired.size();
+    }
+
+    private void apply(PositionId id, Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (addToTotals(id, delta) == 0) {
+            if (delta.purchaseCount <= 0) {
+                log.warn("Cannot change the missing position {}, it will be repaired by the next reconciliation", id);
+                return;
+            }
+            // Serialize the creation of a position on its security row, then check for a position created meanwhile
+            entityManager.find(Security.class, id.getSecurityId(), LockModeType.PESSIMISTIC_WRITE);
+            if (addToTotals(id, delta) == 0) {
+                Position position = new Position();
+                position.setId(id);
+                position.setPurchaseCount(delta.purchaseCount);
+                position.setQuantity(delta.quantity);
+                position.setCost(delta.cost);
+                position.setComission(delta.comission);
+                entityManager.persist(position);
+            }
+        }
+        if (delta.purchaseCount < 0) {
+            positionRepository.deleteIfEmpty(id.getOwnerId(), id.getSecurityId(), id.getCurrency());
+        }
+    }
+
+    private int addToTotals(PositionId id, Delta delta) {
+        return positionRepository.addToTotals(
+            id.getOwnerId(),
+            id.getSecurityId(),
+            id.getCurrency(),
+            delta.purchaseCount,
+            delta.quantity,
+            delta.cost,
+            delta.comission
+        );
+    }
+
+    private static boolean matches(Position position, PositionSummaryDTO summary) {
+        return (
+            position.getPurchaseCount() == summary.getPurchaseCount() &&
+            position.getQuantity() == summary.getQuantity() &&
+            isClose(position.getCost(), summary.getCost()) &&
+            isClose(position.getComission(), summary.getComission())
+        );
+    }
+
+    private static boolean isClose(double actual, double expected) {
+        // Prices are single precision floats, summed in a different order by the database
+        return Math.abs(actual - expected) <= Math.max(0.01, Math.abs(expected) * 1e-6);
+    }
+
+    private static void copy(PositionSummaryDTO summary, Position position) {
+        position.setPurchaseCount(summary.getPurchaseCount());
+        position.setQuantity(summary.getQuantity());
+        position.setCost(summary.getCost());
+        position.setComission(summary.getComission());
+    }
+
+    /**
+     * The changes of a set of purchases, summed per position.
+     */
+    public static final class Changes {
+
+        private final Map<PositionId, Delta> deltas = new HashMap<>();
+
+        /**
+         * Add a purchase to its position.
+         *
+         * @param purchase the purchase.
+         * @return these changes.
+         */
+        public Changes add(Purchase purchase) {
+            return change(purchase, 1);
+        }
+
+        /**
+         * Remove a purchase from its position.
+         *
+         * @param purchase the purchase.
+         * @return these changes.
+         */
+        public Changes remove(Purchase purchase) {
+            return change(purchase, -1);
+        }
+
+        private Changes change(Purchase purchase, int sign) {
+            if (
+                purchase.getOwner() == null ||
+                purchase.getSecurity() == null ||
+                purchase.getSecurity().getId() == null ||
+                purchase.getCurrency() == null
+            ) {
+                return this;
+            }
+            PositionId id = new PositionId(purchase.getOwner().getId(), purchase.getSecurity().getId(), purchase.getCurrency());
+            Delta delta = deltas.computeIfAbsent(id, key -> new Delta());
+            long number = purchase.getNumber() != null ? purchase.getNumber() : 0;
+            delta.purchaseCount += sign;
+            delta.quantity += sign * number;
+            if (purchase.getPrice() != null) {
+                delta.cost += sign * (double) purchase.getPrice() * number;
+            }
+            if (purchase.getComission() != null) {
+                delta.comission += sign * (double) purchase.getComission();
+            }
+            return this;
+        }
+    }
+
+    private static final class Delta {
+
+        private long purchaseCount;
+
+        private long quantity;
+
+        private double cost;
+
+        private double comission;
+
+        private boolean isEmpty() {
+            return purchaseCount == 0 && quantity == 0 && cost == 0 && comission == 0;
+        }
+    }
+}
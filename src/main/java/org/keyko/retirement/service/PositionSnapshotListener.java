@@ -0,0 +1,93 @@
+package org.keyko.retirement.service;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener keeping the {@link PositionSnapshotService} up to date.
+ * <p>
+ * Changes are captured when Hibernate flushes them, and applied to the snapshot once their transaction commits, so
+ * rolled back changes never show up in it. Hibernate gets this listener from Spring, hence the lazy snapshot service:
+ * it depends on repositories which are not available yet when the entity manager factory is built.
+ */
+@Component
+public class PositionSnapshotListener {
+
+    private final PositionSnapshotService positionSnapshotService;
+
+    public PositionSnapshotListener(@Lazy PositionSnapshotService positionSnapshotService) {
+        this.positionSnapshotService = positionSnapshotService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (!positionSnapshotService.isEnabled()) {
+            return;
+        }
+        if (entity instanceof Purchase) {
+            Purchase purchase = (Purchase) entity;
+            long purchaseId = purchase.getId();
+            Long ownerId = purchase.getOwner() != null ? purchase.getOwner().getId() : null;
+            Long securityId = purchase.getSecurity() != null ? purchase.getSecurity().getId() : null;
+            // Copy the state now: the entity may change again before the transaction commits
+            Currency currency = purchase.getCurrency();
+            Integer number = purchase.getNumber();
+            Float price = purchase.getPrice();
+            Float comission = purchase.getComission();
+            afterCommit(() -> positionSnapshotService.putPurchase(purchaseId, ownerId, securityId, currency, number, price, comission));
+        } else if (entity instanceof Security) {
+            Security security = (Security) entity;
+            long securityId = security.getId();
+            SecurityType type = security.getType();
+            Region region = security.getRegion();
+            afterCommit(() -> positionSnapshotService.putSecurity(securityId, type, region));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (!positionSnapshotService.isEnabled()) {
+            return;
+        }
+        if (entity instanceof Purchase) {
+            long purchaseId = ((Purchase) entity).getId();
+            afterCommit(() -> positionSnapshotService.removePurchase(purchaseId));
+        }
+    }
+
+    /**
+     * Drop the snapshot once the current transaction commits, for the writes made with bulk statements, which the
+     * entity callbacks do not see.
+     */
+    public void onBulkWrite() {
+        if (positionSnapshotService.isEnabled()) {
+            afterCommit(positionSnapshotService::invalidate);
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            }
+        );
+    }
+}
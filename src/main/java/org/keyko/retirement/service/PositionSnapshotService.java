@@ -0,0 +1,437 @@
+package org.keyko.retirement.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.config.ReplicaRoutingDataSource;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.service.dto.PortfolioTotalDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory, columnar snapshot of the portfolio positions.
+ * <p>
+ * The classification of each security is held in primitive arrays indexed by a security slot, and the positions per
+ * owner, security and currency in parallel primitive arrays indexed by a holding slot, one per owner and security. The
+ * totals of an owner by security type, region or currency are a scan over the few holdings of that owner: no entity and
+ * no Hibernate session.
+ * The snapshot is loaded from the database on first read, then kept up to date by {@link PositionSnapshotListener}
+ * as purchases and securities are committed. It is only maintained when {@code application.position-snapshot.enabled}
+ * is set.
+ */
+@Service
+public class PositionSnapshotService {
+
+    private static final int CURRENCIES = Currency.values().length;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final byte UNCLASSIFIED = -1;
+
+    private final Logger log = LoggerFactory.getLogger(PositionSnapshotService.class);
+
+    private final boolean enabled;
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final SecurityRepository securityRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotsBySecurityId = new HashMap<>();
+
+    // Holding slots by security id, by owner id
+    private final Map<Long, Map<Long, Integer>> holdingSlotsByOwnerId = new HashMap<>();
+
+    private final Map<Long, Contribution> contributionsByPurchaseId = new HashMap<>();
+
+    // Columns indexed by security slot
+    private long[] securityIds;
+    private byte[] types;
+    private byte[] regions;
+
+    // Column indexed by holding slot
+    private int[] securitySlots;
+
+    // Columns indexed by holding slot * CURRENCIES + currency
+    private int[] purchaseCounts;
+    private long[] quantities;
+    private double[] costs;
+    private double[] comissions;
+
+    private int securityCount;
+
+    private int holdingCount;
+
+    private volatile boolean stale = true;
+
+    public PositionSnapshotService(
+        ApplicationProperties applicationProperties,
+        PurchaseRepository purchaseRepository,
+        SecurityRepository securityRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.enabled = applicationProperties.getPositionSnapshot().isEnabled();
+        this.purchaseRepository = purchaseRepository;
+        this.securityRepository = securityRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        clear(INITIAL_CAPACITY, INITIAL_CAPACITY);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<PortfolioTotalDTO> getTotalsByType(long ownerId) {
+        return readTotals(ownerId, Dimension.TYPE);
+    }
+
+    public List<PortfolioTotalDTO> getTotalsByRegion(long ownerId) {
+        return readTotals(ownerId, Dimension.REGION);
+    }
+
+    public List<PortfolioTotalDTO> getTotalsByCurrency(long ownerId) {
+        return readTotals(ownerId, Dimension.CURRENCY);
+    }
+
+    /**
+     * Record the classification of a security.
+     *
+     * @param securityId the id of the security.
+     * @param type the type of the security.
+     * @param region the region of the security.
+     */
+    public void putSecurity(long securityId, SecurityType type, Region region) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!stale) {
+                int slot = slotOf(securityId);
+                types[slot] = type != null ? (byte) type.ordinal() : UNCLASSIFIED;
+                regions[slot] = region != null ? (byte) region.ordinal() : UNCLASSIFIED;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record the current state of a purchase, replacing whatever was recorded for it before.
+     *
+     * @param purchaseId the id of the purchase.
+     * @param ownerId the id of its owner, if any.
+     * @param securityId the id of its security, if any.
+     * @param currency its currency.
+     * @param number the number of securities purchased.
+     * @param price the price of each security.
+     * @param comission the comission paid.
+     */
+    public void putPurchase(
+        long purchaseId,
+        Long ownerId,
+        Long securityId,
+        Currency currency,
+        Integer number,
+        Float price,
+        Float comission
+    ) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!stale) {
+                removeContribution(purchaseId);
+                addContribution(purchaseId, ownerId, securityId, currency, number, price, comission);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forget a deleted purchase.
+     *
+     * @param purchaseId the id of the purchase.
+     */
+    public void removePurchase(long purchaseId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!stale) {
+                removeContribution(purchaseId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the snapshot, so that it is reloaded from the database on next read. This waits for the lock, so that a load
+     * which may have missed the change does not mark the snapshot as fresh afterwards.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            stale = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<PortfolioTotalDTO> readTotals(long ownerId, Dimension dimension) {
+        ensureLoaded();
+        Enum<?>[] groups = dimension.groups;
+        // The last group collects the securities which have no value for the dimension
+        int totalCount = (groups.length + 1) * CURRENCIES;
+        long[] totalPurchaseCounts = new long[totalCount];
+        long[] totalQuantities = new long[totalCount];
+        double[] totalCosts = new double[totalCount];
+        double[] totalComissions = new double[totalCount];
+        lock.readLock().lock();
+        try {
+            byte[] groupOfSlot = dimension == Dimension.TYPE ? types : regions;
+            for (int holding : holdingSlotsByOwnerId.getOrDefault(ownerId, Collections.emptyMap()).values()) {
+                int slot = securitySlots[holding];
+                int slotGroup = groupOfSlot[slot] == UNCLASSIFIED ? groups.length : groupOfSlot[slot];
+                for (int currency = 0; currency < CURRENCIES; currency++) {
+                    int cell = holding * CURRENCIES + currency;
+                    if (purchaseCounts[cell] == 0) {
+                        continue;
+                    }
+                    int total = (dimension == Dimension.CURRENCY ? currency : slotGroup) * CURRENCIES + currency;
+                    totalPurchaseCounts[total] += purchaseCounts[cell];
+                    totalQuantities[total] += quantities[cell];
+                    totalCosts[total] += costs[cell];
+                    totalComissions[total] += comissions[cell];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Currency[] currencies = Currency.values();
+        List<PortfolioTotalDTO> totals = new ArrayList<>();
+        for (int total = 0; total < totalCount; total++) {
+            if (totalPurchaseCounts[total] == 0) {
+                continue;
+            }
+            int group = total / CURRENCIES;
+            PortfolioTotalDTO dto = new PortfolioTotalDTO(
+                String.valueOf(group < groups.length ? groups[group] : null),
+                currencies[total % CURRENCIES]
+            );
+            dto.setPurchaseCount(totalPurchaseCounts[total]);
+            dto.setQuantity(totalQuantities[total]);
+            dto.setCost(totalCosts[total]);
+            dto.setComission(totalComissions[total]);
+            totals.add(dto);
+        }
+        return totals;
+    }
+
+    private void ensureLoaded() {
+        if (!stale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called with the write lock held. Commits happening meanwhile wait for the lock and are applied after the
+     * load, which is harmless as every update replaces the state recorded for its purchase or security. The updates
+     * check whether the snapshot is stale only once they hold the lock: checked before, a commit the queries of the
+     * load missed would be dropped.
+     */
+    private void load() {
+        long start = System.currentTimeMillis();
+        clear(Math.max(INITIAL_CAPACITY, securityIds.length), Math.max(INITIAL_CAPACITY, securitySlots.length));
+        // Read from the primary, as the snapshot only sees the commits made after its load
+        ReplicaRoutingDataSource.readFromPrimary(
+            () -> {
+                readOnlyTransactionTemplate.executeWithoutResult(status -> readAll());
+                return null;
+            }
+        );
+        stale = false;
+        log.debug(
+            "Loaded the position snapshot of {} purchases over {} securities and {} holdings in {} ms",
+            contributionsByPurchaseId.size(),
+            securityCount,
+            holdingCount,
+            System.currentTimeMillis() - start
+        );
+    }
+
+    private void readAll() {
+        for (Object[] security : securityRepository.findAllClassifications()) {
+            int slot = slotOf((Long) security[0]);
+            types[slot] = security[1] != null ? (byte) ((SecurityType) security[1]).ordinal() : UNCLASSIFIED;
+            regions[slot] = security[2] != null ? (byte) ((Region) security[2]).ordinal() : UNCLASSIFIED;
+        }
+        try (Stream<Object[]> purchases = purchaseRepository.streamPositionColumns()) {
+            purchases.forEach(
+                purchase ->
+                    addContribution(
+                        (Long) purchase[0],
+                        (Long) purchase[6],
+                        (Long) purchase[1],
+                        (Currency) purchase[2],
+                        (Integer) purchase[3],
+                        (Float) purchase[4],
+                        (Float) purchase[5]
+                    )
+            );
+        }
+    }
+
+    private void clear(int securityCapacity, int holdingCapacity) {
+        slotsBySecurityId.clear();
+        holdingSlotsByOwnerId.clear();
+        contributionsByPurchaseId.clear();
+        securityIds = new long[securityCapacity];
+        types = new byte[securityCapacity];
+        regions = new byte[securityCapacity];
+        securitySlots = new int[holdingCapacity];
+        purchaseCounts = new int[holdingCapacity * CURRENCIES];
+        quantities = new long[holdingCapacity * CURRENCIES];
+        costs = new double[holdingCapacity * CURRENCIES];
+        comissions = new double[holdingCapacity * CURRENCIES];
+        securityCount = 0;
+        holdingCount = 0;
+    }
+
+    private int slotOf(long securityId) {
+        Integer slot = slotsBySecurityId.get(securityId);
+        if (slot != null) {
+            return slot;
+        }
+        if (securityCount == securityIds.length) {
+            int capacity = securityIds.length * 2;
+            securityIds = Arrays.copyOf(securityIds, capacity);
+            types = Arrays.copyOf(types, capacity);
+            regions = Arrays.copyOf(regions, capacity);
+        }
+        int newSlot = securityCount++;
+        securityIds[newSlot] = securityId;
+        types[newSlot] = UNCLASSIFIED;
+        regions[newSlot] = UNCLASSIFIED;
+        slotsBySecurityId.put(securityId, newSlot);
+        return newSlot;
+    }
+
+    private int holdingOf(long ownerId, long securityId) {
+        Map<Long, Integer> holdings = holdingSlotsByOwnerId.computeIfAbsent(ownerId, id -> new HashMap<>());
+        Integer holding = holdings.get(securityId);
+        if (holding != null) {
+            return holding;
+        }
+        if (holdingCount == securitySlots.length) {
+            int capacity = securitySlots.length * 2;
+            securitySlots = Arrays.copyOf(securitySlots, capacity);
+            purchaseCounts = Arrays.copyOf(purchaseCounts, capacity * CURRENCIES);
+            quantities = Arrays.copyOf(quantities, capacity * CURRENCIES);
+            costs = Arrays.copyOf(costs, capacity * CURRENCIES);
+            comissions = Arrays.copyOf(comissions, capacity * CURRENCIES);
+        }
+        int newHolding = holdingCount++;
+        securitySlots[newHolding] = slotOf(securityId);
+        holdings.put(securityId, newHolding);
+        return newHolding;
+    }
+
+    private void addContribution(
+        long purchaseId,
+        Long ownerId,
+        Long securityId,
+        Currency currency,
+        Integer number,
+        Float price,
+        Float comission
+    ) {
+        // Like the portfolio summary, only purchases of an owner in a security and a known currency make up a position
+        if (ownerId == null || securityId == null || currency == null) {
+            return;
+        }
+        Contribution contribution = new Contribution(
+            holdingOf(ownerId, securityId) * CURRENCIES + currency.ordinal(),
+            number != null ? number : 0,
+            number != null && price != null ? (double) price * number : 0d,
+            comission != null ? comission : 0d
+        );
+        contributionsByPurchaseId.put(purchaseId, contribution);
+        apply(contribution, 1);
+    }
+
+    private void removeContribution(long purchaseId) {
+        Contribution contribution = contributionsByPurchaseId.remove(purchaseId);
+        if (contribution != null) {
+            apply(contribution, -1);
+        }
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        int cell = contribution.cell;
+        purchaseCounts[cell] += sign;
+        quantities[cell] += sign * contribution.quantity;
+        costs[cell] += sign * contribution.cost;
+        comissions[cell] += sign * contribution.comission;
+    }
+
+    private enum Dimension {
+        TYPE(SecurityType.values()),
+        REGION(Region.values()),
+        CURRENCY(Currency.values());
+
+        private final Enum<?>[] groups;
+
+        Dimension(Enum<?>[] groups) {
+            this.groups = groups;
+        }
+    }
+
+    /**
+     * What a single purchase adds to the cell of its owner, security and currency.
+     */
+    private static final class Contribution {
+
+        private final int cell;
+        private final long quantity;
+        private final double cost;
+        private final double comission;
+
+        private Contribution(int cell, long quantity, double cost, double comission) {
+            this.cell = cell;
+            this.quantity = quantity;
+            this.cost = cost;
+            this.comission = comission;
+        }
+    }
+}
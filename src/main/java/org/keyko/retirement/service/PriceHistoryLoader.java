@@ -0,0 +1,88 @@
+package org.keyko.retirement.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.config.AsyncConfiguration;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Load the CSV price dumps of {@code application.price-history.import-directory} into the {@link PriceHistoryStore}.
+ * <p>
+ * Each dump is named after the ticker of its security, e.g. {@code VTI.csv}. The store ignores prices it already has,
+ * so dumps can be left in place and extended between restarts.
+ */
+@Component
+public class PriceHistoryLoader {
+
+    private static final String CSV_SUFFIX = ".csv";
+
+    private final Logger log = LoggerFactory.getLogger(PriceHistoryLoader.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SecurityRepository securityRepository;
+
+    private final PriceHistoryStore priceHistoryStore;
+
+    public PriceHistoryLoader(
+        ApplicationProperties applicationProperties,
+        SecurityRepository securityRepository,
+        PriceHistoryStore priceHistoryStore
+    ) {
+        this.applicationProperties = applicationProperties;
+        this.securityRepository = securityRepository;
+        this.priceHistoryStore = priceHistoryStore;
+    }
+
+    @Async(AsyncConfiguration.PRICE_HISTORY_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadImportDirectory() {
+        String importDirectory = applicationProperties.getPriceHistory().getImportDirectory();
+        if (importDirectory == null || importDirectory.isBlank()) {
+            return;
+        }
+        Path directory = Paths.get(importDirectory);
+        if (!Files.isDirectory(directory)) {
+            log.warn("Price history import directory {} does not exist", directory);
+            return;
+        }
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            dumps = files.filter(file -> file.getFileName().toString().endsWith(CSV_SUFFIX)).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            log.error("Could not list the price history import directory {}", directory, e);
+            return;
+        }
+        for (Path dump : dumps) {
+            String fileName = dump.getFileName().toString();
+            String ticker = fileName.substring(0, fileName.length() - CSV_SUFFIX.length());
+            Optional<Security> security = securityRepository.findFirstByTickerOrderByIdAsc(ticker);
+            if (security.isEmpty()) {
+                log.warn("Skipping price history {}: no security with ticker {}", dump, ticker);
+                continue;
+            }
+            try (Reader reader = Files.newBufferedReader(dump, StandardCharsets.UTF_8)) {
+                long appended = priceHistoryStore.importCsv(security.get().getId(), reader);
+                log.info("Loaded {} prices of {} from {}", appended, ticker, dump);
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Could not load the price history {}", dump, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package org.keyko.retirement.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Store of the close prices of each {@link org.keyko.retirement.domain.Security}, kept out of the database.
+ * <p>
+ * The prices of a security are an append-only series of fixed-width records (epoch milliseconds, close price), in
+ * increasing time order, split into segment files of a fixed number of records. Segments are memory-mapped, so a range
+ * read is two binary searches per segment and the prices are then read straight from the mapped pages, without copying
+ * them into the heap.
+ * <p>
+ * Each segment starts with a header holding its number of records, updated after every append. Appends to a series are
+ * serialized; reads are lock-free, as they only see the records published before they started.
+ */
+@Service
+public class PriceHistoryStore {
+
+    static final int HEADER_SIZE = 16;
+
+    static final int RECORD_SIZE = 16;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Logger log = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    private final Path directory;
+
+    private final int segmentCapacity;
+
+    private final ConcurrentMap<Long, Series> series = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    public PriceHistoryStore(ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getPriceHistory().getDirectory());
+        this.segmentCapacity = applicationProperties.getPriceHistory().getSegmentCapacity();
+    }
+
+    /**
+     * Append a price to the series of a security.
+     *
+     * @param securityId the id of the security.
+     * @param time the time of the price.
+     * @param close the close price.
+     * @return {@code true} if the price was appended, {@code false} if the series already has a price at or after this time.
+     */
+    public boolean append(long securityId, Instant time, double close) {
+        Series prices = series(securityId);
+        synchronized (prices) {
+            boolean appended = prices.write(time.toEpochMilli(), close);
+            prices.publish();
+            if (appended) {
+                version.incrementAndGet();
+            }
+            return appended;
+        }
+    }
+
+    /**
+     * Append the prices of a CSV dump to the series of a security.
+     * <p>
+     * Each line holds a date ({@code 2021-04-26}, taken at midnight UTC) or an instant ({@code 2021-04-26T14:30:00Z}),
+     * then the close price, separated by {@code ;} or {@code ,}. A header line is skipped. Prices which are not after the
+     * last price of the series are ignored, so loading the same dump again is a no-op.
+     *
+     * @param securityId the id of the security.
+     * @param csv the content of the dump.
+     * @return the number of appended prices.
+     * @throws IOException if the dump could not be read.
+     * @throws IllegalArgumentException if a line could not be parsed.
+     */
+    public long importCsv(long securityId, Reader csv) throws IOException {
+        Series prices = series(securityId);
+        BufferedReader reader = new BufferedReader(csv);
+        long appended = 0;
+        synchronized (prices) {
+            try {
+                String line;
+                long lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && !Character.isDigit(line.charAt(0)))) {
+                        continue;
+                    }
+                    String[] values = line.split("[;,]");
+                    if (values.length < 2) {
+                        throw new IllegalArgumentException("Invalid price on line " + lineNumber + ": " + line);
+                    }
+                    try {
+                        if (prices.write(parseTime(values[0].trim()), Double.parseDouble(values[1].trim()))) {
+                            appended++;
+                        }
+                    } catch (DateTimeParseException | NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid price on line " + lineNumber + ": " + line, e);
+                    }
+                }
+            } finally {
+                prices.publish();
+                if (appended > 0) {
+                    version.incrementAndGet();
+                }
+            }
+        }
+        log.debug("Appended {} prices to the history of Security {}", appended, securityId);
+        return appended;
+    }
+
+    /**
+     * Get the version of the prices, incremented after every append, so that the values computed from the prices can
+     * be cached until it changes.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the prices of a security in a time range.
+     *
+     * @param securityId the id of the security.
+     * @param from the start of the range, inclusive.
+     * @param to the end of the range, exclusive.
+     * @return the prices, read from the mapped segments.
+     */
+    public PriceRange getRange(long securityId, Instant from, Instant to) {
+        Series prices = series.get(securityId);
+        if (prices == null) {
+            Path seriesDirectory = seriesDirectory(securityId);
+            if (!Files.isDirectory(seriesDirectory)) {
+                return PriceRange.EMPTY;
+            }
+            prices = series(securityId);
+        }
+        return prices.view.range(from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Get the last price of a security.
+     *
+     * @param securityId the id of the security.
+     * @return the last price, or an empty range if the security has no prices.
+     */
+    public PriceRange getLast(long securityId) {
+        return getRange(securityId, Instant.ofEpochMilli(Long.MIN_VALUE), Instant.ofEpochMilli(Long.MAX_VALUE)).last();
+    }
+
+    @PreDestroy
+    public void close() {
+        series.values().forEach(Series::force);
+    }
+
+    private Series series(long securityId) {
+        return series.computeIfAbsent(securityId, id -> new Series(seriesDirectory(id)));
+    }
+
+    private Path seriesDirectory(long securityId) {
+        return directory.resolve(Long.toString(securityId));
+    }
+
+    private static long parseTime(String value) {
+        if (value.indexOf('T') < 0) {
+            return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+        return Instant.parse(value).toEpochMilli();
+    }
+
+    private static int capacity(MappedByteBuffer segment) {
+        return (segment.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private static int lowerBound(MappedByteBuffer buffer, int count, long time) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(HEADER_SIZE + middle * RECORD_SIZE) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The price series of one security. Writes are guarded by the series monitor.
+     */
+    private final class Series {
+
+        private final Path seriesDirectory;
+
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+        private int lastCount;
+
+        private long lastTime = Long.MIN_VALUE;
+
+        private volatile View view;
+
+        private Series(Path seriesDirectory) {
+            this.seriesDirectory = seriesDirectory;
+            if (Files.isDirectory(seriesDirectory)) {
+                try (Stream<Path> files = Files.list(seriesDirectory)) {
+                    for (Path file : files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX)).sorted().collect(Collectors.toList())) {
+                        segments.add(map(file, false));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (!segments.isEmpty()) {
+                MappedByteBuffer last = segments.get(segments.size() - 1);
+                lastCount = (int) last.getLong(0);
+                if (lastCount > 0) {
+                    lastTime = last.getLong(HEADER_SIZE + (lastCount - 1) * RECORD_SIZE);
+                }
+            }
+            publish();
+        }
+
+        private boolean write(long time, double close) {
+            if (time <= lastTime) {
+                return false;
+            }
+            if (segments.isEmpty() || lastCount == capacity(segments.get(segments.size() - 1))) {
+                try {
+                    Files.createDirectories(seriesDirectory);
+                    segments.add(map(seriesDirectory.resolve(String.format("%08d%s", segments.size(), SEGMENT_SUFFIX)), true));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                lastCount = 0;
+            }
+            MappedByteBuffer segment = segments.get(segments.size() - 1);
+            int offset = HEADER_SIZE + lastCount * RECORD_SIZE;
+            segment.putLong(offset, time);
+            segment.putDouble(offset + Long.BYTES, close);
+            lastCount++;
+            segment.putLong(0, lastCount);
+            lastTime = time;
+            return true;
+        }
+
+        private void publish() {
+            view = new View(segments.toArray(new MappedByteBuffer[0]), lastCount);
+        }
+
+        private void force() {
+            synchronized (this) {
+                segments.forEach(MappedByteBuffer::force);
+            }
+        }
+
+        private MappedByteBuffer map(Path file, boolean create) throws IOException {
+            StandardOpenOption[] options = create
+                ? new StandardOpenOption[] { StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE }
+                : new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE };
+            // The mapping stays valid once the channel is closed
+            try (FileChannel channel = FileChannel.open(file, options)) {
+                long size = create ? HEADER_SIZE + (long) segmentCapacity * RECORD_SIZE : channel.size();
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+    }
+
+    /**
+     * The segments of a series and the number of records of the last one, as published by the last write.
+     */
+    private static final class View {
+
+        private final MappedByteBuffer[] segments;
+
+        private final int lastCount;
+
+        private View(MappedByteBuffer[] segments, int lastCount) {
+            this.segments = segments;
+            this.lastCount = lastCount;
+        }
+
+        private PriceRange range(long from, long to) {
+            List<MappedByteBuffer> buffers = new ArrayList<>();
+            List<Integer> starts = new ArrayList<>();
+            List<Integer> ends = new ArrayList<>();
+            for (int i = 0; i < segments.length; i++) {
+                MappedByteBuffer segment = segments[i];
+                int count = i == segments.length - 1 ? lastCount : capacity(segment);
+                if (count == 0 || segment.getLong(HEADER_SIZE + (count - 1) * RECORD_SIZE) < from) {
+                    continue;
+                }
+                if (segment.getLong(HEADER_SIZE) >= to) {
+                    break;
+                }
+                int start = lowerBound(segment, count, from);
+                int end = lowerBound(segment, count, to);
+                if (start < end) {
+                    buffers.add(segment);
+                    starts.add(start);
+                    ends.add(end);
+                }
+            }
+            if (buffers.isEmpty()) {
+                return PriceRange.EMPTY;
+            }
+            return new PriceRange(
+                buffers.toArray(new MappedByteBuffer[0]),
+                starts.stream().mapToInt(Integer::intValue).toArray(),
+                ends.stream().mapToInt(Integer::intValue).toArray()
+            );
+        }
+    }
+
+    /**
+     * A range of prices, read from the mapped segments on access.
+     */
+    public static final class PriceRange {
+
+        static final PriceRange EMPTY = new PriceRange(new MappedByteBuffer[0], new int[0], new int[0]);
+
+        private final MappedByteBuffer[] segments;
+
+        private final int[] starts;
+
+        private final int[] offsets;
+
+        private final int size;
+
+        private PriceRange(MappedByteBuffer[] segments, int[] starts, int[] ends) {
+            this.segments = segments;
+            this.starts = starts;
+            this.offsets = new int[segments.length];
+            int total = 0;
+            for (int i = 0; i < segments.length; i++) {
+                offsets[i] = total;
+                total += ends[i] - starts[i];
+            }
+            this.size = total;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Get the last price of the range.
+         *
+         * @return a range holding the last price, or an empty range if this one is empty.
+         */
+        public PriceRange last() {
+            if (size == 0) {
+                return this;
+            }
+            int segment = segments.length - 1;
+            int end = starts[segment] + size - offsets[segment];
+            return new PriceRange(new MappedByteBuffer[] { segments[segment] }, new int[] { end - 1 }, new int[] { end });
+        }
+
+        public long getEpochMilli(int index) {
+            return segmentOf(index).getLong(recordOffset(index));
+        }
+
+        public Instant getTime(int index) {
+            return Instant.ofEpochMilli(getEpochMilli(index));
+        }
+
+        public double getClose(int index) {
+            return segmentOf(index).getDouble(recordOffset(index) + Long.BYTES);
+        }
+
+        private MappedByteBuffer segmentOf(int index) {
+            return segments[segmentIndex(index)];
+        }
+
+        private int recordOffset(int index) {
+            int segment = segmentIndex(index);
+            return HEADER_SIZE + (starts[segment] + index - offsets[segment]) * RECORD_SIZE;
+        }
+
+        private int segmentIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+            int segment = Arrays.binarySearch(offsets, index);
+            return segment >= 0 ? segment : -segment - 2;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package org.keyko.retirement.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.User;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.service.dto.PurchaseImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing purchases in bulk from a CSV file.
+ * <p>
+ * The file uses the layout of {@code config/liquibase/fake-data/purchase.csv}: a header line, then {@code ;}-separated
+ * values. The {@code price}, {@code currency}, {@code number} and {@code comission} columns are read, with an optional
+ * {@code trade_date} column in ISO format ({@code 2021-04-26}), and an optional {@code ticker} column links each
+ * purchase to a security; ids are always generated. The file is read as a stream and inserted in chunks, each in its
+ * own transaction, flushing every {@code hibernate.jdbc.batch_size} rows so that the inserts go out as JDBC batches.
+ */
+@Service
+public class PurchaseImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private static final String SEPARATOR = ";";
+
+    private final Logger log = LoggerFactory.getLogger(PurchaseImportService.class);
+
+    private final SecurityRepository securityRepository;
+
+    private final EntityManager entityManager;
+
+    private final PositionService positionService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public PurchaseImportService(
+        SecurityRepository securityRepository,
+        EntityManager entityManager,
+        PositionService positionService,
+        PlatformTransactionManager transactionManager,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.securityRepository = securityRepository;
+        this.entityManager = entityManager;
+        this.positionService = positionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import the purchases of a CSV file.
+     *
+     * @param csv the content of the file.
+     * @param ownerId the id of the user owning the purchases.
+     * @return the number of imported and rejected lines.
+     * @throws IOException if the file could not be read.
+     * @throws IllegalArgumentException if the file has no header, or a header without the mandatory columns.
+     */
+    public PurchaseImportResultDTO importCsv(InputStream csv, Long ownerId) throws IOException {
+        long start = System.nanoTime();
+        PurchaseImportResultDTO result = new PurchaseImportResultDTO();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        Columns columns = new Columns(reader.readLine());
+        Map<String, Optional<Long>> securityIdsByTicker = new HashMap<>();
+        List<ParsedLine> chunk = new ArrayList<>(CHUNK_SIZE);
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(parse(lineNumber, line, columns, securityIdsByTicker));
+            } catch (IllegalArgumentException e) {
+                reject(result, lineNumber, e.getMessage());
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                insert(chunk, ownerId, result);
+                chunk.clear();
+            }
+        }
+        insert(chunk, ownerId, result);
+        long durationNanos = System.nanoTime() - start;
+        result.setDurationMillis(durationNanos / 1_000_000);
+        result.setRowsPerSecond(durationNanos > 0 ? result.getImported() * 1e9 / durationNanos : 0d);
+        log.debug(
+            "Imported {} purchases, rejected {} lines, at {} rows/s",
+            result.getImported(),
+            result.getRejected(),
+            result.getRowsPerSecond()
+        );
+        return result;
+    }
+
+    private ParsedLine parse(long lineNumber, String line, Columns columns, Map<String, Optional<Long>> securityIdsByTicker) {
+        String[] values = line.split(SEPARATOR, -1);
+        Purchase purchase = new Purchase()
+            .price(parseFloat(columns.value(values, columns.price), "price"))
+            .currency(parseCurrency(columns.value(values, columns.currency)))
+            .number(parseInteger(columns.value(values, columns.number)))
+            .comission(parseFloat(columns.value(values, columns.comission), "comission"))
+            .tradeDate(parseDate(columns.value(values, columns.tradeDate)));
+        String ticker = columns.value(values, columns.ticker);
+        Long securityId = null;
+        if (ticker != null) {
+            securityId =
+                securityIdsByTicker
+                    .computeIfAbsent(ticker, key -> securityRepository.findFirstByTickerOrderByIdAsc(key).map(Security::getId))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown ticker " + ticker));
+        }
+        return new ParsedLine(lineNumber, purchase, securityId);
+    }
+
+    private void insert(List<ParsedLine> chunk, Long ownerId, PurchaseImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                    PositionService.Changes positionChanges = new PositionService.Changes();
+                    int pending = 0;
+                    for (ParsedLine parsedLine : chunk) {
+                        parsedLine.purchase.setOwner(entityManager.getReference(User.class, ownerId));
+                        if (parsedLine.securityId != null) {
+                            parsedLine.purchase.setSecurity(entityManager.getReference(Security.class, parsedLine.securityId));
+                        }
+                        entityManager.persist(parsedLine.purchase);
+                        positionChanges.add(parsedLine.purchase);
+                        if (++pending == batchSize) {
+                            entityManager.flush();
+                            entityManager.clear();
+                            pending = 0;
+                        }
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                    // One update per position touched by the chunk, rather than one per purchase
+                    positionService.apply(positionChanges);
+                }
+            );
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException | PersistenceException e) {
+            // The entity manager is used directly, so its exceptions are not translated to DataAccessException
+            log.warn(
+                "Could not import the purchases of lines {} to {}",
+                chunk.get(0).lineNumber,
+                chunk.get(chunk.size() - 1).lineNumber,
+                e
+            );
+            String reason = "Rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (ParsedLine parsedLine : chunk) {
+                reject(result, parsedLine.lineNumber, reason);
+            }
+        }
+    }
+
+    private static void reject(PurchaseImportResultDTO result, long lineNumber, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejectedLines().size() < MAX_REPORTED_REJECTIONS) {
+            result.getRejectedLines().add(new PurchaseImportResultDTO.RejectedLine(lineNumber, reason));
+        }
+    }
+
+    private static Float parseFloat(String value, String column) {
+        try {
+            return value != null ? Float.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value != null ? LocalDate.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid trade date " + value);
+        }
+    }
+
+    private static Currency parseCurrency(String value) {
+        try {
+            return value != null ? Currency.valueOf(value.toUpperCase(Locale.ROOT)) : null;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid currency " + value);
+        }
+    }
+
+    /**
+     * Positions of the known columns in the lines, as given by the header; -1 when absent.
+     */
+    private static final class Columns {
+
+        private final int price;
+        private final int currency;
+        private final int number;
+        private final int comission;
+        private final int tradeDate;
+        private final int ticker;
+
+        private Columns(String header) {
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            List<String> names = Arrays.asList(header.trim().toLowerCase(Locale.ROOT).split(SEPARATOR, -1));
+            this.price = names.indexOf("price");
+            this.currency = names.indexOf("currency");
+            this.number = names.indexOf("number");
+            this.comission = names.indexOf("comission");
+            this.tradeDate = names.indexOf("trade_date");
+            this.ticker = names.indexOf("ticker");
+            if (price < 0 || currency < 0 || number < 0 || comission < 0) {
+                throw new IllegalArgumentException("The header must name the price, currency, number and comission columns");
+            }
+        }
+
+        private String value(String[] values, int column) {
+            if (column < 0 || column >= values.length) {
+                return null;
+            }
+            String value = values[column].trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private static final class ParsedLine {
+
+        private final long lineNumber;
+        private final Purchase purchase;
+        private final Long securityId;
+
+        private ParsedLine(long lineNumber, Purchase purchase, Long securityId) {
+            this.lineNumber = lineNumber;
+            this.purchase = purchase;
+            this.securityId = securityId;
+        }
+    }
+}
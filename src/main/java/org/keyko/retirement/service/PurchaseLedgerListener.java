@@ -0,0 +1,134 @@
+package org.keyko.retirement.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.keyko.retirement.domain.Purchase;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener counting the versions of the purchase ledger of each owner: their purchases and the securities.
+ * <p>
+ * Each committed transaction writing to the ledger takes a new version, given to the owners of the purchases it wrote,
+ * or to all the owners when it wrote a security, so that the values computed from the ledger of an owner can be cached
+ * until it changes. It is only counted in this instance: the writes of other instances sharing the database are not
+ * seen, and the values cached from the ledger must expire.
+ */
+@Component
+public class PurchaseLedgerListener {
+
+    /**
+     * Number of owners with a version of their own above which they all take a new common version, to bound the memory
+     * used whatever the number of owners.
+     */
+    static final int MAX_OWNER_VERSIONS = 10_000;
+
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    /**
+     * Version of the ledgers of all the owners, taken by the writes to the securities.
+     */
+    private final AtomicLong commonVersion = new AtomicLong();
+
+    private final ConcurrentMap<Long, Long> ownerVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Get the version of the ledger of an owner.
+     *
+     * @param ownerId the id of the owner.
+     * @return the version, which only increases.
+     */
+    public long getVersion(Long ownerId) {
+        return Math.max(commonVersion.get(), ownerVersions.getOrDefault(ownerId, 0L));
+    }
+
+    /**
+     * Tell whether the current transaction has written to the ledger without committing yet, so that what it reads of
+     * the ledger is not the current version.
+     *
+     * @return {@code true} if the transaction has written to the ledger.
+     */
+    public boolean hasUncommittedWrites() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        Long ownerId = null;
+        if (entity instanceof Purchase && ((Purchase) entity).getOwner() != null) {
+            ownerId = ((Purchase) entity).getOwner().getId();
+        }
+        onLedgerWrite(ownerId);
+    }
+
+    /**
+     * Count a write to the ledger of an owner which the entity listeners do not see, such as a bulk statement.
+     *
+     * @param ownerId the id of the owner, or {@code null} when the write may concern all the owners.
+     */
+    public void onLedgerWrite(Long ownerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(ownerId == null ? null : Set.of(ownerId));
+            return;
+        }
+        // The first write of the transaction registers the increment, the others add their owner to it
+        Writes writes = (Writes) TransactionSynchronizationManager.getResource(this);
+        if (writes == null) {
+            writes = new Writes();
+            TransactionSynchronizationManager.bindResource(this, writes);
+            Writes registered = writes;
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        increment(registered.allOwners ? null : registered.ownerIds);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(PurchaseLedgerListener.this);
+                    }
+                }
+            );
+        }
+        if (ownerId == null) {
+            writes.allOwners = true;
+        } else {
+            writes.ownerIds.add(ownerId);
+        }
+    }
+
+    private void increment(Set<Long> ownerIds) {
+        long version = lastVersion.incrementAndGet();
+        if (ownerIds == null || ownerVersions.size() + ownerIds.size() > MAX_OWNER_VERSIONS) {
+            // The common version is raised before the versions of the owners are dropped, so none ever decreases
+            commonVersion.accumulateAndGet(version, Math::max);
+            if (ownerIds != null) {
+                ownerVersions.clear();
+            }
+            return;
+        }
+        for (Long ownerId : ownerIds) {
+            ownerVersions.merge(ownerId, version, Math::max);
+        }
+    }
+
+    /**
+     * The writes of a transaction to the ledger, counted when it commits.
+     */
+    private static final class Writes {
+
+        private final Set<Long> ownerIds = new HashSet<>();
+
+        private boolean allOwners;
+    }
+}
@@ -0,0 +1,336 @@
+package org.keyko.retirement.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import javax.annotation.PreDestroy;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.service.analytics.LogHistogram;
+import org.keyko.retirement.service.dto.PositionValuationDTO;
+import org.keyko.retirement.service.dto.SimulationRequestDTO;
+import org.keyko.retirement.service.dto.SimulationResultDTO;
+import org.keyko.retirement.service.dto.SimulationYearDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service projecting the value of the portfolio over the coming years, with a Monte Carlo simulation.
+ * <p>
+ * The portfolio is valued with the {@link ValuationService}, then split into asset classes per security type and
+ * region. Each class has the expected annual return and volatility of its security type, shifted by the return premium
+ * and scaled by the volatility factor of its region (see {@code application.simulation}). Each year of a path draws the
+ * log-normal return of every class, with a common market factor giving them the configured correlation, rebalances the
+ * portfolio to its current weights, then adds the annual contribution.
+ * <p>
+ * The paths are simulated in chunks on a dedicated fork-join pool. Each chunk keeps the values of its paths in a
+ * primitive array and draws from its own {@link SplittableRandom}, split from the one of its parent, so a seeded
+ * simulation gives the same result whatever the number of threads. The values of each year are counted in a
+ * {@link LogHistogram} per chunk, merged as the chunks are joined, so the memory used does not grow with the number of
+ * paths; the percentiles read from them are within 0.8% of the exact ones.
+ */
+@Service
+public class RetirementSimulationService {
+
+    private final Logger log = LoggerFactory.getLogger(RetirementSimulationService.class);
+
+    /**
+     * Paths simulated by each task. This does not depend on the number of threads, to keep seeded results repeatable.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Precision of the histograms of the values of each year, with 64 buckets per power of two.
+     */
+    static final int PRECISION = 6;
+
+    /**
+     * Ceiling of the simulated values, so that they and their sums stay finite whatever the value of the portfolio.
+     */
+    static final double MAX_VALUE = 1e300;
+
+    private final ApplicationProperties.Simulation properties;
+
+    private final ValuationService valuationService;
+
+    private final ForkJoinPool pool;
+
+    private final Timer simulationTimer;
+
+    public RetirementSimulationService(
+        ApplicationProperties applicationProperties,
+        ValuationService valuationService,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getSimulation();
+        this.valuationService = valuationService;
+        int parallelism = properties.getParallelism() != null ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, RetirementSimulationService::newWorkerThread, null, false);
+        new ExecutorServiceMetrics(pool, "simulation", Tags.empty()).bindTo(meterRegistry);
+        this.simulationTimer =
+            Timer
+                .builder("portfolio.simulation")
+                .description("Time taken to simulate the paths of a portfolio projection")
+                .register(meterRegistry);
+    }
+
+    private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("simulation-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Project the value of the current portfolio of an owner.
+     * <p>
+     * This is not transactional: the portfolio is valued in a transaction of its own, committed before the simulation
+     * starts, so that no connection is held while the paths are simulated.
+     *
+     * @param ownerId the id of the owner.
+     * @param request the parameters of the simulation.
+     * @return the distribution of the values at the end of each year.
+     */
+    public SimulationResultDTO simulate(Long ownerId, SimulationRequestDTO request) {
+        log.debug("Request to simulate the portfolio of {}: {}", ownerId, request);
+        return simulate(request, valuationService.getValuation(ownerId, request.getCurrency()).getPositions());
+    }
+
+    /**
+     * Project the value of a portfolio made of some positions.
+     *
+     * @param request the parameters of the simulation.
+     * @param positions the positions, valued in the currency of the simulation. When none has a market value, the
+     * contributions are invested with the default expected return and volatility.
+     * @return the distribution of the values at the end of each year.
+     */
+    public SimulationResultDTO simulate(SimulationRequestDTO request, List<PositionValuationDTO> positions) {
+        Model model = model(request, positions);
+        SplittableRandom random = request.getSeed() != null ? new SplittableRandom(request.getSeed()) : new SplittableRandom();
+        Outcome outcome = simulationTimer.record(() -> pool.invoke(new PathsTask(model, request.getPaths(), random)));
+
+        SimulationResultDTO result = new SimulationResultDTO();
+        result.setCurrency(request.getCurrency());
+        result.setPaths(request.getPaths());
+        result.setInitialValue(model.initialValue);
+        result.setAnnualContribution(model.contribution);
+        if (request.getTargetValue() != null) {
+            result.setTargetProbability((double) outcome.reached / request.getPaths());
+        }
+        LogHistogram start = new LogHistogram(PRECISION);
+        start.record(model.initialValue, request.getPaths());
+        result.getYears().add(describe(0, start, request));
+        for (int year = 1; year <= model.years; year++) {
+            result.getYears().add(describe(year, outcome.years[year - 1], request));
+        }
+        return result;
+    }
+
+    private static SimulationYearDTO describe(int year, LogHistogram values, SimulationRequestDTO request) {
+        SimulationYearDTO distribution = new SimulationYearDTO(year);
+        distribution.describe(values, request.isIncludeSketches());
+        return distribution;
+    }
+
+    private Model model(SimulationRequestDTO request, List<PositionValuationDTO> positions) {
+        // The value of each asset class, keyed by security type and region
+        Map<List<Object>, double[]> values = new LinkedHashMap<>();
+        double initialValue = 0;
+        for (PositionValuationDTO position : positions) {
+            if (position.getMarketValue() > 0) {
+                double[] value = values.computeIfAbsent(Arrays.asList(position.getType(), position.getRegion()), key -> new double[1]);
+                value[0] += position.getMarketValue();
+                initialValue += position.getMarketValue();
+            }
+        }
+        if (values.isEmpty()) {
+            values.put(Arrays.asList(null, null), new double[] { 1 });
+        }
+
+        Model model = new Model();
+        model.years = request.getYears();
+        model.initialValue = Math.min(initialValue, MAX_VALUE);
+        model.contribution = request.getAnnualContribution();
+        model.target = request.getTargetValue() != null ? request.getTargetValue() : Double.NaN;
+        model.weights = new double[values.size()];
+        model.drifts = new double[values.size()];
+        model.volatilities = new double[values.size()];
+        model.loading = Math.sqrt(properties.getCorrelation());
+        model.idiosyncratic = Math.sqrt(1 - properties.getCorrelation());
+        double total = initialValue > 0 ? initialValue : 1;
+        int i = 0;
+        for (Map.Entry<List<Object>, double[]> assetClass : values.entrySet()) {
+            ApplicationProperties.Simulation.Assumption assumption = properties
+                .getTypes()
+                .getOrDefault(assetClass.getKey().get(0), new ApplicationProperties.Simulation.Assumption());
+            ApplicationProperties.Simulation.RegionAdjustment adjustment = properties
+                .getRegions()
+                .getOrDefault(assetClass.getKey().get(1), new ApplicationProperties.Simulation.RegionAdjustment());
+            double expectedReturn = assumption.getExpectedReturn() + adjustment.getReturnPremium();
+            double volatility = assumption.getVolatility() * adjustment.getVolatilityFactor();
+            model.weights[i] = assetClass.getValue()[0] / total;
+            // The log-normal drift giving this expected arithmetic return
+            model.drifts[i] = Math.log1p(expectedReturn) - volatility * volatility / 2;
+            model.volatilities[i] = volatility;
+            i++;
+        }
+        return model;
+    }
+
+    /**
+     * The parameters of a simulation, shared by all its tasks.
+     */
+    private static final class Model {
+
+        private int years;
+
+        private double initialValue;
+
+        private double contribution;
+
+        private double target;
+
+        private double[] weights;
+
+        private double[] drifts;
+
+        private double[] volatilities;
+
+        private double loading;
+
+        private double idiosyncratic;
+    }
+
+    /**
+     * The simulation of some paths, split in two tasks until they have at most {@link #CHUNK_SIZE} paths.
+     */
+    private static final class PathsTask extends RecursiveTask<Outcome> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Model model;
+
+        private final int paths;
+
+        private final SplittableRandom random;
+
+        private boolean hasSpareGaussian;
+
+        private double spareGaussian;
+
+        PathsTask(Model model, int paths, SplittableRandom random) {
+            this.model = model;
+            this.paths = paths;
+            this.random = random;
+        }
+
+        @Override
+        protected Outcome compute() {
+            if (paths <= CHUNK_SIZE) {
+                return simulate();
+            }
+            int half = paths / 2;
+            PathsTask left = new PathsTask(model, half, random.split());
+            PathsTask right = new PathsTask(model, paths - half, random);
+            left.fork();
+            Outcome outcome = right.compute();
+            return outcome.merge(left.join());
+        }
+
+        private Outcome simulate() {
+            double[] weights = model.weights;
+            double[] drifts = model.drifts;
+            double[] volatilities = model.volatilities;
+            double[] values = new double[paths];
+            Arrays.fill(values, model.initialValue);
+            Outcome outcome = new Outcome(model.years);
+            for (int year = 1; year <= model.years; year++) {
+                LogHistogram histogram = outcome.years[year - 1];
+                for (int path = 0; path < paths; path++) {
+                    double market = nextGaussian();
+                    double growth;
+                    if (weights.length == 1) {
+                        growth = Math.exp(drifts[0] + volatilities[0] * market);
+                    } else {
+                        growth = 0;
+                        for (int i = 0; i < weights.length; i++) {
+                            double shock = model.loading * market + model.idiosyncratic * nextGaussian();
+                            growth += weights[i] * Math.exp(drifts[i] + volatilities[i] * shock);
+                        }
+                    }
+                    double value = values[path] * growth + model.contribution;
+                    // Not a number only when an infinite growth meets an exhausted path
+                    value = value > 0 ? Math.min(value, MAX_VALUE) : 0;
+                    values[path] = value;
+                    histogram.record(value);
+                }
+            }
+            for (double value : values) {
+                if (value >= model.target) {
+                    outcome.reached++;
+                }
+            }
+            return outcome;
+        }
+
+        /**
+         * Draw a standard normal value with the polar method, which draws them in pairs.
+         */
+        private double nextGaussian() {
+            if (hasSpareGaussian) {
+                hasSpareGaussian = false;
+                return spareGaussian;
+            }
+            double u;
+            double v;
+            double s;
+            do {
+                u = 2 * random.nextDouble() - 1;
+                v = 2 * random.nextDouble() - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double scale = Math.sqrt(-2 * Math.log(s) / s);
+            spareGaussian = v * scale;
+            hasSpareGaussian = true;
+            return u * scale;
+        }
+    }
+
+    /**
+     * The values of each year of some paths, and the number of them reaching the target.
+     */
+    private static final class Outcome {
+
+        private final LogHistogram[] years;
+
+        private long reached;
+
+        Outcome(int years) {
+            this.years = new LogHistogram[years];
+            for (int year = 0; year < years; year++) {
+                this.years[year] = new LogHistogram(PRECISION);
+            }
+        }
+
+        Outcome merge(Outcome other) {
+            for (int year = 0; year < years.length; year++) {
+                years[year].merge(other.years[year]);
+            }
+            reached += other.reached;
+            return this;
+        }
+    }
+}
@@ -1,27 +1,39 @@
 package org.keyko.retirement.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.keyko.retirement.config.Constants;
+import org.keyko.retirement.config.ReplicaRoutingDataSource;
 import org.keyko.retirement.domain.Authority;
 import org.keyko.retirement.domain.User;
 import org.keyko.retirement.repository.AuthorityRepository;
+import org.keyko.retirement.repository.PositionRepository;
+import org.keyko.retirement.repository.PurchaseRepository;
 import org.keyko.retirement.repository.UserRepository;
 import org.keyko.retirement.security.AuthoritiesConstants;
 import org.keyko.retirement.security.SecurityUtils;
 import org.keyko.retirement.service.dto.AdminUserDTO;
 import org.keyko.retirement.service.dto.UserDTO;
+import org.keyko.retirement.service.dto.UserKeyView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -31,6 +43,8 @@ import tech.jhipster.security.RandomUtil;
 @Transactional
 public class UserService {
 
+    private static final int REMOVAL_CHUNK_SIZE = 500;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -39,18 +53,54 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
+    private final PurchaseRepository purchaseRepository;
+
+    private final PositionRepository positionRepository;
+
+    private final PositionSnapshotListener positionSnapshotListener;
+
+    private final PurchaseLedgerListener purchaseLedgerListener;
+
     private final CacheManager cacheManager;
 
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer removalTimer;
+
+    private final Counter removedCounter;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        PurchaseRepository purchaseRepository,
+        PositionRepository positionRepository,
+        PositionSnapshotListener positionSnapshotListener,
+        PurchaseLedgerListener purchaseLedgerListener,
+        CacheManager cacheManager,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.positionRepository = positionRepository;
+        this.positionSnapshotListener = positionSnapshotListener;
+        this.purchaseLedgerListener = purchaseLedgerListener;
         this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.removalTimer =
+            Timer
+                .builder("users.not.activated.removal")
+                .description("Time taken to delete the not activated users")
+                .register(meterRegistry);
+        this.removedCounter =
+            Counter
+                .builder("users.not.activated.removed")
+                .description("Number of not activated users deleted")
+                .baseUnit("users")
+                .register(meterRegistry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -230,11 +280,21 @@ public class UserService {
             .map(AdminUserDTO::new);
     }
 
+    /**
+     * Delete a user, with their purchases and positions.
+     *
+     * @param login the login of the user.
+     */
     public void deleteUser(String login) {
         userRepository
             .findOneByLogin(login)
             .ifPresent(
                 user -> {
+                    // The bulk statements are not seen by the entity listeners, which are told about them
+                    purchaseRepository.deleteAllByOwnerId(user.getId());
+                    positionRepository.deleteAllByOwnerId(user.getId());
+                    positionSnapshotListener.onBulkWrite();
+                    purchaseLedgerListener.onLedgerWrite(user.getId());
                     userRepository.delete(user);
                     this.clearUserCaches(user);
                     log.debug("Deleted User: {}", user);
@@ -299,32 +359,97 @@ public class UserService {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    /**
+     * Get a user with their authorities, from the users cached by login. The cache is filled from the primary.
+     *
+     * @param login the login of the user.
+     * @return the user, or empty if the login has no user.
+     */
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
-        return userRepository.findOneWithAuthoritiesByLogin(login);
+        return ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findOneWithAuthoritiesByLogin(login));
     }
 
+    /**
+     * Get the current user with their authorities, from the users cached by login. The cache is filled from the primary.
+     *
+     * @return the user, or empty if nobody is logged in or the login has no user.
+     */
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthorities() {
-        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
+        return SecurityUtils.getCurrentUserLogin().flatMap(this::getUserWithAuthoritiesByLogin);
+    }
+
+    /**
+     * Get the id of the current user, from the users cached by login.
+     *
+     * @return the id, or empty if nobody is logged in or the login has no user.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getCurrentUserId() {
+        return getUserWithAuthorities().map(User::getId);
     }
 
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am). The users are deleted in chunks of
+     * {@value #REMOVAL_CHUNK_SIZE}, each in its own transaction when none is already active, with one statement per
+     * table.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(
-                user -> {
-                    log.debug("Deleting not activated user {}", user.getLogin());
-                    userRepository.delete(user);
-                    this.clearUserCaches(user);
-                }
-            );
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        removalTimer.record(
+            () -> {
+                long removed = 0;
+                Long afterId = 0L;
+                List<UserKeyView> chunk;
+                do {
+                    Long lastId = afterId;
+                    chunk =
+                        transactionTemplate.execute(
+                            status -> {
+                                List<UserKeyView> users = userRepository.findNotActivatedKeysCreatedBefore(
+                                    createdBefore,
+                                    lastId,
+                                    PageRequest.of(0, REMOVAL_CHUNK_SIZE)
+                                );
+                                removeUsers(users);
+                                return users;
+                            }
+                        );
+                    if (!chunk.isEmpty()) {
+                        afterId = chunk.get(chunk.size() - 1).getId();
+                        removed += chunk.size();
+                        removedCounter.increment(chunk.size());
+                        log.debug("Deleted {} not activated users so far", removed);
+                    }
+                } while (chunk.size() == REMOVAL_CHUNK_SIZE);
+                log.info("Deleted {} not activated users created before {}", removed, createdBefore);
+            }
+        );
+    }
+
+    private void removeUsers(List<UserKeyView> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(users.size());
+        Set<Object> logins = new HashSet<>();
+        Set<Object> emails = new HashSet<>();
+        for (UserKeyView user : users) {
+            ids.add(user.getId());
+            logins.add(user.getLogin());
+            if (user.getEmail() != null) {
+                emails.add(user.getEmail());
+            }
+        }
+        userRepository.deleteAuthoritiesByUserIdIn(ids);
+        userRepository.deleteAllByIdIn(ids);
+        evictAll(UserRepository.USERS_BY_LOGIN_CACHE, logins);
+        evictAll(UserRepository.USERS_BY_EMAIL_CACHE, emails);
     }
 
     /**
@@ -336,6 +461,19 @@ public class UserService {
         return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
     }
 
+    @SuppressWarnings("unchecked")
+    private void evictAll(String cacheName, Set<Object> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+        if (cache.getNativeCache() instanceof javax.cache.Cache) {
+            ((javax.cache.Cache<Object, Object>) cache.getNativeCache()).removeAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+
     private void clearUserCaches(User user) {
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
         if (user.getEmail() != null) {
@@ -0,0 +1,83 @@
+package org.keyko.retirement.service;
+
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.PositionRepository;
+import org.keyko.retirement.service.dto.PositionSummaryDTO;
+import org.keyko.retirement.service.dto.PositionValuationDTO;
+import org.keyko.retirement.service.dto.ValuationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service valuing the portfolio at market prices in a reporting currency.
+ * <p>
+ * Each position, per security and currency, is valued at the last close price of its security in the
+ * {@link PriceHistoryStore}, taken to be quoted in the currency of the position, then converted with the
+ * {@link FxRateService} rates. A position without any price is valued at its cost.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ValuationService {
+
+    private final Logger log = LoggerFactory.getLogger(ValuationService.class);
+
+    private final PositionRepository positionRepository;
+
+    private final PriceHistoryStore priceHistoryStore;
+
+    private final FxRateService fxRateService;
+
+    public ValuationService(PositionRepository positionRepository, PriceHistoryStore priceHistoryStore, FxRateService fxRateService) {
+        this.positionRepository = positionRepository;
+        this.priceHistoryStore = priceHistoryStore;
+        this.fxRateService = fxRateService;
+    }
+
+    /**
+     * Value the portfolio of an owner.
+     *
+     * @param ownerId the id of the owner.
+     * @param reportingCurrency the currency of the values.
+     * @return the value of each position and of the whole portfolio.
+     */
+    public ValuationDTO getValuation(Long ownerId, Currency reportingCurrency) {
+        log.debug("Request to value the portfolio of {} in {}", ownerId, reportingCurrency);
+        // All the positions are converted with the same snapshot, even if the rates are refreshed meanwhile
+        FxRateService.FxRates rates = fxRateService.getRates();
+        ValuationDTO valuation = new ValuationDTO();
+        valuation.setCurrency(reportingCurrency);
+        valuation.setRatesLoadedAt(rates.getLoadedAt());
+        for (PositionSummaryDTO position : positionRepository.summarizeByOwnerId(ownerId)) {
+            PositionValuationDTO positionValuation = value(position, rates, reportingCurrency);
+            valuation.getPositions().add(positionValuation);
+            valuation.setCost(valuation.getCost() + positionValuation.getCost());
+            valuation.setMarketValue(valuation.getMarketValue() + positionValuation.getMarketValue());
+        }
+        return valuation;
+    }
+
+    private PositionValuationDTO value(PositionSummaryDTO position, FxRateService.FxRates rates, Currency reportingCurrency) {
+        PositionValuationDTO valuation = new PositionValuationDTO();
+        valuation.setSecurityId(position.getSecurityId());
+        valuation.setTicker(position.getTicker());
+        valuation.setName(position.getName());
+        valuation.setType(position.getType());
+        valuation.setRegion(position.getRegion());
+        valuation.setCurrency(position.getCurrency());
+        valuation.setQuantity(position.getQuantity());
+        double cost = rates.convert(position.getTotalCost(), position.getCurrency(), reportingCurrency);
+        valuation.setCost(cost);
+        PriceHistoryStore.PriceRange last = priceHistoryStore.getLast(position.getSecurityId());
+        if (last.size() == 0) {
+            valuation.setMarketValue(cost);
+            return valuation;
+        }
+        valuation.setPriced(true);
+        valuation.setLastPrice(last.getClose(0));
+        valuation.setLastPriceTime(last.getTime(0));
+        valuation.setMarketValue(rates.convert(last.getClose(0) * position.getQuantity(), position.getCurrency(), reportingCurrency));
+        return valuation;
+    }
+}
@@ -0,0 +1,375 @@
+package org.keyko.retirement.service.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A mergeable histogram of non-negative values, in logarithmic buckets of bounded relative width, as in HdrHistogram.
+ * <p>
+ * Each power of two is split into {@code 2^precision} buckets, found from the exponent and the top bits of the mantissa
+ * of a value, so recording takes no logarithm. A quantile is read as the middle of its bucket, which is within
+ * {@link #getRelativeError()} of the recorded value. Zero, and the values too small to be normal doubles, are counted
+ * apart. The buckets of a power of two are only allocated on the first value in it, so the memory used depends on the
+ * range of the values, not on their count.
+ * <p>
+ * A histogram is not thread-safe: parallel workers each fill their own, then {@link #merge(LogHistogram)} them. The
+ * histograms are serialized with {@link #toByteArray()} to a compact form listing only the non-empty buckets, which
+ * {@link #fromByteArray(byte[])} reads back, to be merged or queried elsewhere.
+ */
+public final class LogHistogram {
+
+    public static final int MIN_PRECISION = 1;
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final byte FORMAT = 1;
+
+    private static final int MANTISSA_BITS = 52;
+
+    private static final int EXPONENT_BIAS = 1023;
+
+    private final int precision;
+
+    private final int bucketsPerOctave;
+
+    /**
+     * The counts of the buckets of each power of two, from {@code 2^offset}, or {@code null} when it has no value.
+     */
+    private long[][] octaves = new long[0][];
+
+    private int offset;
+
+    private long zeros;
+
+    private long count;
+
+    private double sum;
+
+    private double min = Double.NaN;
+
+    private double max = Double.NaN;
+
+    /**
+     * Create an empty histogram.
+     *
+     * @param precision the number of mantissa bits telling the buckets apart, between {@link #MIN_PRECISION} and
+     * {@link #MAX_PRECISION}: each power of two has {@code 2^precision} buckets.
+     */
+    public LogHistogram(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid precision: " + precision);
+        }
+        this.precision = precision;
+        this.bucketsPerOctave = 1 << precision;
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param value the value.
+     * @throws IllegalArgumentException if the value is negative, infinite or not a number.
+     */
+    public void record(double value) {
+        record(value, 1);
+    }
+
+    /**
+     * Record a value several times.
+     *
+     * @param value the value.
+     * @param times the number of times to record it.
+     * @throws IllegalArgumentException if the value is negative, infinite or not a number, or the number of times is
+     * negative.
+     */
+    public void record(double value, long times) {
+        if (!(value >= 0) || value == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Cannot record " + value);
+        }
+        if (times < 0) {
+            throw new IllegalArgumentException("Cannot record a value " + times + " times");
+        }
+        if (times == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count += times;
+        sum += value * times;
+        if (value < Double.MIN_NORMAL) {
+            zeros += times;
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) (bits >>> MANTISSA_BITS) - EXPONENT_BIAS;
+        int bucket = (int) (bits >>> (MANTISSA_BITS - precision)) & (bucketsPerOctave - 1);
+        octave(exponent)[bucket] += times;
+    }
+
+    /**
+     * Add the values of another histogram to this one.
+     *
+     * @param other the other histogram, which is left unchanged.
+     * @return this histogram.
+     * @throws IllegalArgumentException if the histograms do not have the same precision.
+     */
+    public LogHistogram merge(LogHistogram other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge a histogram of precision " + other.precision + " into one of " + precision);
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        for (int i = 0; i < other.octaves.length; i++) {
+            long[] otherBuckets = other.octaves[i];
+            if (otherBuckets == null) {
+                continue;
+            }
+            long[] buckets = octave(other.offset + i);
+            for (int bucket = 0; bucket < bucketsPerOctave; bucket++) {
+                buckets[bucket] += otherBuckets[bucket];
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        zeros += other.zeros;
+        count += other.count;
+        sum += other.sum;
+        return this;
+    }
+
+    /**
+     * Get the value below which a share of the recorded values fall.
+     *
+     * @param share the share of the values, between 0 and 1.
+     * @return the value, as the middle of its bucket kept between the minimum and the maximum, or {@link Double#NaN}
+     * when the histogram is empty.
+     */
+    public double quantile(double share) {
+        if (!(share >= 0 && share <= 1)) {
+            throw new IllegalArgumentException("Invalid share: " + share);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(share * count));
+        long seen = zeros;
+        if (seen >= rank) {
+            return min;
+        }
+        for (int i = 0; i < octaves.length; i++) {
+            long[] buckets = octaves[i];
+            if (buckets == null) {
+                continue;
+            }
+            for (int bucket = 0; bucket < bucketsPerOctave; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    double middle = Math.scalb(1 + (bucket + 0.5) / bucketsPerOctave, offset + i);
+                    return Math.min(Math.max(middle, min), max);
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get the largest relative difference between a quantile and the recorded value it stands for.
+     *
+     * @return the relative error, {@code 2^-(precision + 1)}.
+     */
+    public double getRelativeError() {
+        return Math.scalb(1.0, -(precision + 1));
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the mean of the recorded values.
+     *
+     * @return the mean, or {@link Double#NaN} when the histogram is empty.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Get the smallest recorded value.
+     *
+     * @return the value, or {@link Double#NaN} when the histogram is empty.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the largest recorded value.
+     *
+     * @return the value, or {@link Double#NaN} when the histogram is empty.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Serialize this histogram: a format byte, the precision, the count of zeros, the minimum, maximum and sum, then
+     * the index of the first power of two and the non-empty buckets, each as its distance from the previous one and
+     * its count. The integers are written as variable-length quantities, as in protocol buffers.
+     *
+     * @return the serialized histogram.
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT);
+        out.write(precision);
+        writeVarLong(out, zeros);
+        writeDouble(out, min);
+        writeDouble(out, max);
+        writeDouble(out, sum);
+        writeVarLong(out, zigZag(offset));
+        int nonEmpty = 0;
+        for (long[] buckets : octaves) {
+            if (buckets != null) {
+                for (long bucketCount : buckets) {
+                    if (bucketCount != 0) {
+                        nonEmpty++;
+                    }
+                }
+            }
+        }
+        writeVarLong(out, nonEmpty);
+        long previous = -1;
+        for (int i = 0; i < octaves.length; i++) {
+            long[] buckets = octaves[i];
+            if (buckets == null) {
+                continue;
+            }
+            for (int bucket = 0; bucket < bucketsPerOctave; bucket++) {
+                if (buckets[bucket] != 0) {
+                    long index = (long) i * bucketsPerOctave + bucket;
+                    writeVarLong(out, index - previous - 1);
+                    writeVarLong(out, buckets[bucket]);
+                    previous = index;
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Read a histogram serialized with {@link #toByteArray()}.
+     *
+     * @param bytes the serialized histogram.
+     * @return the histogram.
+     * @throws IllegalArgumentException if the bytes are not a serialized histogram.
+     */
+    public static LogHistogram fromByteArray(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            byte format = in.get();
+            if (format != FORMAT) {
+                throw new IllegalArgumentException("Unknown histogram format: " + format);
+            }
+            LogHistogram histogram = new LogHistogram(in.get());
+            histogram.zeros = readVarLong(in);
+            histogram.min = in.getDouble();
+            histogram.max = in.getDouble();
+            histogram.sum = in.getDouble();
+            long offset = unZigZag(readVarLong(in));
+            long nonEmpty = readVarLong(in);
+            long count = histogram.zeros;
+            long index = -1;
+            for (long i = 0; i < nonEmpty; i++) {
+                index += readVarLong(in) + 1;
+                long bucketCount = readVarLong(in);
+                if (bucketCount <= 0) {
+                    throw new IllegalArgumentException("Invalid bucket count: " + bucketCount);
+                }
+                long exponent = offset + index / histogram.bucketsPerOctave;
+                if (exponent < Double.MIN_EXPONENT || exponent > Double.MAX_EXPONENT) {
+                    throw new IllegalArgumentException("Invalid bucket index: " + index);
+                }
+                histogram.octave((int) exponent)[(int) (index % histogram.bucketsPerOctave)] = bucketCount;
+                count += bucketCount;
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected bytes after the histogram");
+            }
+            histogram.count = count;
+            return histogram;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated histogram", e);
+        }
+    }
+
+    private long[] octave(int exponent) {
+        if (octaves.length == 0) {
+            octaves = new long[1][];
+            offset = exponent;
+        } else if (exponent < offset) {
+            long[][] grown = new long[octaves.length + offset - exponent][];
+            System.arraycopy(octaves, 0, grown, offset - exponent, octaves.length);
+            octaves = grown;
+            offset = exponent;
+        } else if (exponent >= offset + octaves.length) {
+            octaves = Arrays.copyOf(octaves, exponent - offset + 1);
+        }
+        long[] buckets = octaves[exponent - offset];
+        if (buckets == null) {
+            buckets = new long[bucketsPerOctave];
+            octaves[exponent - offset] = buckets;
+        }
+        return buckets;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer");
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+}
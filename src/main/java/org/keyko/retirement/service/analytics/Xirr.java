@@ -0,0 +1,212 @@
+package org.keyko.retirement.service.analytics;
+
+/**
+ * Solver of the internal rate of return of dated cash flows, as the {@code XIRR} function of spreadsheets.
+ * <p>
+ * The annual rate {@code r} is the root of the net present value {@code sum(amount * (1 + r)^-years)}, the years being
+ * counted from the first flow in days over 365. It is solved for {@code x = ln(1 + r)} instead, where the net present
+ * value {@code sum(amount * exp(-years * x))} is smooth over all the real numbers, so the rate can never step below
+ * -100%. Newton's method is tried first, from a guess given by the ratio of the amounts received to the amounts
+ * invested; when it does not converge, a change of sign is searched outwards from the guess, then narrowed with
+ * Brent's method, which always converges once the root is bracketed.
+ * <p>
+ * The flows are read from primitive arrays, which the callers can reuse from one solve to the next.
+ */
+public final class Xirr {
+
+    public static final double DAYS_PER_YEAR = 365;
+
+    /**
+     * Bound of {@code |ln(1 + r)|}, for rates between -99.995% and 2,202,546%.
+     */
+    static final double MAX_LOG_RATE = 10;
+
+    private static final double TOLERANCE = 1e-12;
+
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+
+    private static final int MAX_BRENT_ITERATIONS = 200;
+
+    private Xirr() {}
+
+    /**
+     * Solve the annual internal rate of return of some flows.
+     *
+     * @param amounts the amounts of the flows: negative when invested, positive when received.
+     * @param days the dates of the flows, as days from any origin, such as {@link java.time.LocalDate#toEpochDay()}.
+     * @param count the number of flows, read from the start of the arrays.
+     * @return the rate, such as {@code 0.05} for 5% a year, or {@link Double#NaN} when the flows do not both invest and
+     * receive amounts, or have no rate within the bounds.
+     * @throws IllegalArgumentException if the arrays have fewer flows than the count, or an amount is not finite.
+     */
+    public static double solve(double[] amounts, long[] days, int count) {
+        if (count < 0 || count > amounts.length || count > days.length) {
+            throw new IllegalArgumentException("Invalid number of flows: " + count);
+        }
+        long first = Long.MAX_VALUE;
+        boolean invests = false;
+        boolean receives = false;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isFinite(amounts[i])) {
+                throw new IllegalArgumentException("Invalid amount: " + amounts[i]);
+            }
+            first = Math.min(first, days[i]);
+            invests |= amounts[i] < 0;
+            receives |= amounts[i] > 0;
+        }
+        if (!invests || !receives) {
+            return Double.NaN;
+        }
+
+        double[] years = new double[count];
+        double invested = 0;
+        double investedYears = 0;
+        double received = 0;
+        double receivedYears = 0;
+        for (int i = 0; i < count; i++) {
+            years[i] = (days[i] - first) / DAYS_PER_YEAR;
+            if (amounts[i] < 0) {
+                invested -= amounts[i];
+                investedYears -= amounts[i] * years[i];
+            } else {
+                received += amounts[i];
+                receivedYears += amounts[i] * years[i];
+            }
+        }
+        // The rate growing the invested amounts into the received ones over the time between their mean dates
+        double duration = receivedYears / received - investedYears / invested;
+        double guess = Math.abs(duration) > 1 / DAYS_PER_YEAR ? Math.log(received / invested) / duration : 0;
+        guess = Math.max(-MAX_LOG_RATE, Math.min(MAX_LOG_RATE, guess));
+
+        double x = newton(amounts, years, count, guess);
+        if (Double.isNaN(x)) {
+            x = brent(amounts, years, count, guess);
+        }
+        return Double.isNaN(x) ? Double.NaN : Math.expm1(x);
+    }
+
+    private static double newton(double[] amounts, double[] years, int count, double guess) {
+        double x = guess;
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; iteration++) {
+            double value = 0;
+            double derivative = 0;
+            for (int i = 0; i < count; i++) {
+                double discounted = amounts[i] * Math.exp(-years[i] * x);
+                value += discounted;
+                derivative -= years[i] * discounted;
+            }
+            if (!Double.isFinite(value) || !Double.isFinite(derivative) || derivative == 0) {
+                return Double.NaN;
+            }
+            double next = x - value / derivative;
+            if (!(Math.abs(next) <= MAX_LOG_RATE)) {
+                return Double.NaN;
+            }
+            if (Math.abs(next - x) <= TOLERANCE * Math.max(1, Math.abs(next))) {
+                return next;
+            }
+            x = next;
+        }
+        return Double.NaN;
+    }
+
+    private static double brent(double[] amounts, double[] years, int count, double guess) {
+        double a = guess;
+        double fa = presentValue(amounts, years, count, a);
+        if (fa == 0) {
+            return a;
+        }
+        if (!Double.isFinite(fa)) {
+            return Double.NaN;
+        }
+        // Widen a bracket around the guess until one of its sides changes sign
+        double b = Double.NaN;
+        double fb = Double.NaN;
+        for (double step = 0.05; Double.isNaN(b) && step < 4 * MAX_LOG_RATE; step *= 2) {
+            double lower = Math.max(guess - step, -MAX_LOG_RATE);
+            double fLower = presentValue(amounts, years, count, lower);
+            double upper = Math.min(guess + step, MAX_LOG_RATE);
+            double fUpper = presentValue(amounts, years, count, upper);
+            if (Double.isFinite(fLower) && Math.signum(fLower) != Math.signum(fa)) {
+                b = lower;
+                fb = fLower;
+            } else if (Double.isFinite(fUpper) && Math.signum(fUpper) != Math.signum(fa)) {
+                b = upper;
+                fb = fUpper;
+            }
+        }
+        if (Double.isNaN(b)) {
+            return Double.NaN;
+        }
+
+        // Brent's method, as in Numerical Recipes: b is the best estimate, and the root is between b and c
+        double c = b;
+        double fc = fb;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < MAX_BRENT_ITERATIONS; iteration++) {
+            if (Math.signum(fb) == Math.signum(fc)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * Math.ulp(1.0) * Math.abs(b) + TOLERANCE / 2;
+            double middle = (c - b) / 2;
+            if (Math.abs(middle) <= tolerance || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Inverse quadratic interpolation, or the secant when only two points are known
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * middle * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                d = middle;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+            fb = presentValue(amounts, years, count, b);
+        }
+        return Double.NaN;
+    }
+
+    private static double presentValue(double[] amounts, double[] years, int count, double x) {
+        double value = 0;
+        for (int i = 0; i < count; i++) {
+            value += amounts[i] * Math.exp(-years[i] * x);
+        }
+        return value;
+    }
+}
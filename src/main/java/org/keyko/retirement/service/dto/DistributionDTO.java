@@ -0,0 +1,154 @@
+package org.keyko.retirement.service.dto;
+
+import org.keyko.retirement.service.analytics.LogHistogram;
+
+/**
+ * A DTO representing the distribution of a set of values, read from a {@link LogHistogram}.
+ */
+public class DistributionDTO {
+
+    private long count;
+
+    private Double mean;
+
+    private Double min;
+
+    private Double max;
+
+    private Double p5;
+
+    private Double p25;
+
+    private Double p50;
+
+    private Double p75;
+
+    private Double p95;
+
+    private byte[] sketch;
+
+    /**
+     * Describe the values of a histogram.
+     *
+     * @param histogram the histogram.
+     * @param includeSketch whether to include the serialized histogram, to be merged or queried by the client.
+     * @return this distribution.
+     */
+    public DistributionDTO describe(LogHistogram histogram, boolean includeSketch) {
+        this.count = histogram.getCount();
+        if (count > 0) {
+            this.mean = histogram.getMean();
+            this.min = histogram.getMin();
+            this.max = histogram.getMax();
+            this.p5 = histogram.quantile(0.05);
+            this.p25 = histogram.quantile(0.25);
+            this.p50 = histogram.quantile(0.5);
+            this.p75 = histogram.quantile(0.75);
+            this.p95 = histogram.quantile(0.95);
+        }
+        this.sketch = includeSketch ? histogram.toByteArray() : null;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Double getMean() {
+        return mean;
+    }
+
+    public void setMean(Double mean) {
+        this.mean = mean;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public Double getP5() {
+        return p5;
+    }
+
+    public void setP5(Double p5) {
+        this.p5 = p5;
+    }
+
+    public Double getP25() {
+        return p25;
+    }
+
+    public void setP25(Double p25) {
+        this.p25 = p25;
+    }
+
+    public Double getP50() {
+        return p50;
+    }
+
+    public void setP50(Double p50) {
+        this.p50 = p50;
+    }
+
+    public Double getP75() {
+        return p75;
+    }
+
+    public void setP75(Double p75) {
+        this.p75 = p75;
+    }
+
+    public Double getP95() {
+        return p95;
+    }
+
+    public void setP95(Double p95) {
+        this.p95 = p95;
+    }
+
+    /**
+     * Get the histogram of the values, serialized with {@link LogHistogram#toByteArray()}, which is written as Base64
+     * in JSON.
+     *
+     * @return the serialized histogram, or {@code null} when it was not requested.
+     */
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DistributionDTO{" +
+            "count=" + count +
+            ", mean=" + mean +
+            ", min=" + min +
+            ", max=" + max +
+            ", p5=" + p5 +
+            ", p25=" + p25 +
+            ", p50=" + p50 +
+            ", p75=" + p75 +
+            ", p95=" + p95 +
+            "}";
+    }
+}
@@ -0,0 +1,81 @@
+package org.keyko.retirement.service.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.keyko.retirement.domain.enumeration.Currency;
+
+/**
+ * A DTO representing the money-weighted returns of the portfolio and of each of its securities, in a reporting
+ * currency.
+ */
+public class PortfolioReturnsDTO {
+
+    private Currency currency;
+
+    private LocalDate asOf;
+
+    private long undatedPurchases;
+
+    private ReturnDTO portfolio;
+
+    private List<ReturnDTO> securities = new ArrayList<>();
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    /**
+     * @return the date at which the positions are valued.
+     */
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDate asOf) {
+        this.asOf = asOf;
+    }
+
+    /**
+     * @return the number of purchases without a trade date, which are left out of the returns.
+     */
+    public long getUndatedPurchases() {
+        return undatedPurchases;
+    }
+
+    public void setUndatedPurchases(long undatedPurchases) {
+        this.undatedPurchases = undatedPurchases;
+    }
+
+    public ReturnDTO getPortfolio() {
+        return portfolio;
+    }
+
+    public void setPortfolio(ReturnDTO portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    public List<ReturnDTO> getSecurities() {
+        return securities;
+    }
+
+    public void setSecurities(List<ReturnDTO> securities) {
+        this.securities = securities;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PortfolioReturnsDTO{" +
+            "currency='" + currency + "'" +
+            ", asOf=" + asOf +
+            ", undatedPurchases=" + undatedPurchases +
+            ", portfolio=" + portfolio +
+            ", securities=" + securities.size() +
+            "}";
+    }
+}
@@ -0,0 +1,61 @@
+package org.keyko.retirement.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the positions of the portfolio, rolled up by security type, region and currency.
+ */
+public class PortfolioSummaryDTO {
+
+    private List<PositionSummaryDTO> positions = new ArrayList<>();
+
+    private List<PortfolioTotalDTO> byType = new ArrayList<>();
+
+    private List<PortfolioTotalDTO> byRegion = new ArrayList<>();
+
+    private List<PortfolioTotalDTO> byCurrency = new ArrayList<>();
+
+    public List<PositionSummaryDTO> getPositions() {
+        return positions;
+    }
+
+    public void setPositions(List<PositionSummaryDTO> positions) {
+        this.positions = positions;
+    }
+
+    public List<PortfolioTotalDTO> getByType() {
+        return byType;
+    }
+
+    public void setByType(List<PortfolioTotalDTO> byType) {
+        this.byType = byType;
+    }
+
+    public List<PortfolioTotalDTO> getByRegion() {
+        return byRegion;
+    }
+
+    public void setByRegion(List<PortfolioTotalDTO> byRegion) {
+        this.byRegion = byRegion;
+    }
+
+    public List<PortfolioTotalDTO> getByCurrency() {
+        return byCurrency;
+    }
+
+    public void setByCurrency(List<PortfolioTotalDTO> byCurrency) {
+        this.byCurrency = byCurrency;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PortfolioSummaryDTO{" +
+            "positions=" + positions +
+            ", byType=" + byType +
+            ", byRegion=" + byRegion +
+            ", byCurrency=" + byCurrency +
+            "}";
+    }
+}
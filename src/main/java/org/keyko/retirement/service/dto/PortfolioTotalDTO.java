@@ -0,0 +1,109 @@
+package org.keyko.retirement.service.dto;
+
+import org.keyko.retirement.domain.enumeration.Currency;
+
+/**
+ * A DTO representing the totals of a group of positions held in one currency.
+ */
+public class PortfolioTotalDTO {
+
+    private String group;
+
+    private Currency currency;
+
+    private long purchaseCount;
+
+    private long quantity;
+
+    private double cost;
+
+    private double comission;
+
+    public PortfolioTotalDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PortfolioTotalDTO(String group, Currency currency) {
+        this.group = group;
+        this.currency = currency;
+    }
+
+    /**
+     * Add a position to these totals.
+     *
+     * @param position the position to add.
+     * @return this total.
+     */
+    public PortfolioTotalDTO add(PositionSummaryDTO position) {
+        this.purchaseCount += position.getPurchaseCount();
+        this.quantity += position.getQuantity();
+        this.cost += position.getCost();
+        this.comission += position.getComission();
+        return this;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public long getPurchaseCount() {
+        return purchaseCount;
+    }
+
+    public void setPurchaseCount(long purchaseCount) {
+        this.purchaseCount = purchaseCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    public double getComission() {
+        return comission;
+    }
+
+    public void setComission(double comission) {
+        this.comission = comission;
+    }
+
+    public double getTotalCost() {
+        return cost + comission;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PortfolioTotalDTO{" +
+            "group='" + group + "'" +
+            ", currency='" + currency + "'" +
+            ", purchaseCount=" + purchaseCount +
+            ", quantity=" + quantity +
+            ", cost=" + cost +
+            ", comission=" + comission +
+            "}";
+    }
+}
@@ -0,0 +1,195 @@
+package org.keyko.retirement.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+
+/**
+ * A DTO representing the aggregated purchases of one security in one currency.
+ */
+public class PositionSummaryDTO {
+
+    @JsonIgnore
+    private Long ownerId;
+
+    private Long securityId;
+
+    private String ticker;
+
+    private String name;
+
+    private SecurityType type;
+
+    private Region region;
+
+    private Currency currency;
+
+    private long purchaseCount;
+
+    private long quantity;
+
+    private double cost;
+
+    private double comission;
+
+    public PositionSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PositionSummaryDTO(
+        Long securityId,
+        String ticker,
+        String name,
+        SecurityType type,
+        Region region,
+        Currency currency,
+        Long purchaseCount,
+        Long quantity,
+        Double cost,
+        Double comission
+    ) {
+        this.securityId = securityId;
+        this.ticker = ticker;
+        this.name = name;
+        this.type = type;
+        this.region = region;
+        this.currency = currency;
+        this.purchaseCount = purchaseCount != null ? purchaseCount : 0L;
+        this.quantity = quantity != null ? quantity : 0L;
+        this.cost = cost != null ? cost : 0d;
+        this.comission = comission != null ? comission : 0d;
+    }
+
+    /**
+     * Create the summary of the purchases of an owner, for the positions of all the owners.
+     */
+    public PositionSummaryDTO(
+        Long ownerId,
+        Long securityId,
+        String ticker,
+        String name,
+        SecurityType type,
+        Region region,
+        Currency currency,
+        Long purchaseCount,
+        Long quantity,
+        Double cost,
+        Double comission
+    ) {
+        this(securityId, ticker, name, type, region, currency, purchaseCount, quantity, cost, comission);
+        this.ownerId = ownerId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getSecurityId() {
+        return securityId;
+    }
+
+    public void setSecurityId(Long securityId) {
+        this.securityId = securityId;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SecurityType getType() {
+        return type;
+    }
+
+    public void setType(SecurityType type) {
+        this.type = type;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public long getPurchaseCount() {
+        return purchaseCount;
+    }
+
+    public void setPurchaseCount(long purchaseCount) {
+        this.purchaseCount = purchaseCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * @return the sum of {@code price * number} over the purchases.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    public void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    public double getComission() {
+        return comission;
+    }
+
+    public void setComission(double comission) {
+        this.comission = comission;
+    }
+
+    /**
+     * @return the cost of the purchases including their comissions.
+     */
+    public double getTotalCost() {
+        return cost + comission;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PositionSummaryDTO{" +
+            "securityId=" + securityId +
+            ", ticker='" + ticker + "'" +
+            ", currency='" + currency + "'" +
+            ", purchaseCount=" + purchaseCount +
+            ", quantity=" + quantity +
+            ", cost=" + cost +
+            ", comission=" + comission +
+            "}";
+    }
+}
@@ -0,0 +1,151 @@
+package org.keyko.retirement.service.dto;
+
+import java.time.Instant;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+
+/**
+ * A DTO representing the market value of a position, per security and currency, in a reporting currency.
+ */
+public class PositionValuationDTO {
+
+    private Long securityId;
+
+    private String ticker;
+
+    private String name;
+
+    private SecurityType type;
+
+    private Region region;
+
+    private Currency currency;
+
+    private long quantity;
+
+    private Double lastPrice;
+
+    private Instant lastPriceTime;
+
+    private boolean priced;
+
+    private double cost;
+
+    private double marketValue;
+
+    public Long getSecurityId() {
+        return securityId;
+    }
+
+    public void setSecurityId(Long securityId) {
+        this.securityId = securityId;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SecurityType getType() {
+        return type;
+    }
+
+    public void setType(SecurityType type) {
+        this.type = type;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getLastPrice() {
+        return lastPrice;
+    }
+
+    public void setLastPrice(Double lastPrice) {
+        this.lastPrice = lastPrice;
+    }
+
+    public Instant getLastPriceTime() {
+        return lastPriceTime;
+    }
+
+    public void setLastPriceTime(Instant lastPriceTime) {
+        this.lastPriceTime = lastPriceTime;
+    }
+
+    public boolean isPriced() {
+        return priced;
+    }
+
+    public void setPriced(boolean priced) {
+        this.priced = priced;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    public double getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(double marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PositionValuationDTO{" +
+            "securityId=" + securityId +
+            ", ticker='" + ticker + "'" +
+            ", name='" + name + "'" +
+            ", type='" + type + "'" +
+            ", region='" + region + "'" +
+            ", currency='" + currency + "'" +
+            ", quantity=" + quantity +
+            ", lastPrice=" + lastPrice +
+            ", lastPriceTime=" + lastPriceTime +
+            ", priced=" + priced +
+            ", cost=" + cost +
+            ", marketValue=" + marketValue +
+            "}";
+    }
+}
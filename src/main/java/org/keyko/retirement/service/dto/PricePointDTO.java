@@ -0,0 +1,47 @@
+package org.keyko.retirement.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A close price of a security at a point in time.
+ */
+public class PricePointDTO {
+
+    private Instant time;
+
+    private double close;
+
+    public PricePointDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PricePointDTO(Instant time, double close) {
+        this.time = time;
+        this.close = close;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public void setTime(Instant time) {
+        this.time = time;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    public void setClose(double close) {
+        this.close = close;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PricePointDTO{" +
+            "time=" + time +
+            ", close=" + close +
+            "}";
+    }
+}
@@ -0,0 +1,109 @@
+package org.keyko.retirement.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a purchase import.
+ */
+public class PurchaseImportResultDTO {
+
+    private long imported;
+
+    private long rejected;
+
+    private long durationMillis;
+
+    private double rowsPerSecond;
+
+    private List<RejectedLine> rejectedLines = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * @return the first rejected lines, the total being given by {@link #getRejected()}.
+     */
+    public List<RejectedLine> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public void setRejectedLines(List<RejectedLine> rejectedLines) {
+        this.rejectedLines = rejectedLines;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PurchaseImportResultDTO{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            ", durationMillis=" + durationMillis +
+            ", rowsPerSecond=" + rowsPerSecond +
+            "}";
+    }
+
+    /**
+     * A line of the imported file which was not imported, and why.
+     */
+    public static class RejectedLine {
+
+        private long line;
+
+        private String reason;
+
+        public RejectedLine() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RejectedLine(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.keyko.retirement.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+
+/**
+ * A read-only projection of a {@link org.keyko.retirement.domain.Purchase}. The columns of its security are selected
+ * flat, and serialized as a nested security, like the entity.
+ */
+public interface PurchaseView {
+    Long getId();
+
+    Float getPrice();
+
+    Currency getCurrency();
+
+    Integer getNumber();
+
+    Float getComission();
+
+    LocalDate getTradeDate();
+
+    @JsonIgnore
+    Long getSecurityId();
+
+    @JsonIgnore
+    String getSecurityName();
+
+    @JsonIgnore
+    String getSecurityTicker();
+
+    @JsonIgnore
+    SecurityType getSecurityType();
+
+    @JsonIgnore
+    Region getSecurityRegion();
+
+    default SecurityView getSecurity() {
+        if (getSecurityId() == null) {
+            return null;
+        }
+        Long id = getSecurityId();
+        String name = getSecurityName();
+        String ticker = getSecurityTicker();
+        SecurityType type = getSecurityType();
+        Region region = getSecurityRegion();
+        return new SecurityView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getTicker() {
+                return ticker;
+            }
+
+            @Override
+            public SecurityType getType() {
+                return type;
+            }
+
+            @Override
+            public Region getRegion() {
+                return region;
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package org.keyko.retirement.service.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A DTO representing the money-weighted return of the dated purchases of a security, or of the whole portfolio when
+ * it has no security.
+ */
+public class ReturnDTO {
+
+    private Long securityId;
+
+    private String ticker;
+
+    private String name;
+
+    private int flowCount;
+
+    private LocalDate firstTradeDate;
+
+    private double invested;
+
+    private double value;
+
+    private Double annualizedReturn;
+
+    public Long getSecurityId() {
+        return securityId;
+    }
+
+    public void setSecurityId(Long securityId) {
+        this.securityId = securityId;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the number of dated purchases.
+     */
+    public int getFlowCount() {
+        return flowCount;
+    }
+
+    public void setFlowCount(int flowCount) {
+        this.flowCount = flowCount;
+    }
+
+    public LocalDate getFirstTradeDate() {
+        return firstTradeDate;
+    }
+
+    public void setFirstTradeDate(LocalDate firstTradeDate) {
+        this.firstTradeDate = firstTradeDate;
+    }
+
+    /**
+     * @return the net amount invested by the purchases, comissions included.
+     */
+    public double getInvested() {
+        return invested;
+    }
+
+    public void setInvested(double invested) {
+        this.invested = invested;
+    }
+
+    /**
+     * @return the current market value of the units bought by the purchases.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the annual internal rate of return of the purchases, taking the value as received today, or
+     * {@code null} when it has none.
+     */
+    public Double getAnnualizedReturn() {
+        return annualizedReturn;
+    }
+
+    public void setAnnualizedReturn(Double annualizedReturn) {
+        this.annualizedReturn = annualizedReturn;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReturnDTO{" +
+            "securityId=" + securityId +
+            ", ticker='" + ticker + "'" +
+            ", flowCount=" + flowCount +
+            ", firstTradeDate=" + firstTradeDate +
+            ", invested=" + invested +
+            ", value=" + value +
+            ", annualizedReturn=" + annualizedReturn +
+            "}";
+    }
+}
@@ -0,0 +1,19 @@
+package org.keyko.retirement.service.dto;
+
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+
+/**
+ * A read-only projection of a {@link org.keyko.retirement.domain.Security}, without its purchases.
+ */
+public interface SecurityView {
+    Long getId();
+
+    String getName();
+
+    String getTicker();
+
+    SecurityType getType();
+
+    Region getRegion();
+}
@@ -0,0 +1,130 @@
+package org.keyko.retirement.service.dto;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.keyko.retirement.domain.enumeration.Currency;
+
+/**
+ * A DTO representing the parameters of a Monte Carlo projection of the portfolio value.
+ */
+public class SimulationRequestDTO {
+
+    /**
+     * Bound of the amounts of a request, far above any real portfolio but low enough for the simulated values to stay
+     * finite.
+     */
+    public static final String MAX_AMOUNT = "1e15";
+
+    @NotNull
+    private Currency currency = Currency.USD;
+
+    @Min(1)
+    private int years = 30;
+
+    @Min(1)
+    private int paths = 10_000;
+
+    @DecimalMin("-" + MAX_AMOUNT)
+    @DecimalMax(MAX_AMOUNT)
+    private double annualContribution;
+
+    @DecimalMin("0")
+    @DecimalMax(MAX_AMOUNT)
+    private Double targetValue;
+
+    private Long seed;
+
+    private boolean includeSketches;
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public int getYears() {
+        return years;
+    }
+
+    public void setYears(int years) {
+        this.years = years;
+    }
+
+    public int getPaths() {
+        return paths;
+    }
+
+    public void setPaths(int paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * Get the amount added to the portfolio at the end of each year, or withdrawn from it when negative.
+     *
+     * @return the amount, in the currency of the simulation.
+     */
+    public double getAnnualContribution() {
+        return annualContribution;
+    }
+
+    public void setAnnualContribution(double annualContribution) {
+        this.annualContribution = annualContribution;
+    }
+
+    /**
+     * Get the value whose probability to be reached at the end of the simulation is computed.
+     *
+     * @return the value, or {@code null} for none.
+     */
+    public Double getTargetValue() {
+        return targetValue;
+    }
+
+    public void setTargetValue(Double targetValue) {
+        this.targetValue = targetValue;
+    }
+
+    /**
+     * Get the seed of the random numbers, which makes the simulation repeatable.
+     *
+     * @return the seed, or {@code null} for a random one.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Get whether the serialized histogram of the values of each year is returned with their percentiles.
+     *
+     * @return {@code true} to return the histograms.
+     */
+    public boolean isIncludeSketches() {
+        return includeSketches;
+    }
+
+    public void setIncludeSketches(boolean includeSketches) {
+        this.includeSketches = includeSketches;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SimulationRequestDTO{" +
+            "currency='" + currency + "'" +
+            ", years=" + years +
+            ", paths=" + paths +
+            ", annualContribution=" + annualContribution +
+            ", targetValue=" + targetValue +
+            ", seed=" + seed +
+            ", includeSketches=" + includeSketches +
+            "}";
+    }
+}
@@ -0,0 +1,94 @@
+package org.keyko.retirement.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.keyko.retirement.domain.enumeration.Currency;
+
+/**
+ * A DTO representing the outcome of a Monte Carlo projection of the portfolio value.
+ */
+public class SimulationResultDTO {
+
+    private Currency currency;
+
+    private int paths;
+
+    private double initialValue;
+
+    private double annualContribution;
+
+    private Double targetProbability;
+
+    private List<SimulationYearDTO> years = new ArrayList<>();
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public int getPaths() {
+        return paths;
+    }
+
+    public void setPaths(int paths) {
+        this.paths = paths;
+    }
+
+    public double getInitialValue() {
+        return initialValue;
+    }
+
+    public void setInitialValue(double initialValue) {
+        this.initialValue = initialValue;
+    }
+
+    public double getAnnualContribution() {
+        return annualContribution;
+    }
+
+    public void setAnnualContribution(double annualContribution) {
+        this.annualContribution = annualContribution;
+    }
+
+    /**
+     * Get the share of the paths ending at or above the target value.
+     *
+     * @return the share, between 0 and 1, or {@code null} when no target value was given.
+     */
+    public Double getTargetProbability() {
+        return targetProbability;
+    }
+
+    public void setTargetProbability(Double targetProbability) {
+        this.targetProbability = targetProbability;
+    }
+
+    /**
+     * Get the distribution of the values at the end of each year, starting with the current value as year 0.
+     *
+     * @return the distributions, in year order.
+     */
+    public List<SimulationYearDTO> getYears() {
+        return years;
+    }
+
+    public void setYears(List<SimulationYearDTO> years) {
+        this.years = years;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SimulationResultDTO{" +
+            "currency='" + currency + "'" +
+            ", paths=" + paths +
+            ", initialValue=" + initialValue +
+            ", annualContribution=" + annualContribution +
+            ", targetProbability=" + targetProbability +
+            ", years=" + years.size() +
+            "}";
+    }
+}
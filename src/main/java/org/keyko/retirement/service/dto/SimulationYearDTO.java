@@ -0,0 +1,34 @@
+package org.keyko.retirement.service.dto;
+
+/**
+ * A DTO representing the distribution of the simulated portfolio values at the end of a year.
+ */
+public class SimulationYearDTO extends DistributionDTO {
+
+    private int year;
+
+    public SimulationYearDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SimulationYearDTO(int year) {
+        this.year = year;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SimulationYearDTO{" +
+            "year=" + year +
+            ", distribution=" + super.toString() +
+            "}";
+    }
+}
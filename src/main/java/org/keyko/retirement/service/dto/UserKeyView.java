@@ -0,0 +1,13 @@
+package org.keyko.retirement.service.dto;
+
+/**
+ * A read-only projection of a {@link org.keyko.retirement.domain.User}, with the keys it is found by: its id, login and
+ * e-mail.
+ */
+public interface UserKeyView {
+    Long getId();
+
+    String getLogin();
+
+    String getEmail();
+}
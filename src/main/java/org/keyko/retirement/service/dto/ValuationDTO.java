@@ -0,0 +1,74 @@
+package org.keyko.retirement.service.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.keyko.retirement.domain.enumeration.Currency;
+
+/**
+ * A DTO representing the market value of the portfolio in a reporting currency.
+ */
+public class ValuationDTO {
+
+    private Currency currency;
+
+    private Instant ratesLoadedAt;
+
+    private double cost;
+
+    private double marketValue;
+
+    private List<PositionValuationDTO> positions = new ArrayList<>();
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public Instant getRatesLoadedAt() {
+        return ratesLoadedAt;
+    }
+
+    public void setRatesLoadedAt(Instant ratesLoadedAt) {
+        this.ratesLoadedAt = ratesLoadedAt;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    public double getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(double marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    public List<PositionValuationDTO> getPositions() {
+        return positions;
+    }
+
+    public void setPositions(List<PositionValuationDTO> positions) {
+        this.positions = positions;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ValuationDTO{" +
+            "currency='" + currency + "'" +
+            ", ratesLoadedAt=" + ratesLoadedAt +
+            ", cost=" + cost +
+            ", marketValue=" + marketValue +
+            ", positions=" + positions +
+            "}";
+    }
+}
@@ -0,0 +1,224 @@
+package org.keyko.retirement.web.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.security.ratelimit.Bandwidth;
+import org.keyko.retirement.security.ratelimit.RateLimitStore;
+import org.keyko.retirement.web.rest.errors.ErrorConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.zalando.problem.Problem;
+import org.zalando.problem.Status;
+
+/**
+ * Filter limiting the rate of the unauthenticated requests which hash passwords, look users up or send e-mails: per
+ * client IP address, then per login or e-mail when the body has one. A request over a limit gets a
+ * {@code 429 Too Many Requests}, with a {@code Retry-After} header.
+ * <p>
+ * The start of the body is read ahead, in blocking mode, then replayed to the endpoint. An endpoint reading it with a
+ * {@link ReadListener} is told at once that the whole body is available, unless the body is larger than what is read
+ * ahead: the limited endpoints must read those in blocking mode.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+
+    /**
+     * The limited endpoints, with the field of their JSON body holding the login. An empty field means the whole body
+     * is the login.
+     */
+    private static final Map<String, String> LOGIN_FIELDS = Map.of(
+        "/api/authenticate",
+        "username",
+        "/api/register",
+        "login",
+        "/api/account/reset-password/init",
+        ""
+    );
+
+    private final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitStore rateLimitStore;
+
+    private final ObjectMapper objectMapper;
+
+    private final Bandwidth perIp;
+
+    private final Bandwidth perLogin;
+
+    public RateLimitFilter(RateLimitStore rateLimitStore, ApplicationProperties.RateLimit rateLimit, ObjectMapper objectMapper) {
+        this.rateLimitStore = rateLimitStore;
+        this.objectMapper = objectMapper;
+        this.perIp = new Bandwidth(rateLimit.getPerIp().getCapacity(), rateLimit.getPerIp().getPeriod());
+        this.perLogin = new Bandwidth(rateLimit.getPerLogin().getCapacity(), rateLimit.getPerLogin().getPeriod());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !LOGIN_FIELDS.containsKey(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        Duration wait = rateLimitStore.tryConsume("ip:" + request.getRemoteAddr(), perIp);
+        if (!wait.isZero()) {
+            reject(request, response, wait);
+            return;
+        }
+        BufferedBodyRequest bufferedRequest = new BufferedBodyRequest(request);
+        String login = extractLogin(LOGIN_FIELDS.get(pathOf(request)), bufferedRequest.getInspectedBody());
+        if (login != null) {
+            wait = rateLimitStore.tryConsume("login:" + login.trim().toLowerCase(Locale.ROOT), perLogin);
+            if (!wait.isZero()) {
+                reject(request, response, wait);
+                return;
+            }
+        }
+        filterChain.doFilter(bufferedRequest, response);
+    }
+
+    private String extractLogin(String field, byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        if (field.isEmpty()) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        try {
+            JsonNode login = objectMapper.readTree(body).get(field);
+            return login != null && login.isTextual() ? login.asText() : null;
+        } catch (IOException e) {
+            // Let the endpoint reject the invalid body
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Duration wait) throws IOException {
+        log.debug("Rate limit exceeded for {} from {}", request.getRequestURI(), request.getRemoteAddr());
+        long retryAfterSeconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+        Problem problem = Problem
+            .builder()
+            .withType(ErrorConstants.DEFAULT_TYPE)
+            .withTitle(Status.TOO_MANY_REQUESTS.getReasonPhrase())
+            .withStatus(Status.TOO_MANY_REQUESTS)
+            .with("message", ErrorConstants.ERR_TOO_MANY_REQUESTS)
+            .with("path", request.getRequestURI())
+            .build();
+        response.setStatus(Status.TOO_MANY_REQUESTS.getStatusCode());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * A request whose body start is read ahead, to be inspected, then replayed to the endpoint.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+
+        private final boolean complete;
+
+        private BufferedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            InputStream body = request.getInputStream();
+            this.head = body.readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+            this.complete = head.length <= MAX_INSPECTED_BODY_BYTES;
+        }
+
+        /**
+         * Get the body, unless it is too large to be inspected.
+         */
+        private byte[] getInspectedBody() {
+            return complete ? head : null;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(
+                new InputStreamReader(getInputStream(), encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1)
+            );
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            InputStream replayed = complete
+                ? new ByteArrayInputStream(head)
+                : new SequenceInputStream(new ByteArrayInputStream(head), super.getInputStream());
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    return replayed.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return replayed.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    try {
+                        return replayed.available() == 0;
+                    } catch (IOException e) {
+                        return true;
+                    }
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (!complete) {
+                        throw new IllegalStateException(
+                            "Asynchronous reads of a body larger than " + MAX_INSPECTED_BODY_BYTES + " bytes are not supported"
+                        );
+                    }
+                    // The whole body is buffered, so it is all available at once
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+    }
+}
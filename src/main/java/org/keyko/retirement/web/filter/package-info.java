@@ -0,0 +1,4 @@
+/**
+ * Servlet filters.
+ */
+package org.keyko.retirement.web.filter;
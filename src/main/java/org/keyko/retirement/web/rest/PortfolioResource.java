@@ -0,0 +1,201 @@
+package org.keyko.retirement.web.rest;
+
+import java.util.List;
+import javax.validation.Valid;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.Position;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.service.PortfolioAggregationService;
+import org.keyko.retirement.service.PortfolioDistributionService;
+import org.keyko.retirement.service.PortfolioReturnService;
+import org.keyko.retirement.service.PositionService;
+import org.keyko.retirement.service.RetirementSimulationService;
+import org.keyko.retirement.service.UserService;
+import org.keyko.retirement.service.ValuationService;
+import org.keyko.retirement.service.dto.DistributionDTO;
+import org.keyko.retirement.service.dto.PortfolioReturnsDTO;
+import org.keyko.retirement.service.dto.PortfolioSummaryDTO;
+import org.keyko.retirement.service.dto.PortfolioTotalDTO;
+import org.keyko.retirement.service.dto.SimulationRequestDTO;
+import org.keyko.retirement.service.dto.SimulationResultDTO;
+import org.keyko.retirement.service.dto.ValuationDTO;
+import org.keyko.retirement.web.rest.errors.BadRequestAlertException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for reading the portfolio built from the {@link org.keyko.retirement.domain.Purchase} entities of the
+ * current user.
+ */
+@RestController
+@RequestMapping("/api/portfolio")
+public class PortfolioResource {
+
+    private final Logger log = LoggerFactory.getLogger(PortfolioResource.class);
+
+    private static final String ENTITY_NAME = "portfolio";
+
+    private final PortfolioAggregationService portfolioAggregationService;
+
+    private final ValuationService valuationService;
+
+    private final PositionService positionService;
+
+    private final RetirementSimulationService retirementSimulationService;
+
+    private final PortfolioDistributionService portfolioDistributionService;
+
+    private final PortfolioReturnService portfolioReturnService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final UserService userService;
+
+    public PortfolioResource(
+        PortfolioAggregationService portfolioAggregationService,
+        ValuationService valuationService,
+        PositionService positionService,
+        RetirementSimulationService retirementSimulationService,
+        PortfolioDistributionService portfolioDistributionService,
+        PortfolioReturnService portfolioReturnService,
+        ApplicationProperties applicationProperties,
+        UserService userService
+    ) {
+        this.portfolioAggregationService = portfolioAggregationService;
+        this.valuationService = valuationService;
+        this.positionService = positionService;
+        this.retirementSimulationService = retirementSimulationService;
+        this.portfolioDistributionService = portfolioDistributionService;
+        this.portfolioReturnService = portfolioReturnService;
+        this.applicationProperties = applicationProperties;
+        this.userService = userService;
+    }
+
+    private Long currentOwnerId() {
+        return userService.getCurrentUserId().orElseThrow(() -> new AccessDeniedException("The current user could not be found"));
+    }
+
+    /**
+     * {@code GET  /portfolio/summary} : get the positions of the portfolio, per security and currency, with their
+     * rollups by security type, region and currency.
+     *
+     * @return the portfolio summary.
+     */
+    @GetMapping("/summary")
+    public PortfolioSummaryDTO getSummary() {
+        log.debug("REST request to get the portfolio summary");
+        return portfolioAggregationService.getSummary(currentOwnerId());
+    }
+
+    /**
+     * {@code GET  /portfolio/positions/:securityId} : get the totals of the purchases of a security in a currency.
+     *
+     * @param securityId the id of the security.
+     * @param currency the currency of the purchases.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the position,
+     * or with status {@code 404 (Not Found)} if the current user has no purchases of the security in this currency.
+     */
+    @GetMapping("/positions/{securityId}")
+    public ResponseEntity<Position> getPosition(@PathVariable Long securityId, @RequestParam(value = "currency") Currency currency) {
+        log.debug("REST request to get the position of Security {} in {}", securityId, currency);
+        return ResponseUtil.wrapOrNotFound(positionService.getPosition(currentOwnerId(), securityId, currency));
+    }
+
+    /**
+     * {@code GET  /portfolio/totals} : get the totals of the portfolio per currency and per security type, region
+     * or currency.
+     *
+     * @param groupBy the grouping of the totals: {@code type}, {@code region} or {@code currency}.
+     * @return the totals, or status {@code 400 (Bad Request)} if the grouping is unknown.
+     */
+    @GetMapping("/totals")
+    public List<PortfolioTotalDTO> getTotals(@RequestParam(value = "groupBy") String groupBy) {
+        log.debug("REST request to get the portfolio totals by {}", groupBy);
+        switch (groupBy) {
+            case "type":
+                return portfolioAggregationService.getTotalsByType(currentOwnerId());
+            case "region":
+                return portfolioAggregationService.getTotalsByRegion(currentOwnerId());
+            case "currency":
+                return portfolioAggregationService.getTotalsByCurrency(currentOwnerId());
+            default:
+                throw new BadRequestAlertException("Invalid grouping", ENTITY_NAME, "groupbyinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /portfolio/valuation} : get the market value of the portfolio and of each position in a reporting
+     * currency.
+     *
+     * @param currency the reporting currency, US dollars by default.
+     * @return the valuation.
+     */
+    @GetMapping("/valuation")
+    public ValuationDTO getValuation(@RequestParam(value = "currency", defaultValue = "USD") Currency currency) {
+        log.debug("REST request to get the portfolio valuation in {}", currency);
+        return valuationService.getValuation(currentOwnerId(), currency);
+    }
+
+    /**
+     * {@code GET  /portfolio/distributions/:metric} : get the distribution of a value across the portfolio, with its
+     * serialized histogram.
+     *
+     * @param metric the value: {@code purchase-cost} for the cost of each purchase, comission included, or
+     * {@code position-weight} for the weight of each position in the market value of the portfolio.
+     * @param currency the currency of the costs, US dollars by default.
+     * @return the distribution, or status {@code 400 (Bad Request)} if the value is unknown.
+     */
+    @GetMapping("/distributions/{metric}")
+    public DistributionDTO getDistribution(
+        @PathVariable String metric,
+        @RequestParam(value = "currency", defaultValue = "USD") Currency currency
+    ) {
+        log.debug("REST request to get the portfolio distribution of {}", metric);
+        switch (metric) {
+            case "purchase-cost":
+                return portfolioDistributionService.getPurchaseCostDistribution(currentOwnerId(), currency);
+            case "position-weight":
+                return portfolioDistributionService.getPositionWeightDistribution(currentOwnerId());
+            default:
+                throw new BadRequestAlertException("Invalid metric", ENTITY_NAME, "metricinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /portfolio/returns} : get the money-weighted returns of the portfolio and of each security, from the
+     * purchases with a trade date.
+     *
+     * @param currency the currency of the flows, US dollars by default.
+     * @return the annualized returns.
+     */
+    @GetMapping("/returns")
+    public PortfolioReturnsDTO getReturns(@RequestParam(value = "currency", defaultValue = "USD") Currency currency) {
+        log.debug("REST request to get the portfolio returns in {}", currency);
+        return portfolioReturnService.getReturns(currentOwnerId(), currency);
+    }
+
+    /**
+     * {@code POST  /portfolio/simulate} : project the value of the portfolio over the coming years, with a Monte Carlo
+     * simulation.
+     *
+     * @param request the parameters of the simulation.
+     * @return the distribution of the values at the end of each year, or status {@code 400 (Bad Request)} if the
+     * simulation has more years or paths than {@code application.simulation} allows.
+     */
+    @PostMapping("/simulate")
+    public SimulationResultDTO simulate(@Valid @RequestBody SimulationRequestDTO request) {
+        log.debug("REST request to simulate the portfolio: {}", request);
+        ApplicationProperties.Simulation limits = applicationProperties.getSimulation();
+        if (request.getYears() > limits.getMaxYears()) {
+            throw new BadRequestAlertException("Too many years", ENTITY_NAME, "yearsinvalid");
+        }
+        if (request.getPaths() > limits.getMaxPaths()) {
+            throw new BadRequestAlertException("Too many paths", ENTITY_NAME, "pathsinvalid");
+        }
+        return retirementSimulationService.simulate(currentOwnerId(), request);
+    }
+}
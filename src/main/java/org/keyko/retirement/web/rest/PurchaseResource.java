@@ -1,24 +1,48 @@
 package org.keyko.retirement.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletResponse;
 import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.User;
 import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.service.PositionService;
+import org.keyko.retirement.service.PurchaseImportService;
+import org.keyko.retirement.service.UserService;
+import org.keyko.retirement.service.dto.PurchaseImportResultDTO;
+import org.keyko.retirement.service.dto.PurchaseView;
 import org.keyko.retirement.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link org.keyko.retirement.domain.Purchase}.
+ * <p>
+ * Each user only reads and writes its own purchases: the purchases are created with the current user as their owner,
+ * and every query is scoped to it, seeking through the indexes starting with the owner.
  */
 @RestController
 @RequestMapping("/api")
@@ -29,13 +53,43 @@ public class PurchaseResource {
 
     private static final String ENTITY_NAME = "purchase";
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final PurchaseRepository purchaseRepository;
 
-    public PurchaseResource(PurchaseRepository purchaseRepository) {
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final PurchaseImportService purchaseImportService;
+
+    private final PositionService positionService;
+
+    private final UserService userService;
+
+    public PurchaseResource(
+        PurchaseRepository purchaseRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        PurchaseImportService purchaseImportService,
+        PositionService positionService,
+        UserService userService
+    ) {
         this.purchaseRepository = purchaseRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.purchaseImportService = purchaseImportService;
+        this.positionService = positionService;
+        this.userService = userService;
+    }
+
+    private Long currentOwnerId() {
+        return userService.getCurrentUserId().orElseThrow(() -> new AccessDeniedException("The current user could not be found"));
     }
 
     /**
@@ -51,13 +105,38 @@ public class PurchaseResource {
         if (purchase.getId() != null) {
             throw new BadRequestAlertException("A new purchase cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        purchase.setOwner(entityManager.getReference(User.class, currentOwnerId()));
         Purchase result = purchaseRepository.save(purchase);
+        positionService.add(result);
         return ResponseEntity
             .created(new URI("/api/purchases/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /purchases/import} : Import purchases from a CSV file.
+     * <p>
+     * The file is read as a stream and inserted in chunks, each committed on its own, so an invalid line or a failed
+     * chunk does not roll back the rest of the import. The purchases are owned by the current user.
+     *
+     * @param csv the CSV file, with a header naming the price, currency, number, comission and optional trade_date and
+     * ticker columns.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import result,
+     * or with status {@code 400 (Bad Request)} if the header is not valid.
+     * @throws IOException if the file could not be read.
+     */
+    @PostMapping(value = "/purchases/import", consumes = "text/csv")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<PurchaseImportResultDTO> importPurchases(InputStream csv) throws IOException {
+        log.debug("REST request to import Purchases");
+        try {
+            return ResponseEntity.ok(purchaseImportService.importCsv(csv, currentOwnerId()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "importheaderinvalid");
+        }
+    }
+
     /**
      * {@code PUT  /purchases/:id} : Updates an existing purchase.
      *
@@ -81,11 +160,17 @@ public class PurchaseResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!purchaseRepository.existsById(id)) {
+        Optional<Purchase> existingPurchase = purchaseRepository.findByIdAndOwnerId(id, currentOwnerId());
+        if (existingPurchase.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        // Take the purchase out of its position before the merge overwrites its previous values
+        positionService.remove(existingPurchase.get());
+        // The owner is not part of the request body, so keep the current one
+        purchase.setOwner(existingPurchase.get().getOwner());
 
         Purchase result = purchaseRepository.save(purchase);
+        positionService.add(result);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, purchase.getId().toString()))
@@ -116,14 +201,16 @@ public class PurchaseResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!purchaseRepository.existsById(id)) {
+        Long ownerId = currentOwnerId();
+        if (!purchaseRepository.existsByIdAndOwnerId(id, ownerId)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
         Optional<Purchase> result = purchaseRepository
-            .findById(purchase.getId())
+            .findByIdAndOwnerId(purchase.getId(), ownerId)
             .map(
                 existingPurchase -> {
+                    positionService.remove(existingPurchase);
                     if (purchase.getPrice() != null) {
                         existingPurchase.setPrice(purchase.getPrice());
                     }
@@ -136,11 +223,20 @@ public class PurchaseResource {
                     if (purchase.getComission() != null) {
                         existingPurchase.setComission(purchase.getComission());
                     }
+                    if (purchase.getTradeDate() != null) {
+                        existingPurchase.setTradeDate(purchase.getTradeDate());
+                    }
 
                     return existingPurchase;
                 }
             )
-            .map(purchaseRepository::save);
+            .map(purchaseRepository::save)
+            .map(
+                savedPurchase -> {
+                    positionService.add(savedPurchase);
+                    return savedPurchase;
+                }
+            );
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -149,26 +245,92 @@ public class PurchaseResource {
     }
 
     /**
-     * {@code GET  /purchases} : get all the purchases.
+     * {@code GET  /purchases} : get a page of the purchases of the current user, in id order.
+     * <p>
+     * Pages are addressed by the id of the last purchase already seen rather than by an offset, so every page costs
+     * the same index seek. When more purchases follow, the {@code Link} header holds the URL of the next page.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of purchases in body.
+     * @param securityId the id of the security of the purchases, or nothing for the purchases of all the securities.
+     * @param afterId the id of the last purchase of the previous page, or nothing for the first page.
+     * @param size the maximum number of purchases to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of purchases in body,
+     * or with status {@code 400 (Bad Request)} if the page size is not valid.
      */
     @GetMapping("/purchases")
-    public List<Purchase> getAllPurchases() {
-        log.debug("REST request to get all Purchases");
-        return purchaseRepository.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PurchaseView>> getAllPurchases(
+        @RequestParam(value = "securityId", required = false) Long securityId,
+        @RequestParam(value = "afterId", required = false) Long afterId,
+        @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
+        log.debug("REST request to get a page of Purchases after : {}", afterId);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Invalid page size", ENTITY_NAME, "pagesizeinvalid");
+        }
+        Long ownerId = currentOwnerId();
+        // Fetch one extra row to know whether a next page exists, without counting the table
+        Long fromId = afterId != null ? afterId : Long.MIN_VALUE;
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<PurchaseView> purchases = securityId != null
+            ? purchaseRepository.findAllViewsByOwnerIdAndSecurityIdAfterId(ownerId, securityId, fromId, page)
+            : purchaseRepository.findAllViewsByOwnerIdAfterId(ownerId, fromId, page);
+        HttpHeaders headers = new HttpHeaders();
+        if (purchases.size() > size) {
+            purchases = purchases.subList(0, size);
+            String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("afterId", purchases.get(size - 1).getId())
+                .replaceQueryParam("size", size)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(purchases);
+    }
+
+    /**
+     * {@code GET  /purchases} : stream all the purchases of the current user as newline-delimited JSON, in id order.
+     * <p>
+     * Rows are read through a database cursor and written as soon as they are read, then evicted from the persistence
+     * context, so memory use does not depend on the number of purchases.
+     *
+     * @param response the HTTP response the purchases are written to.
+     * @throws IOException if the response could not be written.
+     */
+    @GetMapping(value = "/purchases", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAllPurchases(HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream all Purchases");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(Purchase.class);
+        int fetchSize = Integer.parseInt(PurchaseRepository.STREAM_FETCH_SIZE);
+        try (Stream<Purchase> purchases = purchaseRepository.streamAllWithSecurityByOwnerId(currentOwnerId())) {
+            OutputStream out = response.getOutputStream();
+            int written = 0;
+            for (Iterator<Purchase> iterator = purchases.iterator(); iterator.hasNext();) {
+                Purchase purchase = iterator.next();
+                out.write(writer.writeValueAsBytes(purchase));
+                out.write('\n');
+                entityManager.detach(purchase);
+                if (++written % fetchSize == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
     }
 
     /**
      * {@code GET  /purchases/:id} : get the "id" purchase.
      *
      * @param id the id of the purchase to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the purchase, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the purchase, or with status {@code 404 (Not Found)}
+     * if the current user has no such purchase.
      */
     @GetMapping("/purchases/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Purchase> getPurchase(@PathVariable Long id) {
         log.debug("REST request to get Purchase : {}", id);
-        Optional<Purchase> purchase = purchaseRepository.findById(id);
+        Optional<Purchase> purchase = purchaseRepository.findByIdAndOwnerId(id, currentOwnerId());
         return ResponseUtil.wrapOrNotFound(purchase);
     }
 
@@ -181,7 +343,14 @@ public class PurchaseResource {
     @DeleteMapping("/purchases/{id}")
     public ResponseEntity<Void> deletePurchase(@PathVariable Long id) {
         log.debug("REST request to delete Purchase : {}", id);
-        purchaseRepository.deleteById(id);
+        purchaseRepository
+            .findByIdAndOwnerId(id, currentOwnerId())
+            .ifPresent(
+                purchase -> {
+                    positionService.remove(purchase);
+                    purchaseRepository.delete(purchase);
+                }
+            );
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
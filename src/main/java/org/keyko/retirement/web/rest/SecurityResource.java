@@ -2,16 +2,26 @@ package org.keyko.retirement.web.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.keyko.retirement.domain.Security;
 import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.security.AuthoritiesConstants;
+import org.keyko.retirement.security.SecurityUtils;
+import org.keyko.retirement.service.PriceHistoryStore;
+import org.keyko.retirement.service.dto.PricePointDTO;
+import org.keyko.retirement.service.dto.SecurityView;
 import org.keyko.retirement.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
@@ -29,13 +39,18 @@ public class SecurityResource {
 
     private static final String ENTITY_NAME = "security";
 
+    private static final String INCLUDE_PURCHASES = "purchases";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SecurityRepository securityRepository;
 
-    public SecurityResource(SecurityRepository securityRepository) {
+    private final PriceHistoryStore priceHistoryStore;
+
+    public SecurityResource(SecurityRepository securityRepository, PriceHistoryStore priceHistoryStore) {
         this.securityRepository = securityRepository;
+        this.priceHistoryStore = priceHistoryStore;
     }
 
     /**
@@ -149,29 +164,112 @@ public class SecurityResource {
     }
 
     /**
-     * {@code GET  /securities} : get all the securities.
+     * {@code GET  /securities} : get all the securities, as read-only views.
      *
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of securities in body.
      */
     @GetMapping("/securities")
-    public List<Security> getAllSecurities() {
+    @Transactional(readOnly = true)
+    public List<SecurityView> getAllSecurities() {
         log.debug("REST request to get all Securities");
-        return securityRepository.findAll();
+        return securityRepository.findAllViews();
+    }
+
+    /**
+     * {@code GET  /securities?include=purchases} : get all the securities with the purchases of all the users. Only
+     * the administrators can include the purchases: the users read theirs with {@code GET /purchases?securityId=}.
+     *
+     * @param include {@code purchases}, to load the purchases of the securities in the same query.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of securities in body,
+     * or with status {@code 400 (Bad Request)} if the include is not valid,
+     * or with status {@code 403 (Forbidden)} if the current user is not an administrator.
+     */
+    @GetMapping(value = "/securities", params = "include")
+    @Transactional(readOnly = true)
+    public List<Security> getAllSecuritiesIncluding(@RequestParam("include") String include) {
+        log.debug("REST request to get all Securities, including : {}", include);
+        checkPurchasesInclude(include);
+        return securityRepository.findAllWithPurchases();
     }
 
     /**
      * {@code GET  /securities/:id} : get the "id" security.
      *
      * @param id the id of the security to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the security, or with status {@code 404 (Not Found)}.
+     * @param include {@code purchases} to load the purchases of all the users in the security too, in the same query;
+     * for the administrators only.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the security, or with status {@code 404 (Not Found)},
+     * or with status {@code 400 (Bad Request)} if the include is not valid,
+     * or with status {@code 403 (Forbidden)} if the purchases are included by a user who is not an administrator.
      */
     @GetMapping("/securities/{id}")
-    public ResponseEntity<Security> getSecurity(@PathVariable Long id) {
-        log.debug("REST request to get Security : {}", id);
-        Optional<Security> security = securityRepository.findById(id);
+    @Transactional(readOnly = true)
+    public ResponseEntity<Security> getSecurity(@PathVariable Long id, @RequestParam(value = "include", required = false) String include) {
+        log.debug("REST request to get Security : {}, including : {}", id, include);
+        Optional<Security> security = includesPurchases(include)
+            ? securityRepository.findOneWithPurchasesById(id)
+            : securityRepository.findById(id);
         return ResponseUtil.wrapOrNotFound(security);
     }
 
+    private static boolean includesPurchases(String include) {
+        if (include == null) {
+            return false;
+        }
+        checkPurchasesInclude(include);
+        return true;
+    }
+
+    private static void checkPurchasesInclude(String include) {
+        if (!INCLUDE_PURCHASES.equals(include)) {
+            throw new BadRequestAlertException("Invalid include, only purchases can be included", ENTITY_NAME, "includeinvalid");
+        }
+        // The purchases of every user are loaded, not only the ones of the current user
+        if (!SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+            throw new AccessDeniedException("Only the administrators can include the purchases of all the users");
+        }
+    }
+
+    /**
+     * {@code GET  /securities/:id/prices} : get the close prices of the "id" security, read from the {@link PriceHistoryStore}.
+     *
+     * @param id the id of the security.
+     * @param from the first day of the prices, or nothing for the start of the history.
+     * @param to the last day of the prices, inclusive, or nothing for the end of the history.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the prices in time order,
+     * or with status {@code 400 (Bad Request)} if the range is not valid,
+     * or with status {@code 404 (Not Found)} if the security does not exist.
+     */
+    @GetMapping("/securities/{id}/prices")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PricePointDTO>> getSecurityPrices(
+        @PathVariable Long id,
+        @RequestParam(value = "from", required = false) LocalDate from,
+        @RequestParam(value = "to", required = false) LocalDate to
+    ) {
+        log.debug("REST request to get the prices of Security : {} from {} to {}", id, from, to);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestAlertException("Invalid date range", ENTITY_NAME, "daterangeinvalid");
+        }
+        Instant start = from != null ? from.atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.ofEpochMilli(Long.MIN_VALUE);
+        Instant end = to != null ? to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.ofEpochMilli(Long.MAX_VALUE);
+        return ResponseUtil.wrapOrNotFound(
+            Optional
+                .of(id)
+                .filter(securityRepository::existsById)
+                .map(
+                    securityId -> {
+                        PriceHistoryStore.PriceRange range = priceHistoryStore.getRange(securityId, start, end);
+                        List<PricePointDTO> prices = new ArrayList<>(range.size());
+                        for (int i = 0; i < range.size(); i++) {
+                            prices.add(new PricePointDTO(range.getTime(i), range.getClose(i)));
+                        }
+                        return prices;
+                    }
+                )
+        );
+    }
+
     /**
      * {@code DELETE  /securities/:id} : delete the "id" security.
      *
@@ -2,7 +2,7 @@ import React, { useEffect } from 'react';
 import { connect } from 'react-redux';
 import { Link, RouteComponentProps } from 'react-router-dom';
 import { Button, Row, Col } from 'reactstrap';
-import { Translate } from 'react-jhipster';
+import { Translate, TextFormat } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { IRootState } from 'app/shared/reducers';
@@ -54,6 +54,14 @@ export const PurchaseDetail = (props: IPurchaseDetailProps) => {
             </span>
           </dt>
           <dd>{purchaseEntity.comission}</dd>
+          <dt>
+            <span id="tradeDate">
+              <Translate contentKey="retirementApp.purchase.tradeDate">Trade Date</Translate>
+            </span>
+          </dt>
+          <dd>
+            {purchaseEntity.tradeDate ? <TextFormat value={purchaseEntity.tradeDate} type="date" format={APP_LOCAL_DATE_FORMAT} /> : null}
+          </dd>
           <dt>
             <Translate contentKey="retirementApp.purchase.security">Security</Translate>
           </dt>
@@ -10,6 +10,7 @@ import reducer, {
   createEntity,
   deleteEntity,
   getEntities,
+  getNextEntities,
   getEntity,
   updateEntity,
   partialUpdate,
@@ -31,6 +32,7 @@ describe('Entities reducer tests', () => {
     loading: false,
     errorMessage: null,
     entities: [] as ReadonlyArray<IPurchase>,
+    nextPageQuery: null,
     entity: defaultValue,
     updating: false,
     updateSuccess: false,
@@ -61,13 +63,21 @@ describe('Entities reducer tests', () => {
 
   describe('Requests', () => {
     it('should set state to loading', () => {
-      testMultipleTypes([REQUEST(ACTION_TYPES.FETCH_PURCHASE_LIST), REQUEST(ACTION_TYPES.FETCH_PURCHASE)], {}, state => {
-        expect(state).toMatchObject({
-          errorMessage: null,
-          updateSuccess: false,
-          loading: true,
-        });
-      });
+      testMultipleTypes(
+        [
+          REQUEST(ACTION_TYPES.FETCH_PURCHASE_LIST),
+          REQUEST(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE),
+          REQUEST(ACTION_TYPES.FETCH_PURCHASE),
+        ],
+        {},
+        state => {
+          expect(state).toMatchObject({
+            errorMessage: null,
+            updateSuccess: false,
+            loading: true,
+          });
+        }
+      );
     });
 
     it('should set state to updating', () => {
@@ -108,6 +118,7 @@ describe('Entities reducer tests', () => {
       testMultipleTypes(
         [
           FAILURE(ACTION_TYPES.FETCH_PURCHASE_LIST),
+          FAILURE(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE),
           FAILURE(ACTION_TYPES.FETCH_PURCHASE),
           FAILURE(ACTION_TYPES.CREATE_PURCHASE),
           FAILURE(ACTION_TYPES.UPDATE_PURCHASE),
@@ -141,6 +152,42 @@ describe('Entities reducer tests', () => {
       });
     });
 
+    it('should keep the query of the next page of entities', () => {
+      const payload = {
+        data: [{ 1: 'fake1' }],
+        headers: { link: '<http://localhost:8080/api/purchases?afterId=1&size=1>; rel="next"' },
+      };
+      expect(
+        reducer(undefined, {
+          type: SUCCESS(ACTION_TYPES.FETCH_PURCHASE_LIST),
+          payload,
+        })
+      ).toEqual({
+        ...initialState,
+        loading: false,
+        entities: payload.data,
+        nextPageQuery: 'afterId=1&size=1',
+      });
+    });
+
+    it('should append the next page of entities', () => {
+      const payload = { data: [{ 2: 'fake2' }], headers: {} };
+      expect(
+        reducer(
+          { ...initialState, loading: true, entities: [{ 1: 'fake1' }], nextPageQuery: 'afterId=1&size=1' },
+          {
+            type: SUCCESS(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE),
+            payload,
+          }
+        )
+      ).toEqual({
+        ...initialState,
+        loading: false,
+        entities: [{ 1: 'fake1' }, { 2: 'fake2' }],
+        nextPageQuery: null,
+      });
+    });
+
     it('should fetch a single entity', () => {
       const payload = { data: { 1: 'fake1' } };
       expect(
@@ -210,6 +257,19 @@ describe('Entities reducer tests', () => {
       await store.dispatch(getEntities()).then(() => expect(store.getActions()).toEqual(expectedActions));
     });
 
+    it('dispatches ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE actions', async () => {
+      const expectedActions = [
+        {
+          type: REQUEST(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE),
+        },
+        {
+          type: SUCCESS(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE),
+          payload: resolvedObject,
+        },
+      ];
+      await store.dispatch(getNextEntities('afterId=1&size=1')).then(() => expect(store.getActions()).toEqual(expectedActions));
+    });
+
     it('dispatches ACTION_TYPES.FETCH_PURCHASE actions', async () => {
       const expectedActions = [
         {
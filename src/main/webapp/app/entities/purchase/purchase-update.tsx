@@ -114,6 +114,12 @@ export const PurchaseUpdate = (props: IPurchaseUpdateProps) => {
                 </Label>
                 <AvField id="purchase-comission" data-cy="comission" type="string" className="form-control" name="comission" />
               </AvGroup>
+              <AvGroup>
+                <Label id="tradeDateLabel" for="purchase-tradeDate">
+                  <Translate contentKey="retirementApp.purchase.tradeDate">Trade Date</Translate>
+                </Label>
+                <AvField id="purchase-tradeDate" data-cy="tradeDate" type="date" className="form-control" name="tradeDate" />
+              </AvGroup>
               <AvGroup>
                 <Label for="purchase-security">
                   <Translate contentKey="retirementApp.purchase.security">Security</Translate>
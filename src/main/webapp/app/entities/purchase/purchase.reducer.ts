@@ -8,6 +8,7 @@ import { IPurchase, defaultValue } from 'app/shared/model/purchase.model';
 
 export const ACTION_TYPES = {
   FETCH_PURCHASE_LIST: 'purchase/FETCH_PURCHASE_LIST',
+  FETCH_PURCHASE_NEXT_PAGE: 'purchase/FETCH_PURCHASE_NEXT_PAGE',
   FETCH_PURCHASE: 'purchase/FETCH_PURCHASE',
   CREATE_PURCHASE: 'purchase/CREATE_PURCHASE',
   UPDATE_PURCHASE: 'purchase/UPDATE_PURCHASE',
@@ -20,6 +21,7 @@ const initialState = {
   loading: false,
   errorMessage: null,
   entities: [] as ReadonlyArray<IPurchase>,
+  nextPageQuery: null as string,
   entity: defaultValue,
   updating: false,
   updateSuccess: false,
@@ -27,11 +29,21 @@ const initialState = {
 
 export type PurchaseState = Readonly<typeof initialState>;
 
+/**
+ * Read the query of the next page from the Link header of a page of purchases, as the pages are addressed by the id of
+ * their last purchase rather than by a page number.
+ */
+export const parseNextPageQuery = (link: string): string => {
+  const next = link ? /<([^>]*)>;\s*rel="next"/.exec(link) : null;
+  return next && next[1].includes('?') ? next[1].substring(next[1].indexOf('?') + 1) : null;
+};
+
 // Reducer
 
 export default (state: PurchaseState = initialState, action): PurchaseState => {
   switch (action.type) {
     case REQUEST(ACTION_TYPES.FETCH_PURCHASE_LIST):
+    case REQUEST(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE):
     case REQUEST(ACTION_TYPES.FETCH_PURCHASE):
       return {
         ...state,
@@ -50,6 +62,7 @@ export default (state: PurchaseState = initialState, action): PurchaseState => {
         updating: true,
       };
     case FAILURE(ACTION_TYPES.FETCH_PURCHASE_LIST):
+    case FAILURE(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE):
     case FAILURE(ACTION_TYPES.FETCH_PURCHASE):
     case FAILURE(ACTION_TYPES.CREATE_PURCHASE):
     case FAILURE(ACTION_TYPES.UPDATE_PURCHASE):
@@ -67,6 +80,14 @@ export default (state: PurchaseState = initialState, action): PurchaseState => {
         ...state,
         loading: false,
         entities: action.payload.data,
+        nextPageQuery: parseNextPageQuery(action.payload.headers?.link),
+      };
+    case SUCCESS(ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE):
+      return {
+        ...state,
+        loading: false,
+        entities: [...state.entities, ...action.payload.data],
+        nextPageQuery: parseNextPageQuery(action.payload.headers?.link),
       };
     case SUCCESS(ACTION_TYPES.FETCH_PURCHASE):
       return {
@@ -108,6 +129,11 @@ export const getEntities: ICrudGetAllAction<IPurchase> = (page, size, sort) => (
   payload: axios.get<IPurchase>(`${apiUrl}?cacheBuster=${new Date().getTime()}`),
 });
 
+export const getNextEntities = (nextPageQuery: string) => ({
+  type: ACTION_TYPES.FETCH_PURCHASE_NEXT_PAGE,
+  payload: axios.get<IPurchase>(`${apiUrl}?${nextPageQuery}&cacheBuster=${new Date().getTime()}`),
+});
+
 export const getEntity: ICrudGetAction<IPurchase> = id => {
   const requestUrl = `${apiUrl}/${id}`;
   return {
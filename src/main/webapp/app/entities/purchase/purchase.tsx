@@ -2,11 +2,11 @@ import React, { useState, useEffect } from 'react';
 import { connect } from 'react-redux';
 import { Link, RouteComponentProps } from 'react-router-dom';
 import { Button, Col, Row, Table } from 'reactstrap';
-import { Translate } from 'react-jhipster';
+import { Translate, TextFormat } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { IRootState } from 'app/shared/reducers';
-import { getEntities } from './purchase.reducer';
+import { getEntities, getNextEntities } from './purchase.reducer';
 import { IPurchase } from 'app/shared/model/purchase.model';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 
@@ -21,7 +21,11 @@ export const Purchase = (props: IPurchaseProps) => {
     props.getEntities();
   };
 
-  const { purchaseList, match, loading } = props;
+  const handleLoadMore = () => {
+    props.getNextEntities(props.nextPageQuery);
+  };
+
+  const { purchaseList, nextPageQuery, match, loading } = props;
   return (
     <div>
       <h2 id="purchase-heading" data-cy="PurchaseHeading">
@@ -58,6 +62,9 @@ export const Purchase = (props: IPurchaseProps) => {
                 <th>
                   <Translate contentKey="retirementApp.purchase.comission">Comission</Translate>
                 </th>
+                <th>
+                  <Translate contentKey="retirementApp.purchase.tradeDate">Trade Date</Translate>
+                </th>
                 <th>
                   <Translate contentKey="retirementApp.purchase.security">Security</Translate>
                 </th>
@@ -78,6 +85,7 @@ export const Purchase = (props: IPurchaseProps) => {
                   </td>
                   <td>{purchase.number}</td>
                   <td>{purchase.comission}</td>
+                  <td>{purchase.tradeDate ? <TextFormat type="date" value={purchase.tradeDate} format={APP_LOCAL_DATE_FORMAT} /> : null}</td>
                   <td>{purchase.security ? <Link to={`security/${purchase.security.id}`}>{purchase.security.id}</Link> : ''}</td>
                   <td className="text-right">
                     <div className="btn-group flex-btn-group-container">
@@ -113,17 +121,26 @@ export const Purchase = (props: IPurchaseProps) => {
           )
         )}
       </div>
+      {nextPageQuery ? (
+        <Row className="justify-content-center">
+          <Button color="info" onClick={handleLoadMore} disabled={loading} data-cy="entityLoadMoreButton">
+            <Translate contentKey="retirementApp.purchase.home.loadMoreLabel">Load more</Translate>
+          </Button>
+        </Row>
+      ) : null}
     </div>
   );
 };
 
 const mapStateToProps = ({ purchase }: IRootState) => ({
   purchaseList: purchase.entities,
+  nextPageQuery: purchase.nextPageQuery,
   loading: purchase.loading,
 });
 
 const mapDispatchToProps = {
   getEntities,
+  getNextEntities,
 };
 
 type StateProps = ReturnType<typeof mapStateToProps>;
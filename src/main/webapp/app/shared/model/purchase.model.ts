@@ -7,6 +7,7 @@ export interface IPurchase {
   currency?: Currency | null;
   number?: number | null;
   comission?: number | null;
+  tradeDate?: string | null;
   security?: ISecurity | null;
 }
 
@@ -0,0 +1,73 @@
+package org.keyko.retirement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class CachesEndpointWebExtensionTest {
+
+    private MeterRegistry meterRegistry;
+
+    private CachesEndpointWebExtension extension;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CachesEndpoint cachesEndpoint = new CachesEndpoint(
+            Map.of("cacheManager", new ConcurrentMapCacheManager("read", "unread", "unbound"))
+        );
+        extension = new CachesEndpointWebExtension(cachesEndpoint, meterRegistry);
+    }
+
+    @Test
+    void reportsHitAndMissRatios() {
+        bind("read", 3, 1, 2);
+
+        CachesEndpointWebExtension.CacheDescriptor cache = describe("read");
+
+        assertThat(cache.getTarget()).isNotNull();
+        assertThat(cache.getHits()).isEqualTo(3L);
+        assertThat(cache.getMisses()).isEqualTo(1L);
+        assertThat(cache.getEvictions()).isEqualTo(2L);
+        assertThat(cache.getHitRatio()).isEqualTo(0.75);
+        assertThat(cache.getMissRatio()).isEqualTo(0.25);
+    }
+
+    @Test
+    void reportsNoRatiosForUnreadCache() {
+        bind("unread", 0, 0, 0);
+
+        CachesEndpointWebExtension.CacheDescriptor cache = describe("unread");
+
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getHitRatio()).isNull();
+        assertThat(cache.getMissRatio()).isNull();
+    }
+
+    @Test
+    void reportsNoStatisticsForCacheWithoutMeters() {
+        CachesEndpointWebExtension.CacheDescriptor cache = describe("unbound");
+
+        assertThat(cache.getTarget()).isNotNull();
+        assertThat(cache.getHits()).isNull();
+        assertThat(cache.getMisses()).isNull();
+        assertThat(cache.getHitRatio()).isNull();
+    }
+
+    private CachesEndpointWebExtension.CacheDescriptor describe(String cacheName) {
+        return extension.caches().getCacheManagers().get("cacheManager").getCaches().get(cacheName);
+    }
+
+    private void bind(String cacheName, double hits, double misses, double evictions) {
+        FunctionCounter.builder("cache.gets", this, o -> hits).tags("cache", cacheName, "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", this, o -> misses).tags("cache", cacheName, "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", this, o -> evictions).tags("cache", cacheName).register(meterRegistry);
+    }
+}
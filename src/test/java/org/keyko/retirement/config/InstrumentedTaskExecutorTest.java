@@ -0,0 +1,109 @@
+package org.keyko.retirement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+class InstrumentedTaskExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ApplicationProperties.ThreadPool properties;
+
+    private InstrumentedTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties.ThreadPool();
+        properties.setCoreSize(1);
+        properties.setMaxSize(1);
+        properties.setQueueCapacity(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void recordsQueueWaitAndDuration() throws Exception {
+        executor = newExecutor();
+        CountDownLatch done = new CountDownLatch(2);
+
+        executor.execute(done::countDown);
+        executor.execute(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("executor").tag("name", "test").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("executor.idle").tag("name", "test").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("executor.completed").tag("name", "test").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void countsRejectedTasks() throws Exception {
+        executor = newExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(
+            () -> {
+                started.countDown();
+                await(release);
+            }
+        );
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.execute(() -> {});
+
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(TaskRejectedException.class);
+        assertThat(meterRegistry.get("executor.rejected").tag("name", "test").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("executor.queued").tag("name", "test").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void runsRejectedTasksOnCaller() throws Exception {
+        properties.setRejectionPolicy(InstrumentedTaskExecutor.RejectionPolicy.CALLER_RUNS);
+        executor = newExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(
+            () -> {
+                started.countDown();
+                await(release);
+            }
+        );
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.execute(() -> {});
+        Thread[] runner = new Thread[1];
+
+        executor.execute(() -> runner[0] = Thread.currentThread());
+
+        assertThat(runner[0]).isSameAs(Thread.currentThread());
+        assertThat(meterRegistry.get("executor.rejected").tag("name", "test").counter().count()).isEqualTo(1);
+    }
+
+    private InstrumentedTaskExecutor newExecutor() {
+        InstrumentedTaskExecutor newExecutor = new InstrumentedTaskExecutor("test", properties, meterRegistry);
+        newExecutor.initialize();
+        return newExecutor;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+    }
+}
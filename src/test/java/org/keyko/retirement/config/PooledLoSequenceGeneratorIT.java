@@ -0,0 +1,43 @@
+package org.keyko.retirement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.IntegrationTest;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.web.rest.PurchaseResourceIT;
+import org.keyko.retirement.web.rest.SecurityResourceIT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link PooledLoSequenceGenerator}.
+ */
+@IntegrationTest
+@Transactional
+class PooledLoSequenceGeneratorIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void consecutiveInsertsGetConsecutiveIds() {
+        Purchase first = PurchaseResourceIT.createEntity(em);
+        Purchase second = PurchaseResourceIT.createEntity(em);
+        em.persist(first);
+        em.persist(second);
+
+        assertThat(first.getId()).isGreaterThanOrEqualTo(1050L);
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+    }
+
+    @Test
+    void securitiesGetIdsFromTheSecuritySequence() {
+        Security security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+
+        assertThat(security.getId()).isGreaterThanOrEqualTo(1050L);
+    }
+}
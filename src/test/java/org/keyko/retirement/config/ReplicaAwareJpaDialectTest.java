@@ -0,0 +1,57 @@
+package org.keyko.retirement.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Test class for the {@link ReplicaAwareJpaDialect}.
+ */
+class ReplicaAwareJpaDialectTest {
+
+    private final SessionImplementor session = mock(SessionImplementor.class);
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    private final ReplicaAwareJpaDialect dialect = new ReplicaAwareJpaDialect();
+
+    @BeforeEach
+    void setUp() {
+        when(entityManager.unwrap(any())).thenReturn(session);
+        when(entityManager.getTransaction()).thenReturn(mock(EntityTransaction.class));
+        when(session.getHibernateFlushMode()).thenReturn(FlushMode.AUTO);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        // The connection of a mocked session cannot be prepared
+        dialect.setPrepareConnection(false);
+    }
+
+    @Test
+    void keepsTheReadOnlyTransactionsFromFillingTheCache() throws Exception {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+
+        Object transactionData = dialect.beginTransaction(entityManager, definition);
+        verify(session).setCacheMode(CacheMode.GET);
+
+        dialect.cleanupTransaction(transactionData);
+        verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void leavesTheCacheModeOfTheReadWriteTransactions() throws Exception {
+        dialect.cleanupTransaction(dialect.beginTransaction(entityManager, new DefaultTransactionDefinition()));
+
+        verify(session, never()).setCacheMode(any());
+    }
+}
@@ -0,0 +1,173 @@
+package org.keyko.retirement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.security.AuthoritiesConstants;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Test class for the {@link ReplicaRoutingDataSource}, on two in-memory H2 databases.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private JdbcTemplate routed;
+
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(database("primary"));
+        replica = new JdbcTemplate(database("replica"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            primary.getDataSource(),
+            replica.getDataSource(),
+            Duration.ofSeconds(5),
+            now::get
+        );
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        routed = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.execute("drop all objects");
+        replica.execute("drop all objects");
+    }
+
+    @Test
+    void readsOnTheReplicaInReadOnlyTransactions() {
+        assertThat(readInTransaction()).isEqualTo("replica");
+
+        login("user");
+        assertThat(readInTransaction()).isEqualTo("replica");
+    }
+
+    @Test
+    void writesOnThePrimary() {
+        login("user");
+
+        write();
+
+        assertThat(primary.queryForObject("select count(*) from entry", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from entry", Integer.class)).isZero();
+    }
+
+    @Test
+    void readsOnThePrimaryOutsideOfATransaction() {
+        assertThat(routed.queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void keepsTheReadsOfAWriterOnThePrimaryForAWhile() {
+        login("user");
+        write();
+
+        assertThat(readInTransaction()).isEqualTo("primary");
+        now.addAndGet(4999);
+        assertThat(readInTransaction()).isEqualTo("primary");
+        now.addAndGet(1);
+        assertThat(readInTransaction()).isEqualTo("replica");
+    }
+
+    @Test
+    void keepsTheReadsOfTheOtherUsersOnTheReplica() {
+        login("user");
+        write();
+
+        login("admin");
+        assertThat(readInTransaction()).isEqualTo("replica");
+    }
+
+    @Test
+    void keepsTheReadsOfTheAnonymousUsersOnTheReplicaAfterAnAnonymousWrite() {
+        loginAnonymously();
+        write();
+
+        assertThat(readInTransaction()).isEqualTo("replica");
+    }
+
+    @Test
+    void keepsTheReadsOnTheReplicaAfterARollback() {
+        login("user");
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> {
+                routed.update("insert into entry values (1)");
+                status.setRollbackOnly();
+            }
+        );
+
+        assertThat(primary.queryForObject("select count(*) from entry", Integer.class)).isZero();
+        assertThat(readInTransaction()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsOnThePrimaryWhenRequiredWhileTheReplicaLags() {
+        // The replica never receives the write, as if it lagged behind
+        login("admin");
+        write();
+
+        login("user");
+        assertThat(countInTransaction()).isZero();
+        assertThat(ReplicaRoutingDataSource.readFromPrimary(this::countInTransaction)).isEqualTo(1);
+        assertThat(countInTransaction()).isZero();
+    }
+
+    private String readInTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> routed.queryForObject("select name from node", String.class));
+    }
+
+    private Integer countInTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> routed.queryForObject("select count(*) from entry", Integer.class));
+    }
+
+    private void write() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> routed.update("insert into entry values (1)"));
+    }
+
+    private static void login(String login) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+    }
+
+    private static void loginAnonymously() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser", authorities));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        jdbcTemplate.execute("create table entry (id bigint)");
+        return dataSource;
+    }
+}
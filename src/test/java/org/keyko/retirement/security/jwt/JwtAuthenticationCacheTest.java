@@ -0,0 +1,63 @@
+package org.keyko.retirement.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+class JwtAuthenticationCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private JwtAuthenticationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new JwtAuthenticationCache(10, now::get);
+    }
+
+    @Test
+    void evictsEntryAtTokenExpiration() {
+        User principal = principal("user");
+        cache.put("token", principal, 2000);
+
+        now.set(1999);
+        assertThat(cache.get("token")).isSameAs(principal);
+
+        now.set(2000);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void staysBoundedWhenFull() {
+        for (int i = 0; i < 100; i++) {
+            cache.put("token" + i, principal("user" + i), 5000);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.get("token99")).isNotNull();
+    }
+
+    @Test
+    void evictsExpiredEntriesFirstWhenFull() {
+        for (int i = 0; i < 9; i++) {
+            cache.put("expiring" + i, principal("user" + i), 1500);
+        }
+        cache.put("lasting", principal("lasting"), 5000);
+        now.set(1500);
+
+        cache.put("new", principal("new"), 5000);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("lasting")).isNotNull();
+        assertThat(cache.get("new")).isNotNull();
+    }
+
+    private static User principal(String login) {
+        return new User(login, "", Collections.emptyList());
+    }
+}
@@ -0,0 +1,58 @@
+package org.keyko.retirement.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LocalRateLimitStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private final LocalRateLimitStore store = new LocalRateLimitStore(now::get);
+
+    private final Bandwidth bandwidth = new Bandwidth(3, Duration.ofSeconds(3));
+
+    @Test
+    void consumesUpToCapacity() {
+        assertThat(store.tryConsume("a", bandwidth)).isZero();
+        assertThat(store.tryConsume("a", bandwidth)).isZero();
+        assertThat(store.tryConsume("a", bandwidth)).isZero();
+
+        assertThat(store.tryConsume("a", bandwidth)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(store.tryConsume("b", bandwidth)).isZero();
+    }
+
+    @Test
+    void refillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("a", bandwidth);
+        }
+        now.addAndGet(Duration.ofMillis(400).toNanos());
+
+        assertThat(store.tryConsume("a", bandwidth)).isEqualTo(Duration.ofMillis(600));
+
+        now.addAndGet(Duration.ofMillis(600).toNanos());
+
+        assertThat(store.tryConsume("a", bandwidth)).isZero();
+        assertThat(store.tryConsume("a", bandwidth)).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void evictsFullBuckets() {
+        store.tryConsume("a", bandwidth);
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        store.tryConsume("b", bandwidth);
+        now.addAndGet(Duration.ofMillis(600).toNanos());
+
+        store.evictIdle();
+
+        assertThat(store.size()).isEqualTo(1);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        store.evictIdle();
+
+        assertThat(store.size()).isZero();
+    }
+}
@@ -0,0 +1,75 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * Unit tests for {@link FxRateService}.
+ */
+class FxRateServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private Path ratesFile;
+
+    private FxRateService fxRateService;
+
+    @BeforeEach
+    public void setup() {
+        ratesFile = directory.resolve("fx-rates.csv");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getFx().setRatesLocation(ratesFile.toUri().toString());
+        fxRateService = new FxRateService(applicationProperties, new DefaultResourceLoader());
+    }
+
+    @Test
+    void loadsRatesOnFirstUse() throws Exception {
+        Files.writeString(ratesFile, "currency;usd\nUSD;1\nRUB;0.0125\n", StandardCharsets.UTF_8);
+
+        FxRateService.FxRates rates = fxRateService.getRates();
+
+        assertThat(rates.convert(100, Currency.RUB, Currency.USD)).isCloseTo(1.25, within(1e-9));
+        assertThat(rates.convert(1.25, Currency.USD, Currency.RUB)).isCloseTo(100, within(1e-9));
+        assertThat(rates.convert(42, Currency.USD, Currency.USD)).isEqualTo(42);
+    }
+
+    @Test
+    void keepsPreviousRatesWhenRefreshFails() throws Exception {
+        Files.writeString(ratesFile, "currency;usd\nUSD;1\nRUB;0.0125\n", StandardCharsets.UTF_8);
+        FxRateService.FxRates rates = fxRateService.getRates();
+
+        Files.writeString(ratesFile, "currency;usd\nUSD;1\n", StandardCharsets.UTF_8);
+        fxRateService.refresh();
+
+        assertThat(fxRateService.getRates()).isSameAs(rates);
+    }
+
+    @Test
+    void replacesRatesOnRefresh() throws Exception {
+        Files.writeString(ratesFile, "currency;usd\nUSD;1\nRUB;0.0125\n", StandardCharsets.UTF_8);
+        FxRateService.FxRates rates = fxRateService.getRates();
+
+        Files.writeString(ratesFile, "currency;usd\nUSD;1\nRUB;0.01\n", StandardCharsets.UTF_8);
+        fxRateService.refresh();
+
+        assertThat(fxRateService.getRates()).isNotSameAs(rates);
+        assertThat(fxRateService.getRates().convert(100, Currency.RUB, Currency.USD)).isCloseTo(1, within(1e-9));
+    }
+
+    @Test
+    void failsWithoutRates() {
+        assertThatThrownBy(() -> fxRateService.getRates()).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -1,9 +1,9 @@
 package org.keyko.retirement.service;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -11,6 +11,9 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -21,9 +24,14 @@ import javax.mail.internet.MimeMultipart;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keyko.retirement.IntegrationTest;
+import org.keyko.retirement.config.ApplicationProperties;
 import org.keyko.retirement.config.Constants;
+import org.keyko.retirement.domain.MailMessage;
 import org.keyko.retirement.domain.User;
+import org.keyko.retirement.domain.enumeration.MailStatus;
+import org.keyko.retirement.repository.MailMessageRepository;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
@@ -31,6 +39,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -56,24 +65,46 @@ class MailServiceIT {
     @Autowired
     private SpringTemplateEngine templateEngine;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MailMessageRepository mailMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Spy
     private JavaMailSenderImpl javaMailSender;
 
     @Captor
     private ArgumentCaptor<MimeMessage> messageCaptor;
 
+    private MailOutboxService mailOutboxService;
+
     private MailService mailService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+        doNothing().when(javaMailSender).send(ArgumentMatchers.<MimeMessage[]>any());
+        mailMessageRepository.deleteAll();
+        mailOutboxService =
+            new MailOutboxService(
+                mailMessageRepository,
+                javaMailSender,
+                jHipsterProperties,
+                applicationProperties,
+                transactionManager,
+                new SimpleMeterRegistry()
+            );
+        mailService = new MailService(jHipsterProperties, mailOutboxService, new MailTemplateRenderer(templateEngine, messageSource));
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
@@ -87,6 +118,7 @@ class MailServiceIT {
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
@@ -100,6 +132,7 @@ class MailServiceIT {
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
@@ -117,6 +150,7 @@ class MailServiceIT {
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
@@ -138,6 +172,7 @@ class MailServiceIT {
         user.setEmail("john.doe@example.com");
         user.setLangKey("en");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("test title");
@@ -154,6 +189,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -169,6 +205,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -184,6 +221,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
+        mailOutboxService.sendPending();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -194,12 +232,50 @@ class MailServiceIT {
 
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        doThrow(MailSendException.class).when(javaMailSender).send(ArgumentMatchers.<MimeMessage[]>any());
         try {
             mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            assertThat(mailOutboxService.sendPending()).isZero();
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
+        List<MailMessage> mails = mailMessageRepository.findAll();
+        assertThat(mails).hasSize(1);
+        assertThat(mails.get(0).getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(mails.get(0).getAttempts()).isEqualTo(1);
+        assertThat(mails.get(0).getNextAttemptDate()).isAfter(Instant.now());
+        assertThat(mails.get(0).getLastError()).isNotNull();
+    }
+
+    @Test
+    void testSendEmailsInOneBatch() throws Exception {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        mailService.sendEmail("jane.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(mailOutboxService.sendPending()).isEqualTo(2);
+
+        verify(javaMailSender, times(1)).send(ArgumentMatchers.<MimeMessage[]>any());
+        verify(javaMailSender).send(messageCaptor.capture(), messageCaptor.capture());
+        List<String> recipients = new ArrayList<>();
+        for (MimeMessage message : messageCaptor.getAllValues()) {
+            recipients.add(message.getAllRecipients()[0].toString());
+        }
+        assertThat(recipients).containsExactlyInAnyOrder("john.doe@example.com", "jane.doe@example.com");
+        assertThat(mailMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void testGiveUpOnEmailAfterMaxAttempts() {
+        doThrow(MailSendException.class).when(javaMailSender).send(ArgumentMatchers.<MimeMessage[]>any());
+        MailMessage mail = mailOutboxService.enqueue("john.doe@example.com", "testSubject", "testContent", false, false);
+        mail.setAttempts(applicationProperties.getMailOutbox().getMaxAttempts() - 1);
+        mailMessageRepository.save(mail);
+
+        mailOutboxService.sendPending();
+
+        mail = mailMessageRepository.findById(mail.getId()).orElseThrow();
+        assertThat(mail.getStatus()).isEqualTo(MailStatus.FAILED);
+        assertThat(mail.getNextAttemptDate()).isNull();
     }
 
     @Test
@@ -210,6 +286,7 @@ class MailServiceIT {
         for (String langKey : languages) {
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
+            mailOutboxService.sendPending();
             verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
             MimeMessage message = messageCaptor.getValue();
 
@@ -0,0 +1,52 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+class MailTemplateRendererTest {
+
+    private StaticMessageSource messageSource;
+
+    private MailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = spy(new StaticMessageSource());
+        messageSource.addMessage("email.title", Locale.ENGLISH, "Title");
+        messageSource.addMessage("email.title", Locale.FRENCH, "Titre");
+        messageSource.addMessage("email.greeting", Locale.ENGLISH, "Dear {0}");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        // The name of a template is its content
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        renderer = new MailTemplateRenderer(templateEngine, messageSource);
+    }
+
+    @Test
+    void rendersTemplates() {
+        String template = "<p th:text=\"#{email.greeting(${name})}\"></p>";
+
+        assertThat(renderer.render(template, Locale.ENGLISH, Map.of("name", "john"))).isEqualTo("<p>Dear john</p>");
+        assertThat(renderer.render(template, Locale.ENGLISH, Map.of("name", "jane"))).isEqualTo("<p>Dear jane</p>");
+    }
+
+    @Test
+    void resolvesMessagesOncePerLocale() {
+        assertThat(renderer.getMessage("email.title", Locale.ENGLISH)).isEqualTo("Title");
+        assertThat(renderer.getMessage("email.title", Locale.ENGLISH)).isEqualTo("Title");
+        assertThat(renderer.getMessage("email.title", Locale.FRENCH)).isEqualTo("Titre");
+
+        verify(messageSource, times(1)).getMessage("email.title", null, Locale.ENGLISH);
+        verify(messageSource, times(1)).getMessage("email.title", null, Locale.FRENCH);
+    }
+}
@@ -0,0 +1,147 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.IntegrationTest;
+import org.keyko.retirement.domain.Position;
+import org.keyko.retirement.domain.PositionId;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.User;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.PositionRepository;
+import org.keyko.retirement.repository.UserRepository;
+import org.keyko.retirement.web.rest.SecurityResourceIT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link PositionService}.
+ */
+@IntegrationTest
+@Transactional
+class PositionServiceIT {
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private User owner;
+
+    private Security security;
+
+    @BeforeEach
+    public void init() {
+        owner = userRepository.findOneByLogin("user").orElseThrow();
+        security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+    }
+
+    @Test
+    void sumsPurchasesPerSecurityAndCurrency() {
+        Purchase first = persistPurchase(10F, 2, 1F, Currency.USD);
+        Purchase second = persistPurchase(20F, 3, 2F, Currency.USD);
+        persistPurchase(5F, 4, 0F, Currency.RUB);
+
+        positionService.remove(first);
+        em.flush();
+        em.clear();
+
+        Position usd = positionRepository.findById(positionId(Currency.USD)).orElseThrow();
+        assertThat(usd.getPurchaseCount()).isEqualTo(1);
+        assertThat(usd.getQuantity()).isEqualTo(3);
+        assertThat(usd.getCost()).isEqualTo(60d);
+        assertThat(usd.getComission()).isEqualTo(2d);
+        assertThat(positionRepository.findById(positionId(Currency.RUB))).isPresent();
+
+        positionService.remove(second);
+        assertThat(positionRepository.findById(positionId(Currency.USD))).isEmpty();
+    }
+
+    @Test
+    void keepsThePositionsOfEachOwnerApart() {
+        persistPurchase(10F, 2, 1F, Currency.USD);
+        User admin = userRepository.findOneByLogin("admin").orElseThrow();
+        Purchase other = new Purchase().price(20F).number(3).comission(2F).currency(Currency.USD).security(security).owner(admin);
+        em.persist(other);
+        positionService.add(other);
+        em.flush();
+        em.clear();
+
+        assertThat(positionRepository.findById(positionId(Currency.USD)).orElseThrow().getQuantity()).isEqualTo(2);
+        Position adminPosition = positionRepository.findById(new PositionId(admin.getId(), security.getId(), Currency.USD)).orElseThrow();
+        assertThat(adminPosition.getQuantity()).isEqualTo(3);
+        assertThat(positionService.reconcile()).isZero();
+    }
+
+    @Test
+    void ignoresPurchasesWithoutSecurity() {
+        Purchase purchase = new Purchase().price(1F).number(1).comission(0F).currency(Currency.USD).owner(owner);
+        em.persist(purchase);
+        long positionsBefore = positionRepository.count();
+
+        positionService.add(purchase);
+
+        assertThat(positionRepository.count()).isEqualTo(positionsBefore);
+    }
+
+    @Test
+    void ignoresPurchasesWithoutOwner() {
+        Purchase purchase = new Purchase().price(1F).number(1).comission(0F).currency(Currency.USD).security(security);
+        em.persist(purchase);
+        long positionsBefore = positionRepository.count();
+
+        positionService.add(purchase);
+
+        assertThat(positionRepository.count()).isEqualTo(positionsBefore);
+    }
+
+    @Test
+    void reconcileRepairsPositions() {
+        positionService.reconcile();
+        persistPurchase(10F, 2, 1F, Currency.USD);
+        // A purchase written without going through the service
+        em.persist(new Purchase().price(5F).number(4).comission(0F).currency(Currency.RUB).security(security).owner(owner));
+        positionRepository.addToTotals(owner.getId(), security.getId(), Currency.USD, 0, 1, 0d, 0d);
+        em.flush();
+        em.clear();
+
+        assertThat(positionService.reconcile()).isEqualTo(2);
+        em.flush();
+        em.clear();
+
+        Position usd = positionRepository.findById(positionId(Currency.USD)).orElseThrow();
+        assertThat(usd.getQuantity()).isEqualTo(2);
+        Position rub = positionRepository.findById(positionId(Currency.RUB)).orElseThrow();
+        assertThat(rub.getCost()).isEqualTo(20d);
+        assertThat(positionService.reconcile()).isZero();
+    }
+
+    private Purchase persistPurchase(Float price, int number, Float comission, Currency currency) {
+        Purchase purchase = new Purchase()
+            .price(price)
+            .number(number)
+            .comission(comission)
+            .currency(currency)
+            .security(security)
+            .owner(owner);
+        em.persist(purchase);
+        positionService.add(purchase);
+        return purchase;
+    }
+
+    private PositionId positionId(Currency currency) {
+        return new PositionId(owner.getId(), security.getId(), currency);
+    }
+}
@@ -0,0 +1,168 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.service.dto.PortfolioTotalDTO;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link PositionSnapshotService}.
+ */
+class PositionSnapshotServiceTest {
+
+    private static final long OWNER = 100L;
+
+    private static final long OTHER_OWNER = 200L;
+
+    private PurchaseRepository purchaseRepository;
+
+    private PositionSnapshotService positionSnapshotService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getPositionSnapshot().setEnabled(true);
+        purchaseRepository = mock(PurchaseRepository.class);
+        SecurityRepository securityRepository = mock(SecurityRepository.class);
+        when(securityRepository.findAllClassifications())
+            .thenReturn(
+                List.of(new Object[] { 1L, SecurityType.SHARE, Region.USA }, new Object[] { 2L, SecurityType.BOND, Region.RUS })
+            );
+        when(purchaseRepository.streamPositionColumns())
+            .thenReturn(
+                Stream.of(
+                    new Object[] { 10L, 1L, Currency.USD, 2, 10F, 1F, OWNER },
+                    new Object[] { 11L, 1L, Currency.USD, 3, 20F, 2F, OWNER },
+                    new Object[] { 12L, 2L, Currency.RUB, 4, 5F, 0F, OWNER },
+                    new Object[] { 13L, null, Currency.RUB, 1, 1F, 1F, OWNER },
+                    new Object[] { 15L, 1L, Currency.USD, 7, 100F, 9F, OTHER_OWNER },
+                    new Object[] { 16L, 2L, Currency.RUB, 1, 1F, 1F, null }
+                )
+            );
+        positionSnapshotService =
+            new PositionSnapshotService(
+                applicationProperties,
+                purchaseRepository,
+                securityRepository,
+                mock(PlatformTransactionManager.class)
+            );
+    }
+
+    @Test
+    void loadsTotalsOnFirstRead() {
+        List<PortfolioTotalDTO> totals = positionSnapshotService.getTotalsByType(OWNER);
+
+        assertThat(totals).hasSize(2);
+        assertTotal(totals.get(0), "SHARE", Currency.USD, 2, 5, 80d, 3d);
+        assertTotal(totals.get(1), "BOND", Currency.RUB, 1, 4, 20d, 0d);
+    }
+
+    @Test
+    void keepsTheTotalsOfEachOwnerApart() {
+        List<PortfolioTotalDTO> totals = positionSnapshotService.getTotalsByType(OTHER_OWNER);
+
+        assertThat(totals).hasSize(1);
+        assertTotal(totals.get(0), "SHARE", Currency.USD, 1, 7, 700d, 9d);
+        assertThat(positionSnapshotService.getTotalsByType(300L)).isEmpty();
+    }
+
+    @Test
+    void appliesPurchaseUpdatesIncrementally() {
+        positionSnapshotService.getTotalsByRegion(OWNER);
+
+        positionSnapshotService.putPurchase(11L, OWNER, 1L, Currency.USD, 1, 20F, 2F);
+        positionSnapshotService.putPurchase(14L, OWNER, 2L, Currency.USD, 2, 3F, 1F);
+        positionSnapshotService.removePurchase(12L);
+
+        List<PortfolioTotalDTO> totals = positionSnapshotService.getTotalsByRegion(OWNER);
+        assertThat(totals).hasSize(2);
+        assertTotal(totals.get(0), "RUS", Currency.USD, 1, 2, 6d, 1d);
+        assertTotal(totals.get(1), "USA", Currency.USD, 2, 3, 40d, 3d);
+    }
+
+    @Test
+    void appliesSecurityReclassification() {
+        positionSnapshotService.getTotalsByType(OWNER);
+
+        positionSnapshotService.putSecurity(2L, SecurityType.FUND, Region.RUS);
+
+        assertThat(positionSnapshotService.getTotalsByType(OWNER))
+            .extracting(PortfolioTotalDTO::getGroup)
+            .containsExactly("SHARE", "FUND");
+        assertThat(positionSnapshotService.getTotalsByCurrency(OWNER))
+            .extracting(PortfolioTotalDTO::getGroup)
+            .containsExactly("USD", "RUB");
+    }
+
+    @Test
+    void appliesTheCommitsMadeWhileLoading() throws Exception {
+        AtomicReference<Thread> committer = new AtomicReference<>();
+        when(purchaseRepository.streamPositionColumns())
+            .thenAnswer(
+                invocation -> {
+                    // A change committed after the query read the purchase, and reported while the load still runs
+                    Thread thread = new Thread(() -> positionSnapshotService.putPurchase(10L, OWNER, 1L, Currency.USD, 1, 10F, 1F));
+                    thread.start();
+                    while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+                        Thread.onSpinWait();
+                    }
+                    committer.set(thread);
+                    return Stream.<Object[]>of(new Object[] { 10L, 1L, Currency.USD, 2, 10F, 1F, OWNER });
+                }
+            );
+
+        positionSnapshotService.getTotalsByCurrency(OWNER);
+        committer.get().join();
+
+        List<PortfolioTotalDTO> totals = positionSnapshotService.getTotalsByCurrency(OWNER);
+        assertThat(totals).hasSize(1);
+        assertTotal(totals.get(0), "USD", Currency.USD, 1, 1, 10d, 1d);
+    }
+
+    @Test
+    void ignoresUpdatesWhenDisabled() {
+        PurchaseRepository purchaseRepository = mock(PurchaseRepository.class);
+        PositionSnapshotService disabled = new PositionSnapshotService(
+            new ApplicationProperties(),
+            purchaseRepository,
+            mock(SecurityRepository.class),
+            mock(PlatformTransactionManager.class)
+        );
+
+        disabled.putPurchase(1L, OWNER, 1L, Currency.USD, 1, 1F, 1F);
+
+        assertThat(disabled.isEnabled()).isFalse();
+        verifyNoInteractions(purchaseRepository);
+    }
+
+    private static void assertTotal(
+        PortfolioTotalDTO total,
+        String group,
+        Currency currency,
+        long purchaseCount,
+        long quantity,
+        double cost,
+        double comission
+    ) {
+        assertThat(total.getGroup()).isEqualTo(group);
+        assertThat(total.getCurrency()).isEqualTo(currency);
+        assertThat(total.getPurchaseCount()).isEqualTo(purchaseCount);
+        assertThat(total.getQuantity()).isEqualTo(quantity);
+        assertThat(total.getCost()).isEqualTo(cost);
+        assertThat(total.getComission()).isEqualTo(comission);
+    }
+}
@@ -0,0 +1,107 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.keyko.retirement.config.ApplicationProperties;
+
+/**
+ * Unit tests for {@link PriceHistoryStore}.
+ */
+class PriceHistoryStoreTest {
+
+    private static final long SECURITY_ID = 1L;
+
+    @TempDir
+    Path directory;
+
+    private ApplicationProperties applicationProperties;
+
+    private PriceHistoryStore priceHistoryStore;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getPriceHistory().setDirectory(directory.toString());
+        // Small segments, so ranges span several files
+        applicationProperties.getPriceHistory().setSegmentCapacity(3);
+        priceHistoryStore = new PriceHistoryStore(applicationProperties);
+    }
+
+    @Test
+    void readsRangesAcrossSegments() {
+        for (int day = 1; day <= 10; day++) {
+            assertThat(priceHistoryStore.append(SECURITY_ID, day(day), day * 10d)).isTrue();
+        }
+
+        PriceHistoryStore.PriceRange range = priceHistoryStore.getRange(SECURITY_ID, day(2), day(9));
+
+        assertThat(range.size()).isEqualTo(7);
+        for (int i = 0; i < range.size(); i++) {
+            assertThat(range.getTime(i)).isEqualTo(day(i + 2));
+            assertThat(range.getClose(i)).isEqualTo((i + 2) * 10d);
+        }
+        assertThat(directory.resolve(Long.toString(SECURITY_ID))).isDirectoryContaining("glob:**/00000003.seg");
+    }
+
+    @Test
+    void rejectsPricesOutOfOrder() {
+        assertThat(priceHistoryStore.append(SECURITY_ID, day(2), 20d)).isTrue();
+        assertThat(priceHistoryStore.append(SECURITY_ID, day(2), 21d)).isFalse();
+        assertThat(priceHistoryStore.append(SECURITY_ID, day(1), 10d)).isFalse();
+
+        assertThat(priceHistoryStore.getRange(SECURITY_ID, day(0), day(10)).size()).isEqualTo(1);
+    }
+
+    @Test
+    void returnsEmptyRangeForUnknownSecurity() {
+        assertThat(priceHistoryStore.getRange(SECURITY_ID, day(0), day(10)).size()).isZero();
+        assertThat(Files.exists(directory.resolve(Long.toString(SECURITY_ID)))).isFalse();
+    }
+
+    @Test
+    void reopensExistingSegments() {
+        for (int day = 1; day <= 5; day++) {
+            priceHistoryStore.append(SECURITY_ID, day(day), day);
+        }
+        priceHistoryStore.close();
+
+        PriceHistoryStore reopened = new PriceHistoryStore(applicationProperties);
+
+        assertThat(reopened.getRange(SECURITY_ID, day(0), day(10)).size()).isEqualTo(5);
+        assertThat(reopened.append(SECURITY_ID, day(5), 5d)).isFalse();
+        assertThat(reopened.append(SECURITY_ID, day(6), 6d)).isTrue();
+        assertThat(reopened.getRange(SECURITY_ID, day(6), day(7)).getClose(0)).isEqualTo(6d);
+    }
+
+    @Test
+    void importsCsvOnce() throws Exception {
+        String csv = "date;close\n1970-01-02;10.5\n1970-01-03T12:00:00Z;11\n\n1970-01-04,12\n";
+
+        assertThat(priceHistoryStore.importCsv(SECURITY_ID, new StringReader(csv))).isEqualTo(3);
+        assertThat(priceHistoryStore.importCsv(SECURITY_ID, new StringReader(csv))).isZero();
+
+        PriceHistoryStore.PriceRange range = priceHistoryStore.getRange(SECURITY_ID, day(0), day(10));
+        assertThat(range.size()).isEqualTo(3);
+        assertThat(range.getTime(1)).isEqualTo(Instant.parse("1970-01-03T12:00:00Z"));
+        assertThat(range.getClose(0)).isEqualTo(10.5d);
+    }
+
+    @Test
+    void rejectsInvalidCsv() {
+        assertThatThrownBy(() -> priceHistoryStore.importCsv(SECURITY_ID, new StringReader("1970-01-02;abc\n")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("line 1");
+    }
+
+    private static Instant day(int day) {
+        return Instant.ofEpochSecond(day * 86_400L);
+    }
+}
@@ -0,0 +1,57 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.service.dto.PurchaseImportResultDTO;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link PurchaseImportService}.
+ */
+class PurchaseImportServiceTest {
+
+    @Test
+    void rejectsTheChunkViolatingAConstraint() throws Exception {
+        EntityManager entityManager = mock(EntityManager.class);
+        doThrow(
+            new PersistenceException(
+                new ConstraintViolationException(
+                    "could not execute batch",
+                    new SQLException("Referential integrity constraint violation: FK_PURCHASE__SECURITY_ID"),
+                    "fk_purchase__security_id"
+                )
+            )
+        )
+            .when(entityManager)
+            .flush();
+        PurchaseImportService purchaseImportService = new PurchaseImportService(
+            mock(SecurityRepository.class),
+            entityManager,
+            mock(PositionService.class),
+            mock(PlatformTransactionManager.class),
+            25
+        );
+        String csv = "price;currency;number;comission\n" + "1;USD;1;1\n" + "2;USD;2;2\n";
+        InputStream content = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+
+        PurchaseImportResultDTO result = purchaseImportService.importCsv(content, 1L);
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getRejectedLines()).extracting(PurchaseImportResultDTO.RejectedLine::getLine).containsExactly(2L, 3L);
+        assertThat(result.getRejectedLines())
+            .extracting(PurchaseImportResultDTO.RejectedLine::getReason)
+            .containsOnly("Rejected by the database: Referential integrity constraint violation: FK_PURCHASE__SECURITY_ID");
+    }
+}
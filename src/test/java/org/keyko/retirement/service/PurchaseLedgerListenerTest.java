@@ -0,0 +1,89 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.User;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link PurchaseLedgerListener}.
+ */
+class PurchaseLedgerListenerTest {
+
+    private static final Long OWNER = 100L;
+
+    private static final Long OTHER_OWNER = 200L;
+
+    private final PurchaseLedgerListener listener = new PurchaseLedgerListener();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changesTheVersionOfTheOwnerOfAPurchaseOnly() {
+        long ownerVersion = listener.getVersion(OWNER);
+        long otherOwnerVersion = listener.getVersion(OTHER_OWNER);
+
+        listener.onWrite(purchaseOf(OWNER));
+
+        assertThat(listener.getVersion(OWNER)).isGreaterThan(ownerVersion);
+        assertThat(listener.getVersion(OTHER_OWNER)).isEqualTo(otherOwnerVersion);
+    }
+
+    @Test
+    void changesTheVersionOfAllTheOwnersOnAWriteToASecurity() {
+        long ownerVersion = listener.getVersion(OWNER);
+        long otherOwnerVersion = listener.getVersion(OTHER_OWNER);
+
+        listener.onWrite(new Security());
+
+        assertThat(listener.getVersion(OWNER)).isGreaterThan(ownerVersion);
+        assertThat(listener.getVersion(OTHER_OWNER)).isGreaterThan(otherOwnerVersion);
+    }
+
+    @Test
+    void changesTheVersionsOnceTheTransactionCommits() {
+        long ownerVersion = listener.getVersion(OWNER);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onWrite(purchaseOf(OWNER));
+        listener.onLedgerWrite(OWNER);
+
+        assertThat(listener.hasUncommittedWrites()).isTrue();
+        assertThat(listener.getVersion(OWNER)).isEqualTo(ownerVersion);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertThat(listener.hasUncommittedWrites()).isFalse();
+        assertThat(listener.getVersion(OWNER)).isGreaterThan(ownerVersion);
+    }
+
+    @Test
+    void keepsTheVersionsIncreasingWhenThereAreTooManyOwners() {
+        for (long ownerId = 0; ownerId < PurchaseLedgerListener.MAX_OWNER_VERSIONS; ownerId++) {
+            listener.onLedgerWrite(ownerId);
+        }
+        long ownerVersion = listener.getVersion(OWNER);
+
+        listener.onLedgerWrite(-1L);
+
+        assertThat(listener.getVersion(OWNER)).isGreaterThanOrEqualTo(ownerVersion);
+        assertThat(listener.getVersion(-1L)).isGreaterThan(ownerVersion);
+    }
+
+    private static Purchase purchaseOf(Long ownerId) {
+        User owner = new User();
+        owner.setId(ownerId);
+        return new Purchase().owner(owner);
+    }
+}
@@ -0,0 +1,188 @@
+package org.keyko.retirement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.domain.enumeration.Region;
+import org.keyko.retirement.domain.enumeration.SecurityType;
+import org.keyko.retirement.service.analytics.LogHistogram;
+import org.keyko.retirement.service.dto.PositionValuationDTO;
+import org.keyko.retirement.service.dto.SimulationRequestDTO;
+import org.keyko.retirement.service.dto.SimulationResultDTO;
+import org.keyko.retirement.service.dto.SimulationYearDTO;
+
+class RetirementSimulationServiceTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private final List<RetirementSimulationService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        assume(SecurityType.SHARE, 0.07, 0.16);
+        assume(SecurityType.BOND, 0.03, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(RetirementSimulationService::shutdown);
+    }
+
+    @Test
+    void compoundsTheReturnWithoutVolatility() {
+        SimulationResultDTO result = service(2).simulate(request(10, 5000, 100), List.of(position(SecurityType.BOND, Region.USA, 1000)));
+
+        double expected = 1000;
+        for (int year = 1; year <= 10; year++) {
+            expected = expected * 1.03 + 100;
+            SimulationYearDTO distribution = result.getYears().get(year);
+            assertThat(distribution.getYear()).isEqualTo(year);
+            assertThat(distribution.getMean()).isCloseTo(expected, within(1e-6));
+            assertThat(distribution.getP5()).isCloseTo(expected, withinPercentage(0.8));
+            assertThat(distribution.getP95()).isCloseTo(expected, withinPercentage(0.8));
+        }
+        assertThat(result.getInitialValue()).isEqualTo(1000);
+        assertThat(result.getYears()).hasSize(11);
+        assertThat(result.getYears().get(0).getP50()).isEqualTo(1000);
+    }
+
+    @Test
+    void spreadsTheValuesAroundTheLogNormalMedian() {
+        SimulationResultDTO result = service(2).simulate(request(20, 20_000, 0), List.of(position(SecurityType.SHARE, Region.USA, 1000)));
+
+        SimulationYearDTO last = result.getYears().get(20);
+        double median = 1000 * Math.exp(20 * (Math.log1p(0.07) - 0.16 * 0.16 / 2));
+        assertThat(last.getP50()).isCloseTo(median, withinPercentage(3));
+        assertThat(last.getMean()).isCloseTo(1000 * Math.pow(1.07, 20), withinPercentage(3));
+        assertThat(last.getP5()).isLessThan(last.getP25());
+        assertThat(last.getP25()).isLessThan(last.getP50());
+        assertThat(last.getP50()).isLessThan(last.getP75());
+        assertThat(last.getP75()).isLessThan(last.getP95());
+    }
+
+    @Test
+    void givesTheSameResultWhateverTheNumberOfThreads() {
+        List<PositionValuationDTO> positions = List.of(
+            position(SecurityType.SHARE, Region.USA, 600),
+            position(SecurityType.SHARE, Region.RUS, 100),
+            position(SecurityType.BOND, Region.USA, 300)
+        );
+        SimulationRequestDTO request = request(15, 3 * RetirementSimulationService.CHUNK_SIZE + 1, 50);
+
+        SimulationResultDTO sequential = service(1).simulate(request, positions);
+        SimulationResultDTO parallel = service(4).simulate(request, positions);
+
+        for (int year = 0; year <= 15; year++) {
+            SimulationYearDTO expected = sequential.getYears().get(year);
+            SimulationYearDTO actual = parallel.getYears().get(year);
+            assertThat(actual.getMean()).isCloseTo(expected.getMean(), withinPercentage(1e-9));
+            assertThat(actual.getP5()).isEqualTo(expected.getP5());
+            assertThat(actual.getP50()).isEqualTo(expected.getP50());
+            assertThat(actual.getP95()).isEqualTo(expected.getP95());
+        }
+    }
+
+    @Test
+    void returnsTheHistogramsOfTheValuesWhenRequested() {
+        List<PositionValuationDTO> positions = List.of(position(SecurityType.SHARE, Region.USA, 1000));
+        SimulationRequestDTO request = request(5, 10_000, 0);
+
+        assertThat(service(2).simulate(request, positions).getYears().get(5).getSketch()).isNull();
+
+        request.setIncludeSketches(true);
+        SimulationYearDTO last = service(2).simulate(request, positions).getYears().get(5);
+        LogHistogram histogram = LogHistogram.fromByteArray(last.getSketch());
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat(histogram.quantile(0.5)).isEqualTo(last.getP50());
+        assertThat(histogram.getMax()).isEqualTo(last.getMax());
+    }
+
+    @Test
+    void computesTheProbabilityToReachTheTarget() {
+        RetirementSimulationService service = service(2);
+        List<PositionValuationDTO> positions = List.of(position(SecurityType.BOND, Region.USA, 1000));
+        SimulationRequestDTO request = request(10, 1000, 0);
+
+        request.setTargetValue(1000 * Math.pow(1.03, 10) - 1);
+        assertThat(service.simulate(request, positions).getTargetProbability()).isEqualTo(1.0);
+
+        request.setTargetValue(1000 * Math.pow(1.03, 10) + 1);
+        assertThat(service.simulate(request, positions).getTargetProbability()).isEqualTo(0.0);
+
+        request.setTargetValue(null);
+        assertThat(service.simulate(request, positions).getTargetProbability()).isNull();
+    }
+
+    @Test
+    void capsTheValuesWhichWouldOverflow() {
+        SimulationResultDTO result = service(2).simulate(request(5, 1000, 0), List.of(position(SecurityType.SHARE, Region.USA, 1e308)));
+
+        assertThat(result.getInitialValue()).isEqualTo(RetirementSimulationService.MAX_VALUE);
+        SimulationYearDTO last = result.getYears().get(5);
+        assertThat(last.getMax()).isLessThanOrEqualTo(RetirementSimulationService.MAX_VALUE);
+        assertThat(Double.isFinite(last.getMean())).isTrue();
+    }
+
+    @Test
+    void investsTheContributionsOfAnEmptyPortfolio() {
+        SimulationResultDTO result = service(2).simulate(request(3, 1000, 100), Collections.emptyList());
+
+        assertThat(result.getInitialValue()).isZero();
+        assertThat(result.getYears().get(0).getP50()).isZero();
+        assertThat(result.getYears().get(1).getMean()).isCloseTo(100, within(1e-6));
+        assertThat(result.getYears().get(3).getP50()).isGreaterThan(250);
+    }
+
+    @Test
+    void stopsAtZeroWhenTheWithdrawalsExhaustThePortfolio() {
+        SimulationResultDTO result = service(2).simulate(request(5, 1000, -500), List.of(position(SecurityType.BOND, Region.USA, 1000)));
+
+        assertThat(result.getYears().get(2).getP95()).isPositive();
+        assertThat(result.getYears().get(3).getP95()).isZero();
+        assertThat(result.getYears().get(5).getMean()).isZero();
+    }
+
+    private RetirementSimulationService service(int parallelism) {
+        applicationProperties.getSimulation().setParallelism(parallelism);
+        RetirementSimulationService service = new RetirementSimulationService(applicationProperties, null, new SimpleMeterRegistry());
+        services.add(service);
+        return service;
+    }
+
+    private void assume(SecurityType type, double expectedReturn, double volatility) {
+        ApplicationProperties.Simulation.Assumption assumption = new ApplicationProperties.Simulation.Assumption();
+        assumption.setExpectedReturn(expectedReturn);
+        assumption.setVolatility(volatility);
+        applicationProperties.getSimulation().getTypes().put(type, assumption);
+    }
+
+    private static SimulationRequestDTO request(int years, int paths, double annualContribution) {
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setCurrency(Currency.USD);
+        request.setYears(years);
+        request.setPaths(paths);
+        request.setAnnualContribution(annualContribution);
+        request.setSeed(42L);
+        return request;
+    }
+
+    private static PositionValuationDTO position(SecurityType type, Region region, double marketValue) {
+        PositionValuationDTO position = new PositionValuationDTO();
+        position.setType(type);
+        position.setRegion(region);
+        position.setCurrency(Currency.USD);
+        position.setMarketValue(marketValue);
+        return position;
+    }
+}
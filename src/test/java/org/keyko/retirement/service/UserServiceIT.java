@@ -6,18 +6,27 @@ import static org.mockito.Mockito.when;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManagerFactory;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keyko.retirement.IntegrationTest;
 import org.keyko.retirement.config.Constants;
+import org.keyko.retirement.domain.Authority;
 import org.keyko.retirement.domain.User;
+import org.keyko.retirement.repository.AuthorityRepository;
 import org.keyko.retirement.repository.UserRepository;
+import org.keyko.retirement.security.AuthoritiesConstants;
 import org.keyko.retirement.service.dto.AdminUserDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
@@ -50,6 +59,15 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
@@ -166,6 +184,38 @@ class UserServiceIT {
         assertThat(users).isEmpty();
     }
 
+    @Test
+    @Transactional
+    void assertThatNotActivatedUsersAreDeletedWithTheirAuthoritiesAndCacheEntries() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        Authority authority = authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User notActivated = new User();
+            notActivated.setLogin(DEFAULT_LOGIN + i);
+            notActivated.setEmail(i + DEFAULT_EMAIL);
+            notActivated.setPassword(RandomStringUtils.random(60));
+            notActivated.setActivated(false);
+            notActivated.setActivationKey(RandomStringUtils.random(20));
+            notActivated.setAuthorities(new HashSet<>(Set.of(authority)));
+            ids.add(userRepository.saveAndFlush(notActivated).getId());
+            assertThat(userRepository.findOneWithAuthoritiesByLogin(notActivated.getLogin())).isPresent();
+        }
+
+        org.hibernate.Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(secondLevelCache.containsEntity(Authority.class, AuthoritiesConstants.USER)).isTrue();
+
+        userService.removeNotActivatedUsers();
+
+        assertThat(userRepository.findAllById(ids)).isEmpty();
+        for (int i = 0; i < 3; i++) {
+            assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(DEFAULT_LOGIN + i)).isNull();
+        }
+        // Only the region of the authorities of the users is invalidated by the deletion of the authorities
+        assertThat(secondLevelCache.containsEntity(Authority.class, AuthoritiesConstants.USER)).isTrue();
+    }
+
     @Test
     @Transactional
     void assertThatNotActivatedUsersWithNullActivationKeyCreatedBefore3DaysAreNotDeleted() {
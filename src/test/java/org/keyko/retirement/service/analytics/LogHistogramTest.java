@@ -0,0 +1,151 @@
+package org.keyko.retirement.service.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class LogHistogramTest {
+
+    @Test
+    void readsQuantilesWithinTheRelativeError() {
+        double[] values = randomValues(100_000);
+        LogHistogram histogram = new LogHistogram(7);
+        for (double value : values) {
+            histogram.record(value);
+        }
+        Arrays.sort(values);
+
+        assertThat(histogram.getCount()).isEqualTo(values.length);
+        assertThat(histogram.getMin()).isEqualTo(values[0]);
+        assertThat(histogram.getMax()).isEqualTo(values[values.length - 1]);
+        assertThat(histogram.getMean()).isCloseTo(Arrays.stream(values).average().getAsDouble(), withinPercentage(1e-9));
+        assertThat(histogram.getRelativeError()).isEqualTo(1.0 / 256);
+        for (int percent = 0; percent <= 100; percent++) {
+            double share = percent / 100.0;
+            double exact = values[(int) Math.max(0, Math.ceil(share * values.length) - 1)];
+            assertThat(histogram.quantile(share)).isCloseTo(exact, within(exact * histogram.getRelativeError()));
+        }
+    }
+
+    @Test
+    void countsZerosApart() {
+        LogHistogram histogram = new LogHistogram(4);
+        histogram.record(0, 3);
+        histogram.record(Double.MIN_VALUE);
+        histogram.record(10);
+
+        assertThat(histogram.getCount()).isEqualTo(5);
+        assertThat(histogram.getMin()).isZero();
+        assertThat(histogram.quantile(0.8)).isZero();
+        assertThat(histogram.quantile(0.81)).isEqualTo(10);
+    }
+
+    @Test
+    void keepsQuantilesBetweenTheMinimumAndTheMaximum() {
+        LogHistogram histogram = new LogHistogram(1);
+        histogram.record(1000.5, 10);
+
+        assertThat(histogram.quantile(0)).isEqualTo(1000.5);
+        assertThat(histogram.quantile(0.5)).isEqualTo(1000.5);
+        assertThat(histogram.quantile(1)).isEqualTo(1000.5);
+    }
+
+    @Test
+    void mergesPartialHistograms() {
+        double[] values = randomValues(10_000);
+        LogHistogram whole = new LogHistogram(6);
+        LogHistogram[] parts = { new LogHistogram(6), new LogHistogram(6), new LogHistogram(6) };
+        for (int i = 0; i < values.length; i++) {
+            whole.record(values[i]);
+            parts[i % parts.length].record(values[i]);
+        }
+
+        LogHistogram merged = new LogHistogram(6).merge(parts[2]).merge(parts[0]).merge(parts[1]);
+
+        assertThat(merged.getCount()).isEqualTo(whole.getCount());
+        assertThat(merged.getMin()).isEqualTo(whole.getMin());
+        assertThat(merged.getMax()).isEqualTo(whole.getMax());
+        assertThat(merged.getSum()).isCloseTo(whole.getSum(), withinPercentage(1e-9));
+        for (int percent = 0; percent <= 100; percent++) {
+            assertThat(merged.quantile(percent / 100.0)).isEqualTo(whole.quantile(percent / 100.0));
+        }
+    }
+
+    @Test
+    void refusesToMergeHistogramsOfAnotherPrecision() {
+        assertThatThrownBy(() -> new LogHistogram(6).merge(new LogHistogram(7))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void serializesToACompactForm() {
+        double[] values = randomValues(100_000);
+        LogHistogram histogram = new LogHistogram(6);
+        for (double value : values) {
+            histogram.record(value);
+        }
+        histogram.record(0, 7);
+
+        byte[] bytes = histogram.toByteArray();
+        LogHistogram read = LogHistogram.fromByteArray(bytes);
+
+        // The values span 29 powers of two of 64 buckets each, all but a few of them holding values
+        assertThat(bytes.length).isLessThan(29 * 64 * 4);
+        assertThat(read.getPrecision()).isEqualTo(6);
+        assertThat(read.getCount()).isEqualTo(histogram.getCount());
+        assertThat(read.getSum()).isEqualTo(histogram.getSum());
+        assertThat(read.getMin()).isZero();
+        assertThat(read.getMax()).isEqualTo(histogram.getMax());
+        for (int percent = 0; percent <= 100; percent++) {
+            assertThat(read.quantile(percent / 100.0)).isEqualTo(histogram.quantile(percent / 100.0));
+        }
+        assertThat(read.toByteArray()).isEqualTo(bytes);
+    }
+
+    @Test
+    void serializesAnEmptyHistogram() {
+        LogHistogram read = LogHistogram.fromByteArray(new LogHistogram(3).toByteArray());
+
+        assertThat(read.getCount()).isZero();
+        assertThat(read.getMean()).isNaN();
+        assertThat(read.quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void refusesInvalidBytes() {
+        byte[] bytes = new LogHistogram(3).toByteArray();
+
+        assertThatThrownBy(() -> LogHistogram.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LogHistogram.fromByteArray(Arrays.copyOf(bytes, bytes.length + 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LogHistogram.fromByteArray(new byte[] { 9 })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesInvalidValues() {
+        LogHistogram histogram = new LogHistogram(3);
+
+        assertThatThrownBy(() -> histogram.record(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.record(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.record(Double.POSITIVE_INFINITY)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.record(1, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LogHistogram(LogHistogram.MAX_PRECISION + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Draw log-uniform values between e^-5 and e^15.
+     */
+    private static double[] randomValues(int count) {
+        SplittableRandom random = new SplittableRandom(7);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.exp(random.nextDouble() * 20 - 5);
+        }
+        return values;
+    }
+}
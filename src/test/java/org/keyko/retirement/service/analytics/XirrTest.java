@@ -0,0 +1,105 @@
+package org.keyko.retirement.service.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class XirrTest {
+
+    @Test
+    void matchesTheSpreadsheetFunction() {
+        double[] amounts = { -10000, 2750, 4250, 3250, 2750 };
+        long[] days = { day("2008-01-01"), day("2008-03-01"), day("2008-10-30"), day("2009-02-15"), day("2009-04-01") };
+
+        assertThat(Xirr.solve(amounts, days, amounts.length)).isCloseTo(0.373362535, within(1e-9));
+    }
+
+    @Test
+    void solvesTheFlowsInAnyOrder() {
+        assertThat(Xirr.solve(new double[] { 110, -100 }, new long[] { 365, 0 }, 2)).isCloseTo(0.1, within(1e-12));
+        // Borrowing 100 and paying back 110 a year later costs 10% a year
+        assertThat(Xirr.solve(new double[] { 100, -110 }, new long[] { 0, 365 }, 2)).isCloseTo(0.1, within(1e-12));
+    }
+
+    @Test
+    void solvesLossesCloseToTheWholeInvestment() {
+        assertThat(Xirr.solve(new double[] { -100, 1 }, new long[] { 0, 365 }, 2)).isCloseTo(-0.99, within(1e-12));
+    }
+
+    @Test
+    void fallsBackOnBrentsMethodWhenNewtonsDoesNotConverge() {
+        double[] amounts = { 335, -621, -716 };
+        long[] days = { 2005, 1140, 1901 };
+
+        double rate = Xirr.solve(amounts, days, amounts.length);
+
+        assertThat(rate).isCloseTo(-0.9312, within(1e-4));
+        assertThat(presentValue(amounts, days, rate)).isCloseTo(0, within(1e-6));
+    }
+
+    @Test
+    void solvesALargeLedger() {
+        SplittableRandom random = new SplittableRandom(42);
+        int count = 100_000;
+        double[] amounts = new double[count + 1];
+        long[] days = new long[count + 1];
+        double value = 0;
+        for (int i = 0; i < count; i++) {
+            amounts[i] = -1 - random.nextDouble() * 100;
+            days[i] = random.nextInt(3650);
+            value -= amounts[i] * Math.pow(1.07, (3650 - days[i]) / Xirr.DAYS_PER_YEAR);
+        }
+        amounts[count] = value;
+        days[count] = 3650;
+
+        assertThat(Xirr.solve(amounts, days, count + 1)).isCloseTo(0.07, within(1e-9));
+    }
+
+    @Test
+    void readsOnlyTheCountedFlows() {
+        double[] amounts = { -100, 110, Double.NaN, -1000 };
+        long[] days = { 0, 365, 0, 730 };
+
+        assertThat(Xirr.solve(amounts, days, 2)).isCloseTo(0.1, within(1e-12));
+    }
+
+    @Test
+    void hasNoRateWithoutFlowsBothWays() {
+        assertThat(Xirr.solve(new double[] { -100, -50 }, new long[] { 0, 365 }, 2)).isNaN();
+        assertThat(Xirr.solve(new double[] { 100, 0 }, new long[] { 0, 365 }, 2)).isNaN();
+        assertThat(Xirr.solve(new double[0], new long[0], 0)).isNaN();
+    }
+
+    @Test
+    void hasNoRateOutOfBounds() {
+        // Tripling the investment in two days
+        assertThat(Xirr.solve(new double[] { -100, 300 }, new long[] { 0, 2 }, 2)).isNaN();
+    }
+
+    @Test
+    void rejectsInvalidFlows() {
+        assertThatThrownBy(() -> Xirr.solve(new double[] { -100 }, new long[] { 0, 365 }, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Xirr.solve(new double[] { -100, Double.POSITIVE_INFINITY }, new long[] { 0, 365 }, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long day(String date) {
+        return LocalDate.parse(date).toEpochDay();
+    }
+
+    private static double presentValue(double[] amounts, long[] days, double rate) {
+        long first = Long.MAX_VALUE;
+        for (long day : days) {
+            first = Math.min(first, day);
+        }
+        double value = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            value += amounts[i] * Math.pow(1 + rate, -(days[i] - first) / Xirr.DAYS_PER_YEAR);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,131 @@
+package org.keyko.retirement.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.config.ApplicationProperties;
+import org.keyko.retirement.security.ratelimit.LocalRateLimitStore;
+import org.keyko.retirement.web.rest.errors.ErrorConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.zalando.problem.ProblemModule;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties.RateLimit rateLimit = new ApplicationProperties.RateLimit();
+        rateLimit.getPerIp().setCapacity(3);
+        rateLimit.getPerIp().setPeriod(Duration.ofMinutes(1));
+        rateLimit.getPerLogin().setCapacity(2);
+        rateLimit.getPerLogin().setPeriod(Duration.ofMinutes(1));
+        filter = new RateLimitFilter(new LocalRateLimitStore(), rateLimit, new ObjectMapper().registerModule(new ProblemModule()));
+    }
+
+    @Test
+    void rejectsRequestsOverIpLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(authenticate("10.0.0.1", "user" + i).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+
+        MockHttpServletResponse response = authenticate("10.0.0.1", "other");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("20");
+        assertThat(response.getContentAsString()).contains(ErrorConstants.ERR_TOO_MANY_REQUESTS);
+        assertThat(authenticate("10.0.0.2", "other").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void rejectsRequestsOverLoginLimitFromAnyIp() throws Exception {
+        assertThat(authenticate("10.0.0.1", "user").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(authenticate("10.0.0.2", "USER").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse response = authenticate("10.0.0.3", "user");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+    }
+
+    @Test
+    void replaysBodyToChain() throws Exception {
+        MockHttpServletRequest request = post("/api/account/reset-password/init", "10.0.0.1", "user@localhost");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(StreamUtils.copyToString(chain.getRequest().getInputStream(), StandardCharsets.UTF_8)).isEqualTo("user@localhost");
+    }
+
+    @Test
+    void replaysBodyToAsynchronousReader() throws Exception {
+        MockHttpServletRequest request = post("/api/account/reset-password/init", "10.0.0.1", "user@localhost");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        ServletInputStream body = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allDataRead = new boolean[1];
+
+        body.setReadListener(
+            new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[4];
+                    while (body.isReady() && !body.isFinished()) {
+                        read.write(buffer, 0, body.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead[0] = true;
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            }
+        );
+
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("user@localhost");
+        assertThat(allDataRead[0]).isTrue();
+    }
+
+    @Test
+    void ignoresOtherEndpoints() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(post("/api/purchases", "10.0.0.1", "{}"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    private MockHttpServletResponse authenticate(String remoteAddr, String username) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String body = "{\"username\":\"" + username + "\",\"password\":\"password\"}";
+        filter.doFilter(post("/api/authenticate", remoteAddr, body), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest post(String uri, String remoteAddr, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(remoteAddr);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,344 @@
+package org.keyko.retirement.web.rest;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keyko.retirement.IntegrationTest;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.User;
+import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.UserRepository;
+import org.keyko.retirement.service.PositionService;
+import org.keyko.retirement.service.PriceHistoryStore;
+import org.keyko.retirement.service.dto.SimulationRequestDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link PortfolioResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class PortfolioResourceIT {
+
+    private static final String API_URL = "/api/portfolio";
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc restPortfolioMockMvc;
+
+    private User owner;
+
+    private Security security;
+
+    @BeforeEach
+    public void initTest() {
+        // The user of @WithMockUser
+        owner = userRepository.findOneByLogin("user").orElseThrow();
+        security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+        persistPurchase(new Purchase().price(10F).number(2).comission(1F).currency(Currency.USD).security(security));
+        persistPurchase(new Purchase().price(20F).number(3).comission(2F).currency(Currency.USD).security(security));
+        persistPurchase(new Purchase().price(5F).number(4).comission(0F).currency(Currency.RUB).security(security));
+        // A purchase of another user, which none of the views of the current user count
+        User admin = userRepository.findOneByLogin("admin").orElseThrow();
+        persistPurchase(new Purchase().price(1000F).number(7).comission(9F).currency(Currency.USD).security(security).owner(admin));
+        em.flush();
+    }
+
+    private void persistPurchase(Purchase purchase) {
+        if (purchase.getOwner() == null) {
+            purchase.setOwner(owner);
+        }
+        em.persist(purchase);
+        positionService.add(purchase);
+    }
+
+    @Test
+    @Transactional
+    void getSummary() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/summary"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.positions.length()").value(2))
+            .andExpect(jsonPath("$.positions[0].securityId").value(security.getId().intValue()))
+            .andExpect(jsonPath("$.positions[0].currency").value(Currency.RUB.toString()))
+            .andExpect(jsonPath("$.positions[0].quantity").value(4))
+            .andExpect(jsonPath("$.positions[0].cost").value(20.0))
+            .andExpect(jsonPath("$.positions[1].currency").value(Currency.USD.toString()))
+            .andExpect(jsonPath("$.positions[1].purchaseCount").value(2))
+            .andExpect(jsonPath("$.positions[1].quantity").value(5))
+            .andExpect(jsonPath("$.positions[1].cost").value(80.0))
+            .andExpect(jsonPath("$.positions[1].comission").value(3.0))
+            .andExpect(jsonPath("$.positions[1].totalCost").value(83.0))
+            .andExpect(jsonPath("$.byType[?(@.group == '%s' && @.currency == 'USD')].totalCost", security.getType()).value(83.0))
+            .andExpect(jsonPath("$.byRegion[?(@.group == '%s' && @.currency == 'RUB')].quantity", security.getRegion()).value(4));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("admin")
+    void getSummaryOfAnotherUser() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.positions.length()").value(1))
+            .andExpect(jsonPath("$.positions[0].currency").value(Currency.USD.toString()))
+            .andExpect(jsonPath("$.positions[0].purchaseCount").value(1))
+            .andExpect(jsonPath("$.positions[0].quantity").value(7))
+            .andExpect(jsonPath("$.positions[0].totalCost").value(7009.0));
+    }
+
+    @Test
+    @Transactional
+    void getPosition() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/positions/{securityId}?currency=USD", security.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id.securityId").value(security.getId().intValue()))
+            .andExpect(jsonPath("$.purchaseCount").value(2))
+            .andExpect(jsonPath("$.quantity").value(5))
+            .andExpect(jsonPath("$.cost").value(80.0))
+            .andExpect(jsonPath("$.comission").value(3.0));
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingPosition() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/positions/{securityId}?currency=USD", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getTotalsByRegion() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/totals?groupBy=region"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.group == '%s' && @.currency == 'USD')].totalCost", security.getRegion()).value(83.0))
+            .andExpect(jsonPath("$[?(@.group == '%s' && @.currency == 'RUB')].quantity", security.getRegion()).value(4));
+    }
+
+    @Test
+    @Transactional
+    void getTotalsWithUnknownGrouping() throws Exception {
+        restPortfolioMockMvc.perform(get(API_URL + "/totals?groupBy=ticker")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getValuation() throws Exception {
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-26T00:00:00Z"), 25d);
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-27T00:00:00Z"), 30d);
+
+        // The test rates are those of config/fx-rates.csv: 1 RUB = 0.0135 USD
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/valuation?currency=USD"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.currency").value(Currency.USD.toString()))
+            .andExpect(jsonPath("$.positions[0].currency").value(Currency.RUB.toString()))
+            .andExpect(jsonPath("$.positions[0].priced").value(true))
+            .andExpect(jsonPath("$.positions[0].marketValue").value(closeTo(4 * 30 * 0.0135, 1e-9)))
+            .andExpect(jsonPath("$.positions[0].cost").value(closeTo(20 * 0.0135, 1e-9)))
+            .andExpect(jsonPath("$.positions[1].currency").value(Currency.USD.toString()))
+            .andExpect(jsonPath("$.positions[1].lastPrice").value(30.0))
+            .andExpect(jsonPath("$.positions[1].lastPriceTime").value("2021-04-27T00:00:00Z"))
+            .andExpect(jsonPath("$.positions[1].marketValue").value(150.0))
+            .andExpect(jsonPath("$.positions[1].cost").value(83.0))
+            .andExpect(jsonPath("$.marketValue").value(closeTo(150 + 4 * 30 * 0.0135, 1e-9)));
+    }
+
+    @Test
+    @Transactional
+    void getValuationAtCostWithoutPrices() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/valuation?currency=RUB"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.positions[0].priced").value(false))
+            .andExpect(jsonPath("$.positions[0].marketValue").value(20.0))
+            .andExpect(jsonPath("$.positions[1].marketValue").value(closeTo(83 / 0.0135, 1e-6)));
+    }
+
+    @Test
+    @Transactional
+    void getReturns() throws Exception {
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-27T00:00:00Z"), 110d);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        persistPurchase(
+            new Purchase().price(100F).number(10).comission(0F).currency(Currency.USD).security(security).tradeDate(today.minusDays(365))
+        );
+        em.flush();
+
+        // Bought a year ago at 100, worth 110 today
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/returns?currency=USD"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.currency").value(Currency.USD.toString()))
+            .andExpect(jsonPath("$.asOf").value(today.toString()))
+            .andExpect(jsonPath("$.undatedPurchases").value(3))
+            .andExpect(jsonPath("$.securities.length()").value(1))
+            .andExpect(jsonPath("$.securities[0].securityId").value(security.getId().intValue()))
+            .andExpect(jsonPath("$.securities[0].ticker").value(security.getTicker()))
+            .andExpect(jsonPath("$.securities[0].flowCount").value(1))
+            .andExpect(jsonPath("$.securities[0].invested").value(1000.0))
+            .andExpect(jsonPath("$.securities[0].value").value(1100.0))
+            .andExpect(jsonPath("$.securities[0].annualizedReturn").value(closeTo(0.1, 1e-9)))
+            .andExpect(jsonPath("$.portfolio.annualizedReturn").value(closeTo(0.1, 1e-9)));
+
+        // Bought again half a year ago at 121, now worth 110
+        persistPurchase(
+            new Purchase().price(121F).number(10).comission(0F).currency(Currency.USD).security(security).tradeDate(today.minusDays(183))
+        );
+        em.flush();
+
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/returns?currency=USD"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.portfolio.flowCount").value(2))
+            .andExpect(jsonPath("$.portfolio.invested").value(2210.0))
+            .andExpect(jsonPath("$.portfolio.value").value(2200.0))
+            .andExpect(jsonPath("$.portfolio.firstTradeDate").value(today.minusDays(365).toString()))
+            .andExpect(jsonPath("$.portfolio.annualizedReturn").value(lessThan(0.0)));
+    }
+
+    @Test
+    @Transactional
+    void getReturnsWithoutDatedPurchases() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/returns?currency=RUB"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.undatedPurchases").value(3))
+            .andExpect(jsonPath("$.securities.length()").value(0))
+            .andExpect(jsonPath("$.portfolio.flowCount").value(0))
+            .andExpect(jsonPath("$.portfolio.annualizedReturn").value(nullValue()));
+    }
+
+    @Test
+    @Transactional
+    void simulate() throws Exception {
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setYears(5);
+        request.setPaths(1000);
+        request.setAnnualContribution(10);
+        request.setTargetValue(1e9);
+        request.setSeed(1L);
+
+        restPortfolioMockMvc
+            .perform(
+                post(API_URL + "/simulate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.currency").value(Currency.USD.toString()))
+            .andExpect(jsonPath("$.paths").value(1000))
+            .andExpect(jsonPath("$.initialValue").value(closeTo(83 + 20 * 0.0135, 1e-9)))
+            .andExpect(jsonPath("$.targetProbability").value(0.0))
+            .andExpect(jsonPath("$.years.length()").value(6))
+            .andExpect(jsonPath("$.years[0].p50").value(closeTo(83 + 20 * 0.0135, 1e-9)))
+            .andExpect(jsonPath("$.years[5].year").value(5))
+            .andExpect(jsonPath("$.years[5].count").value(1000))
+            .andExpect(jsonPath("$.years[5].p5").value(greaterThan(0.0)))
+            .andExpect(jsonPath("$.years[5].p95").value(lessThan(10_000.0)));
+    }
+
+    @Test
+    @Transactional
+    void simulateWithTooManyPaths() throws Exception {
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setPaths(1_000_000);
+
+        restPortfolioMockMvc
+            .perform(
+                post(API_URL + "/simulate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void simulateWithUnboundedContribution() throws Exception {
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setAnnualContribution(1e308);
+
+        restPortfolioMockMvc
+            .perform(
+                post(API_URL + "/simulate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void simulateWithoutPaths() throws Exception {
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setPaths(0);
+
+        restPortfolioMockMvc
+            .perform(
+                post(API_URL + "/simulate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(request))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getPurchaseCostDistribution() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/distributions/purchase-cost?currency=USD"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(3))
+            .andExpect(jsonPath("$.min").value(closeTo(20 * 0.0135, 1e-9)))
+            .andExpect(jsonPath("$.max").value(closeTo(62, 1e-9)))
+            .andExpect(jsonPath("$.p50").value(closeTo(21, 21 * 0.004)))
+            .andExpect(jsonPath("$.sketch").value(notNullValue()));
+    }
+
+    @Test
+    @Transactional
+    void getPositionWeightDistribution() throws Exception {
+        restPortfolioMockMvc
+            .perform(get(API_URL + "/distributions/position-weight"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(2))
+            .andExpect(jsonPath("$.min").value(closeTo(20 * 0.0135 / (83 + 20 * 0.0135), 1e-9)))
+            .andExpect(jsonPath("$.max").value(closeTo(83 / (83 + 20 * 0.0135), 1e-9)));
+    }
+
+    @Test
+    @Transactional
+    void getUnknownDistribution() throws Exception {
+        restPortfolioMockMvc.perform(get(API_URL + "/distributions/ticker")).andExpect(status().isBadRequest());
+    }
+}
@@ -1,20 +1,32 @@
 package org.keyko.retirement.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keyko.retirement.IntegrationTest;
+import org.keyko.retirement.domain.PositionId;
 import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
+import org.keyko.retirement.domain.User;
 import org.keyko.retirement.domain.enumeration.Currency;
+import org.keyko.retirement.repository.PositionRepository;
 import org.keyko.retirement.repository.PurchaseRepository;
+import org.keyko.retirement.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
@@ -42,6 +54,9 @@ class PurchaseResourceIT {
     private static final Float DEFAULT_COMISSION = 1F;
     private static final Float UPDATED_COMISSION = 2F;
 
+    private static final LocalDate DEFAULT_TRADE_DATE = LocalDate.ofEpochDay(0L);
+    private static final LocalDate UPDATED_TRADE_DATE = LocalDate.now(ZoneId.systemDefault());
+
     private static final String ENTITY_API_URL = "/api/purchases";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -51,6 +66,12 @@ class PurchaseResourceIT {
     @Autowired
     private PurchaseRepository purchaseRepository;
 
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -59,6 +80,8 @@ class PurchaseResourceIT {
 
     private Purchase purchase;
 
+    private User owner;
+
     /**
      * Create an entity for this test.
      *
@@ -70,7 +93,8 @@ class PurchaseResourceIT {
             .price(DEFAULT_PRICE)
             .currency(DEFAULT_CURRENCY)
             .number(DEFAULT_NUMBER)
-            .comission(DEFAULT_COMISSION);
+            .comission(DEFAULT_COMISSION)
+            .tradeDate(DEFAULT_TRADE_DATE);
         return purchase;
     }
 
@@ -85,13 +109,16 @@ class PurchaseResourceIT {
             .price(UPDATED_PRICE)
             .currency(UPDATED_CURRENCY)
             .number(UPDATED_NUMBER)
-            .comission(UPDATED_COMISSION);
+            .comission(UPDATED_COMISSION)
+            .tradeDate(UPDATED_TRADE_DATE);
         return purchase;
     }
 
     @BeforeEach
     public void initTest() {
-        purchase = createEntity(em);
+        // The user of @WithMockUser
+        owner = userRepository.findOneByLogin("user").orElseThrow();
+        purchase = createEntity(em).owner(owner);
     }
 
     @Test
@@ -111,6 +138,52 @@ class PurchaseResourceIT {
         assertThat(testPurchase.getCurrency()).isEqualTo(DEFAULT_CURRENCY);
         assertThat(testPurchase.getNumber()).isEqualTo(DEFAULT_NUMBER);
         assertThat(testPurchase.getComission()).isEqualTo(DEFAULT_COMISSION);
+        assertThat(testPurchase.getTradeDate()).isEqualTo(DEFAULT_TRADE_DATE);
+        assertThat(testPurchase.getOwner().getId()).isEqualTo(owner.getId());
+    }
+
+    @Test
+    void importPurchases() throws Exception {
+        List<Long> idsBeforeImport = purchaseRepository.findAll().stream().map(Purchase::getId).collect(Collectors.toList());
+        String csv =
+            "id;price;currency;number;comission;trade_date;ticker\n" +
+            "1;" + DEFAULT_PRICE + ";USD;" + DEFAULT_NUMBER + ";" + DEFAULT_COMISSION + ";" + DEFAULT_TRADE_DATE + ";\n" +
+            "2;" + UPDATED_PRICE + ";rub;" + UPDATED_NUMBER + ";" + UPDATED_COMISSION + ";;\n" +
+            "3;1;XXX;1;1;;\n" +
+            "4;1;USD;1;1;2021-13-01;\n" +
+            "5;1;USD;1;1;;UNKNOWN-TICKER\n";
+
+        // Chunks are committed by the import itself, so the imported purchases are removed at the end of the test
+        try {
+            restPurchaseMockMvc
+                .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejectedLines.[*].line").value(contains(4, 5, 6)));
+
+            List<Purchase> imported = purchaseRepository
+                .findAll()
+                .stream()
+                .filter(p -> !idsBeforeImport.contains(p.getId()))
+                .collect(Collectors.toList());
+            assertThat(imported).hasSize(2);
+            assertThat(imported).extracting(Purchase::getCurrency).containsExactlyInAnyOrder(Currency.USD, Currency.RUB);
+            assertThat(imported).extracting(Purchase::getNumber).containsExactlyInAnyOrder(DEFAULT_NUMBER, UPDATED_NUMBER);
+            assertThat(imported).extracting(Purchase::getTradeDate).containsExactlyInAnyOrder(DEFAULT_TRADE_DATE, null);
+            assertThat(imported).extracting(p -> p.getOwner().getId()).containsOnly(owner.getId());
+        } finally {
+            purchaseRepository.deleteAll(
+                purchaseRepository.findAll().stream().filter(p -> !idsBeforeImport.contains(p.getId())).collect(Collectors.toList())
+            );
+        }
+    }
+
+    @Test
+    void importPurchasesWithInvalidHeader() throws Exception {
+        restPurchaseMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content("id;price\n1;1\n"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -146,7 +219,72 @@ class PurchaseResourceIT {
             .andExpect(jsonPath("$.[*].price").value(hasItem(DEFAULT_PRICE.doubleValue())))
             .andExpect(jsonPath("$.[*].currency").value(hasItem(DEFAULT_CURRENCY.toString())))
             .andExpect(jsonPath("$.[*].number").value(hasItem(DEFAULT_NUMBER)))
-            .andExpect(jsonPath("$.[*].comission").value(hasItem(DEFAULT_COMISSION.doubleValue())));
+            .andExpect(jsonPath("$.[*].comission").value(hasItem(DEFAULT_COMISSION.doubleValue())))
+            .andExpect(jsonPath("$.[*].tradeDate").value(hasItem(DEFAULT_TRADE_DATE.toString())));
+    }
+
+    @Test
+    @Transactional
+    void getAllPurchasesWithSecurity() throws Exception {
+        // Initialize the database
+        Security security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+        purchase.setSecurity(security);
+        purchaseRepository.saveAndFlush(purchase);
+
+        // Get all the purchaseList, with the security of each purchase nested like in the entity
+        restPurchaseMockMvc
+            .perform(get(ENTITY_API_URL + "?afterId={afterId}&size=1", purchase.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(purchase.getId().intValue()))
+            .andExpect(jsonPath("$.[0].security.id").value(security.getId().intValue()))
+            .andExpect(jsonPath("$.[0].security.ticker").value(security.getTicker()))
+            .andExpect(jsonPath("$.[0].security.type").value(security.getType().toString()))
+            .andExpect(jsonPath("$.[0].securityId").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllPurchasesByKeyset() throws Exception {
+        // Initialize the database
+        purchaseRepository.saveAndFlush(purchase);
+        Purchase nextPurchase = purchaseRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the first page, which must link to the page after the first purchase
+        restPurchaseMockMvc
+            .perform(get(ENTITY_API_URL + "?afterId={afterId}&size=1", purchase.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", containsString("afterId=" + purchase.getId())))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(purchase.getId().intValue()));
+
+        // Get the next page, which is the last one
+        restPurchaseMockMvc
+            .perform(get(ENTITY_API_URL + "?afterId={afterId}&size=1", purchase.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(nextPurchase.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPurchasesWithInvalidPageSize() throws Exception {
+        restPurchaseMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void streamAllPurchases() throws Exception {
+        // Initialize the database
+        purchaseRepository.saveAndFlush(purchase);
+
+        // Stream all the purchases as newline-delimited JSON
+        restPurchaseMockMvc
+            .perform(get(ENTITY_API_URL).accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andExpect(content().string(containsString("\"id\":" + purchase.getId() + ",")));
     }
 
     @Test
@@ -164,7 +302,51 @@ class PurchaseResourceIT {
             .andExpect(jsonPath("$.price").value(DEFAULT_PRICE.doubleValue()))
             .andExpect(jsonPath("$.currency").value(DEFAULT_CURRENCY.toString()))
             .andExpect(jsonPath("$.number").value(DEFAULT_NUMBER))
-            .andExpect(jsonPath("$.comission").value(DEFAULT_COMISSION.doubleValue()));
+            .andExpect(jsonPath("$.comission").value(DEFAULT_COMISSION.doubleValue()))
+            .andExpect(jsonPath("$.tradeDate").value(DEFAULT_TRADE_DATE.toString()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPurchasesOfSecurity() throws Exception {
+        Security security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+        purchaseRepository.saveAndFlush(purchase.security(security));
+        purchaseRepository.saveAndFlush(createEntity(em).owner(owner));
+
+        restPurchaseMockMvc
+            .perform(get(ENTITY_API_URL + "?securityId={securityId}", security.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(purchase.getId().intValue()))
+            .andExpect(jsonPath("$.[0].securityId").value(security.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getOnlyThePurchasesOfTheCurrentUser() throws Exception {
+        User otherOwner = userRepository.findOneByLogin("admin").orElseThrow();
+        Purchase otherPurchase = purchaseRepository.saveAndFlush(createEntity(em).owner(otherOwner));
+        purchaseRepository.saveAndFlush(purchase);
+
+        restPurchaseMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(purchase.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherPurchase.getId().intValue()))));
+        restPurchaseMockMvc.perform(get(ENTITY_API_URL_ID, otherPurchase.getId())).andExpect(status().isNotFound());
+        restPurchaseMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, otherPurchase.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Purchase().id(otherPurchase.getId()).number(UPDATED_NUMBER)))
+            )
+            .andExpect(status().isBadRequest());
+        restPurchaseMockMvc.perform(delete(ENTITY_API_URL_ID, otherPurchase.getId())).andExpect(status().isNoContent());
+
+        // Neither changed nor deleted
+        assertThat(purchaseRepository.findById(otherPurchase.getId()))
+            .hasValueSatisfying(p -> assertThat(p.getNumber()).isEqualTo(DEFAULT_NUMBER));
     }
 
     @Test
@@ -186,7 +368,12 @@ class PurchaseResourceIT {
         Purchase updatedPurchase = purchaseRepository.findById(purchase.getId()).get();
         // Disconnect from session so that the updates on updatedPurchase are not directly saved in db
         em.detach(updatedPurchase);
-        updatedPurchase.price(UPDATED_PRICE).currency(UPDATED_CURRENCY).number(UPDATED_NUMBER).comission(UPDATED_COMISSION);
+        updatedPurchase
+            .price(UPDATED_PRICE)
+            .currency(UPDATED_CURRENCY)
+            .number(UPDATED_NUMBER)
+            .comission(UPDATED_COMISSION)
+            .tradeDate(UPDATED_TRADE_DATE);
 
         restPurchaseMockMvc
             .perform(
@@ -204,6 +391,8 @@ class PurchaseResourceIT {
         assertThat(testPurchase.getCurrency()).isEqualTo(UPDATED_CURRENCY);
         assertThat(testPurchase.getNumber()).isEqualTo(UPDATED_NUMBER);
         assertThat(testPurchase.getComission()).isEqualTo(UPDATED_COMISSION);
+        assertThat(testPurchase.getTradeDate()).isEqualTo(UPDATED_TRADE_DATE);
+        assertThat(testPurchase.getOwner().getId()).isEqualTo(owner.getId());
     }
 
     @Test
@@ -274,7 +463,7 @@ class PurchaseResourceIT {
         Purchase partialUpdatedPurchase = new Purchase();
         partialUpdatedPurchase.setId(purchase.getId());
 
-        partialUpdatedPurchase.price(UPDATED_PRICE).currency(UPDATED_CURRENCY).comission(UPDATED_COMISSION);
+        partialUpdatedPurchase.price(UPDATED_PRICE).currency(UPDATED_CURRENCY).comission(UPDATED_COMISSION).tradeDate(UPDATED_TRADE_DATE);
 
         restPurchaseMockMvc
             .perform(
@@ -292,6 +481,7 @@ class PurchaseResourceIT {
         assertThat(testPurchase.getCurrency()).isEqualTo(UPDATED_CURRENCY);
         assertThat(testPurchase.getNumber()).isEqualTo(DEFAULT_NUMBER);
         assertThat(testPurchase.getComission()).isEqualTo(UPDATED_COMISSION);
+        assertThat(testPurchase.getTradeDate()).isEqualTo(UPDATED_TRADE_DATE);
     }
 
     @Test
@@ -306,7 +496,12 @@ class PurchaseResourceIT {
         Purchase partialUpdatedPurchase = new Purchase();
         partialUpdatedPurchase.setId(purchase.getId());
 
-        partialUpdatedPurchase.price(UPDATED_PRICE).currency(UPDATED_CURRENCY).number(UPDATED_NUMBER).comission(UPDATED_COMISSION);
+        partialUpdatedPurchase
+            .price(UPDATED_PRICE)
+            .currency(UPDATED_CURRENCY)
+            .number(UPDATED_NUMBER)
+            .comission(UPDATED_COMISSION)
+            .tradeDate(UPDATED_TRADE_DATE);
 
         restPurchaseMockMvc
             .perform(
@@ -324,6 +519,7 @@ class PurchaseResourceIT {
         assertThat(testPurchase.getCurrency()).isEqualTo(UPDATED_CURRENCY);
         assertThat(testPurchase.getNumber()).isEqualTo(UPDATED_NUMBER);
         assertThat(testPurchase.getComission()).isEqualTo(UPDATED_COMISSION);
+        assertThat(testPurchase.getTradeDate()).isEqualTo(UPDATED_TRADE_DATE);
     }
 
     @Test
@@ -399,4 +595,58 @@ class PurchaseResourceIT {
         List<Purchase> purchaseList = purchaseRepository.findAll();
         assertThat(purchaseList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void maintainPositionOnWrites() throws Exception {
+        Security security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+        PositionId positionId = new PositionId(owner.getId(), security.getId(), DEFAULT_CURRENCY);
+        purchase.setSecurity(security);
+
+        // Create a purchase of the security
+        restPurchaseMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(purchase)))
+            .andExpect(status().isCreated());
+        Purchase createdPurchase = purchaseRepository
+            .findAll()
+            .stream()
+            .filter(p -> p.getSecurity() != null && security.getId().equals(p.getSecurity().getId()))
+            .findFirst()
+            .orElseThrow();
+        em.clear();
+        assertThat(positionRepository.findById(positionId))
+            .hasValueSatisfying(
+                position -> {
+                    assertThat(position.getPurchaseCount()).isEqualTo(1);
+                    assertThat(position.getQuantity()).isEqualTo(DEFAULT_NUMBER.longValue());
+                    assertThat(position.getCost()).isEqualTo(DEFAULT_PRICE * DEFAULT_NUMBER);
+                    assertThat(position.getComission()).isEqualTo(DEFAULT_COMISSION);
+                }
+            );
+
+        // Change its number
+        Purchase partialUpdatedPurchase = new Purchase().id(createdPurchase.getId()).number(UPDATED_NUMBER);
+        restPurchaseMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, createdPurchase.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedPurchase))
+            )
+            .andExpect(status().isOk());
+        em.clear();
+        assertThat(positionRepository.findById(positionId))
+            .hasValueSatisfying(
+                position -> {
+                    assertThat(position.getPurchaseCount()).isEqualTo(1);
+                    assertThat(position.getQuantity()).isEqualTo(UPDATED_NUMBER.longValue());
+                    assertThat(position.getCost()).isEqualTo(DEFAULT_PRICE * UPDATED_NUMBER);
+                }
+            );
+
+        // Delete it, which empties the position
+        restPurchaseMockMvc.perform(delete(ENTITY_API_URL_ID, createdPurchase.getId())).andExpect(status().isNoContent());
+        em.clear();
+        assertThat(positionRepository.findById(positionId)).isEmpty();
+    }
 }
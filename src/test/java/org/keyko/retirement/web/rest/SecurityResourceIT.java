@@ -1,21 +1,30 @@
 package org.keyko.retirement.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keyko.retirement.IntegrationTest;
+import org.keyko.retirement.domain.Purchase;
 import org.keyko.retirement.domain.Security;
 import org.keyko.retirement.domain.enumeration.Region;
 import org.keyko.retirement.domain.enumeration.SecurityType;
 import org.keyko.retirement.repository.SecurityRepository;
+import org.keyko.retirement.security.AuthoritiesConstants;
+import org.keyko.retirement.service.PriceHistoryStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
@@ -55,6 +64,9 @@ class SecurityResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
     @Autowired
     private MockMvc restSecurityMockMvc;
 
@@ -142,6 +154,86 @@ class SecurityResourceIT {
             .andExpect(jsonPath("$.[*].region").value(hasItem(DEFAULT_REGION.toString())));
     }
 
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void getAllSecuritiesWithPurchases() throws Exception {
+        // Initialize the database
+        List<Security> securities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Security other = createEntity(em);
+            em.persist(other);
+            for (int j = 0; j < 2; j++) {
+                Purchase purchase = PurchaseResourceIT.createEntity(em);
+                purchase.setSecurity(other);
+                em.persist(purchase);
+            }
+            securities.add(other);
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            // Get all the securityList with their purchases
+            restSecurityMockMvc
+                .perform(get(ENTITY_API_URL + "?include=purchases"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[?(@.id == " + securities.get(0).getId() + ")].purchases[*]", hasSize(2)))
+                .andExpect(jsonPath("$.[?(@.id == " + securities.get(2).getId() + ")].purchases[*]", hasSize(2)));
+
+            // The securities and all their purchases are loaded together
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllSecuritiesWithInvalidInclude() throws Exception {
+        restSecurityMockMvc.perform(get(ENTITY_API_URL + "?include=prices")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllSecuritiesWithPurchasesAsUser() throws Exception {
+        restSecurityMockMvc.perform(get(ENTITY_API_URL + "?include=purchases")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void getSecurityWithPurchases() throws Exception {
+        // Initialize the database
+        securityRepository.saveAndFlush(security);
+        Purchase purchase = PurchaseResourceIT.createEntity(em);
+        purchase.setSecurity(security);
+        em.persist(purchase);
+        em.flush();
+        em.clear();
+
+        // Get the security with its purchases
+        restSecurityMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?include=purchases", security.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(security.getId().intValue()))
+            .andExpect(jsonPath("$.purchases[*].id").value(contains(purchase.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getSecurityWithPurchasesAsUser() throws Exception {
+        securityRepository.saveAndFlush(security);
+
+        restSecurityMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?include=purchases", security.getId()))
+            .andExpect(status().isForbidden());
+    }
+
     @Test
     @Transactional
     void getSecurity() throws Exception {
@@ -160,6 +252,42 @@ class SecurityResourceIT {
             .andExpect(jsonPath("$.region").value(DEFAULT_REGION.toString()));
     }
 
+    @Test
+    @Transactional
+    void getSecurityPrices() throws Exception {
+        // Initialize the database
+        securityRepository.saveAndFlush(security);
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-25T00:00:00Z"), 9d);
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-26T00:00:00Z"), 10d);
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-27T15:30:00Z"), 11d);
+        priceHistoryStore.append(security.getId(), Instant.parse("2021-04-28T00:00:00Z"), 12d);
+
+        // Get the prices of the security, both days included
+        restSecurityMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/prices?from=2021-04-26&to=2021-04-27", security.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[*].time").value(contains("2021-04-26T00:00:00Z", "2021-04-27T15:30:00Z")))
+            .andExpect(jsonPath("$.[*].close").value(contains(10d, 11d)));
+    }
+
+    @Test
+    @Transactional
+    void getSecurityPricesWithInvalidRange() throws Exception {
+        securityRepository.saveAndFlush(security);
+
+        restSecurityMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/prices?from=2021-04-27&to=2021-04-26", security.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getPricesOfNonExistingSecurity() throws Exception {
+        restSecurityMockMvc.perform(get(ENTITY_API_URL_ID + "/prices", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingSecurity() throws Exception {
@@ -15,9 +15,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keyko.retirement.IntegrationTest;
 import org.keyko.retirement.domain.Authority;
+import org.keyko.retirement.domain.Purchase;
+import org.keyko.retirement.domain.Security;
 import org.keyko.retirement.domain.User;
+import org.keyko.retirement.repository.PositionRepository;
+import org.keyko.retirement.repository.PurchaseRepository;
 import org.keyko.retirement.repository.UserRepository;
 import org.keyko.retirement.security.AuthoritiesConstants;
+import org.keyko.retirement.service.PositionService;
 import org.keyko.retirement.service.dto.AdminUserDTO;
 import org.keyko.retirement.service.dto.UserDTO;
 import org.keyko.retirement.service.mapper.UserMapper;
@@ -64,6 +69,15 @@ class UserResourceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private PositionService positionService;
+
     @Autowired
     private UserMapper userMapper;
 
@@ -487,6 +501,33 @@ class UserResourceIT {
         assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeDelete - 1));
     }
 
+    @Test
+    @Transactional
+    void deleteUserWithPurchases() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        Security security = SecurityResourceIT.createEntity(em);
+        em.persist(security);
+        Purchase purchase = PurchaseResourceIT.createEntity(em);
+        purchase.setSecurity(security);
+        purchase.setOwner(user);
+        em.persist(purchase);
+        positionService.add(purchase);
+        em.flush();
+        int databaseSizeBeforeDelete = userRepository.findAll().size();
+
+        // Delete the user
+        restUserMockMvc
+            .perform(delete("/api/admin/users/{login}", user.getLogin()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+        em.flush();
+
+        // Validate the user, their purchases and their positions are gone
+        assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeDelete - 1));
+        assertThat(purchaseRepository.findByIdAndOwnerId(purchase.getId(), user.getId())).isEmpty();
+        assertThat(positionRepository.summarizeByOwnerId(user.getId())).isEmpty();
+    }
+
     @Test
     void testUserEquals() throws Exception {
         TestUtil.equalsVerifier(User.class);
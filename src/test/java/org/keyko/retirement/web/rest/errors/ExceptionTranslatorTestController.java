@@ -1,7 +1,9 @@
 package org.keyko.retirement.web.rest.errors;
 
+import java.time.Duration;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import org.keyko.retirement.security.PasswordHashingRejectedException;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
@@ -26,6 +28,11 @@ public class ExceptionTranslatorTestController {
     @GetMapping("/missing-servlet-request-parameter")
     public void missingServletRequestParameterException(@RequestParam String param) {}
 
+    @GetMapping("/password-hashing-rejected")
+    public void passwordHashingRejected() {
+        throw new PasswordHashingRejectedException(Duration.ofSeconds(2));
+    }
+
     @GetMapping("/access-denied")
     public void accessdenied() {
         throw new AccessDeniedException("test access denied!");